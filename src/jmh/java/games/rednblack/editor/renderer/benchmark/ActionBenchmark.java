@@ -0,0 +1,62 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.systems.action.ActionSystem;
+import games.rednblack.editor.renderer.systems.action.Actions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ActionSystem} running a repeated sequence of tweens on every entity, relative ones or absolute ones written
+ * back in batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"by", "to"})
+    public String tweens;
+
+    private Engine engine;
+
+    @Setup
+    public void setup() {
+        // Action logics keep the engine they first ran with
+        Actions.dispose();
+
+        engine = BenchmarkScenes.createEngine(new ActionSystem());
+        for (int i = 0; i < entityCount; i++) {
+            int entity = engine.create();
+            engine.edit(entity).create(TransformComponent.class);
+            if (tweens.equals("by")) {
+                Actions.addAction(entity, Actions.forever(Actions.sequence(
+                        Actions.moveBy(10, 0, 0.5f),
+                        Actions.rotateBy(90, 0.25f),
+                        Actions.moveBy(-10, 0, 0.5f))), engine);
+            } else {
+                Actions.addAction(entity, Actions.forever(Actions.sequence(
+                        Actions.moveTo(10, 0, 0.5f),
+                        Actions.rotateTo(90, 0.25f),
+                        Actions.moveTo(0, 0, 0.5f))), engine);
+            }
+        }
+        engine.setDelta(1 / 60f);
+        engine.process();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Actions.dispose();
+    }
+
+    @Benchmark
+    public void frame() {
+        engine.process();
+    }
+}
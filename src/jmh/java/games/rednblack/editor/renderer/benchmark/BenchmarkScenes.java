@@ -0,0 +1,99 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.data.LayerItemVO;
+import games.rednblack.editor.renderer.ecs.*;
+
+/**
+ * Headless engines and scenes shared by benchmarks, no GL context is needed.
+ */
+final class BenchmarkScenes {
+    static final int VIEW_WIDTH = 1920;
+    static final int VIEW_HEIGHT = 1080;
+    static final int GROUP_SIZE = 100;
+    static final float ITEM_SIZE = 32;
+
+    private BenchmarkScenes() {
+    }
+
+    static Engine createEngine(BaseSystem... systems) {
+        GdxNativesLoader.load();
+        EngineConfiguration configuration = new EngineConfigurationBuilder()
+                .with(systems)
+                .build();
+        return new Engine(configuration);
+    }
+
+    /**
+     * Root viewport composite holding composites of {@link #GROUP_SIZE} items each, laid out on a grid four times
+     * the camera area so culling sees both visible and hidden entities.
+     *
+     * @return root entity
+     */
+    static int createScene(Engine engine, int items) {
+        Archetype compositeArchetype = new ArchetypeBuilder()
+                .add(TransformComponent.class, DimensionsComponent.class, NodeComponent.class, ParentNodeComponent.class,
+                        CompositeTransformComponent.class, LayerMapComponent.class, MainItemComponent.class,
+                        ZIndexComponent.class, BoundingBoxComponent.class)
+                .build(engine);
+        Archetype itemArchetype = new ArchetypeBuilder()
+                .add(TransformComponent.class, DimensionsComponent.class, ParentNodeComponent.class,
+                        MainItemComponent.class, ZIndexComponent.class, BoundingBoxComponent.class)
+                .build(engine);
+
+        int root = createComposite(engine, compositeArchetype, -1, 0, 0);
+        OrthographicCamera camera = new OrthographicCamera(VIEW_WIDTH, VIEW_HEIGHT);
+        camera.position.set(VIEW_WIDTH * 0.5f, VIEW_HEIGHT * 0.5f, 0);
+        camera.update();
+        ViewPortComponent viewPortComponent = engine.edit(root).create(ViewPortComponent.class);
+        viewPortComponent.viewPort = new ScreenViewport(camera);
+
+        int columns = (int) Math.ceil(Math.sqrt(items));
+        float spacing = Math.max(ITEM_SIZE, (VIEW_WIDTH * 2f) / columns);
+
+        int group = -1;
+        for (int i = 0; i < items; i++) {
+            if (i % GROUP_SIZE == 0)
+                group = createComposite(engine, compositeArchetype, root, 0, 0);
+
+            int entity = engine.create(itemArchetype);
+            TransformComponent transform = engine.getMapper(TransformComponent.class).get(entity);
+            transform.x = (i % columns) * spacing;
+            transform.y = (i / columns) * spacing;
+            transform.originX = ITEM_SIZE * 0.5f;
+            transform.originY = ITEM_SIZE * 0.5f;
+            DimensionsComponent dimensions = engine.getMapper(DimensionsComponent.class).get(entity);
+            dimensions.width = ITEM_SIZE;
+            dimensions.height = ITEM_SIZE;
+            addChild(engine, group, entity, i % GROUP_SIZE);
+        }
+        return root;
+    }
+
+    static int createComposite(Engine engine, Archetype archetype, int parent, float x, float y) {
+        int entity = engine.create(archetype);
+        TransformComponent transform = engine.getMapper(TransformComponent.class).get(entity);
+        transform.x = x;
+        transform.y = y;
+        transform.originX = 0;
+        transform.originY = 0;
+        engine.getMapper(LayerMapComponent.class).get(entity).addLayer(LayerItemVO.createDefault());
+        if (parent != -1) {
+            NodeComponent parentNode = engine.getMapper(NodeComponent.class).get(parent);
+            addChild(engine, parent, entity, parentNode.children.size);
+        }
+        return entity;
+    }
+
+    static void addChild(Engine engine, int parent, int child, int zIndex) {
+        engine.getMapper(NodeComponent.class).get(parent).addChild(child);
+        engine.getMapper(ParentNodeComponent.class).get(child).parentEntity = parent;
+        ZIndexComponent zIndexComponent = engine.getMapper(ZIndexComponent.class).get(child);
+        zIndexComponent.setLayerName("Default");
+        zIndexComponent.setZIndex(zIndex);
+        zIndexComponent.needReOrder = false;
+    }
+}
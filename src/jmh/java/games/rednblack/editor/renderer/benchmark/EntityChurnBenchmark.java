@@ -0,0 +1,62 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.MainItemComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.ecs.Archetype;
+import games.rednblack.editor.renderer.ecs.ArchetypeBuilder;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.annotations.All;
+import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates and deletes every entity of the world, one frame each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityChurnBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private Engine engine;
+    private Archetype archetype;
+    private int[] entities;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine(new TouchSystem());
+        archetype = new ArchetypeBuilder()
+                .add(TransformComponent.class, DimensionsComponent.class, MainItemComponent.class)
+                .build(engine);
+        entities = new int[entityCount];
+    }
+
+    @Benchmark
+    public void createProcessDelete() {
+        for (int i = 0; i < entityCount; i++) {
+            entities[i] = engine.create(archetype);
+        }
+        engine.process();
+
+        for (int i = 0; i < entityCount; i++) {
+            engine.delete(entities[i]);
+        }
+        engine.process();
+    }
+
+    @All(TransformComponent.class)
+    public static class TouchSystem extends IteratingSystem {
+        protected ComponentMapper<TransformComponent> transformMapper;
+
+        @Override
+        protected void process(int entityId) {
+            transformMapper.get(entityId).x++;
+        }
+    }
+}
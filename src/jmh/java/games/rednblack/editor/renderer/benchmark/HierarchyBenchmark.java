@@ -0,0 +1,63 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
+import games.rednblack.editor.renderer.systems.CullingSystem;
+import games.rednblack.editor.renderer.systems.TransformHierarchySystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transform hierarchy, bounding boxes and culling over a two level scene.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HierarchyBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private Engine engine;
+    private ComponentMapper<TransformComponent> transformMapper;
+    private int root;
+    private int[] groups;
+    private int nextGroup;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine(new TransformHierarchySystem(), new BoundingBoxSystem(), new CullingSystem());
+        transformMapper = engine.getMapper(TransformComponent.class);
+        root = BenchmarkScenes.createScene(engine, entityCount);
+
+        NodeComponent rootNode = engine.getMapper(NodeComponent.class).get(root);
+        groups = rootNode.children.toArray();
+
+        engine.process();
+    }
+
+    /** Nothing moved since the last frame */
+    @Benchmark
+    public void staticFrame() {
+        engine.process();
+    }
+
+    /** One group of {@link BenchmarkScenes#GROUP_SIZE} items moves */
+    @Benchmark
+    public void moveGroup() {
+        transformMapper.get(groups[nextGroup]).x += 1;
+        nextGroup = (nextGroup + 1) % groups.length;
+        engine.process();
+    }
+
+    /** The whole scene moves, every world transform and bounding box is recomputed */
+    @Benchmark
+    public void moveRoot() {
+        transformMapper.get(root).x += 1;
+        engine.process();
+    }
+}
@@ -0,0 +1,121 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.utils.SnapshotArray;
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.ecs.Aspect;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchy walks and child churn over {@link NodeComponent#children}, against the boxed
+ * <code>SnapshotArray&lt;Integer&gt;</code> it replaced. Both trees are looked up by entity the same way.
+ * <p>
+ * Run with <code>./gradlew jmh -PjmhIncludes=NodeChildren -PjmhProfilers=gc</code> to compare allocations,
+ * <code>gc.alloc.rate.norm</code> is the number of bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NodeChildrenBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private SnapshotIntArray[] primitive;
+    private SnapshotArray<Integer>[] boxed;
+    private int root;
+    private int[] groups;
+    private int nextGroup;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Engine engine = BenchmarkScenes.createEngine();
+        root = BenchmarkScenes.createScene(engine, entityCount);
+        engine.process();
+
+        ComponentMapper<NodeComponent> nodeMapper = engine.getMapper(NodeComponent.class);
+        int capacity = 0;
+        IntBag entities = engine.getAspectSubscriptionManager().get(Aspect.all()).getEntities();
+        for (int i = 0; i < entities.size(); i++)
+            capacity = Math.max(capacity, entities.get(i) + 1);
+        primitive = new SnapshotIntArray[capacity];
+        boxed = new SnapshotArray[capacity];
+
+        IntBag composites = engine.getAspectSubscriptionManager().get(Aspect.all(NodeComponent.class)).getEntities();
+        for (int i = 0; i < composites.size(); i++) {
+            int entity = composites.get(i);
+            NodeComponent node = nodeMapper.get(entity);
+            primitive[entity] = node.children;
+            SnapshotArray<Integer> children = new SnapshotArray<>(true, node.children.size, Integer.class);
+            for (int c = 0; c < node.children.size; c++)
+                children.add(node.children.get(c));
+            boxed[entity] = children;
+        }
+        groups = primitive[root].toArray();
+    }
+
+    @Benchmark
+    public int walkPrimitive() {
+        return walkPrimitive(root);
+    }
+
+    @Benchmark
+    public int walkBoxed() {
+        return walkBoxed(root);
+    }
+
+    /** One child of a group is removed and added back, as when reparenting */
+    @Benchmark
+    public int churnPrimitive() {
+        SnapshotIntArray children = primitive[nextGroup()];
+        int child = children.get(0);
+        children.removeValue(child);
+        children.add(child);
+        return children.size;
+    }
+
+    @Benchmark
+    public int churnBoxed() {
+        SnapshotArray<Integer> children = boxed[nextGroup()];
+        int child = children.get(0);
+        children.removeValue(child, false);
+        children.add(child);
+        return children.size;
+    }
+
+    private int nextGroup() {
+        int group = groups[nextGroup];
+        nextGroup = (nextGroup + 1) % groups.length;
+        return group;
+    }
+
+    private int walkPrimitive(int entity) {
+        SnapshotIntArray children = primitive[entity];
+        int sum = entity;
+        int[] items = children.begin();
+        for (int i = 0, n = children.size; i < n; i++) {
+            int child = items[i];
+            sum += primitive[child] != null ? walkPrimitive(child) : child;
+        }
+        children.end();
+        return sum;
+    }
+
+    private int walkBoxed(int entity) {
+        SnapshotArray<Integer> children = boxed[entity];
+        int sum = entity;
+        Integer[] items = children.begin();
+        for (int i = 0, n = children.size; i < n; i++) {
+            int child = items[i];
+            sum += boxed[child] != null ? walkBoxed(child) : child;
+        }
+        children.end();
+        return sum;
+    }
+}
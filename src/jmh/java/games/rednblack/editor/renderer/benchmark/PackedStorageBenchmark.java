@@ -0,0 +1,89 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.BoundingBoxComponent;
+import games.rednblack.editor.renderer.components.PackedBounds;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.PackedComponentMapper;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
+import games.rednblack.editor.renderer.systems.TransformHierarchySystem;
+import games.rednblack.editor.renderer.utils.SpatialHashGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexed culling pass of {@link games.rednblack.editor.renderer.systems.CullingSystem}: spatial index query, then
+ * overlap test of every candidate reading bounding box components in query order, or packed bounds in entity order.
+ * The area covers the whole scene, so every entity is a candidate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PackedStorageBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
+    private PackedComponentMapper<PackedBounds> packedBounds;
+    private SpatialHashGrid spatialIndex;
+    private final IntArray candidates = new IntArray();
+    private final Rectangle area = new Rectangle();
+
+    @Setup
+    public void setup() {
+        BoundingBoxSystem boundingBoxSystem = new BoundingBoxSystem();
+        boundingBoxSystem.setPackedBounds(true);
+        Engine engine = BenchmarkScenes.createEngine(new TransformHierarchySystem(), boundingBoxSystem);
+        BenchmarkScenes.createScene(engine, entityCount);
+        engine.process();
+
+        boundingBoxMapper = engine.getMapper(BoundingBoxComponent.class);
+        packedBounds = boundingBoxSystem.getPackedBounds();
+        spatialIndex = boundingBoxSystem.getSpatialIndex();
+
+        // Grid is twice the view width, plus a margin for the items on its edges
+        float size = BenchmarkScenes.VIEW_WIDTH * 2 + BenchmarkScenes.ITEM_SIZE * 2;
+        area.set(-BenchmarkScenes.ITEM_SIZE, -BenchmarkScenes.ITEM_SIZE, size, size);
+    }
+
+    @Benchmark
+    public int components() {
+        candidates.clear();
+        spatialIndex.query(area, candidates);
+
+        int visible = 0;
+        int[] items = candidates.items;
+        for (int i = 0, n = candidates.size; i < n; i++) {
+            Rectangle r = boundingBoxMapper.get(items[i]).rectangle;
+            if (overlaps(r.x, r.y, r.width, r.height))
+                visible++;
+        }
+        return visible;
+    }
+
+    @Benchmark
+    public int packed() {
+        candidates.clear();
+        spatialIndex.query(area, candidates);
+        candidates.sort();
+
+        int visible = 0;
+        float[] bounds = packedBounds.getData();
+        int[] items = candidates.items;
+        for (int i = 0, n = candidates.size; i < n; i++) {
+            int offset = items[i] * PackedBounds.STRIDE;
+            if (overlaps(bounds[offset + PackedBounds.X], bounds[offset + PackedBounds.Y],
+                    bounds[offset + PackedBounds.WIDTH], bounds[offset + PackedBounds.HEIGHT]))
+                visible++;
+        }
+        return visible;
+    }
+
+    private boolean overlaps(float x, float y, float width, float height) {
+        return x < area.x + area.width && x + width > area.x && y < area.y + area.height && y + height > area.y;
+    }
+}
@@ -0,0 +1,74 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.ecs.BaseSystem;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.annotations.All;
+import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
+import games.rednblack.editor.renderer.ecs.systems.parallel.ParallelIteratingSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same per-entity work on {@link IteratingSystem} and {@link ParallelIteratingSystem}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelIteratingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Engine engine;
+
+    @Setup
+    public void setup() {
+        BaseSystem system = parallel ? new ParallelSpinSystem() : new SpinSystem();
+        engine = BenchmarkScenes.createEngine(system);
+        for (int i = 0; i < entityCount; i++) {
+            int entity = engine.create();
+            TransformComponent transform = engine.edit(entity).create(TransformComponent.class);
+            transform.x = i;
+        }
+        engine.setDelta(1 / 60f);
+        engine.process();
+    }
+
+    @Benchmark
+    public void frame() {
+        engine.process();
+    }
+
+    static void spin(TransformComponent t, float delta) {
+        float angle = t.rotation + 90 * delta;
+        t.rotation = angle % 360;
+        t.x += (float) Math.cos(Math.toRadians(angle)) * delta;
+        t.y += (float) Math.sin(Math.toRadians(angle)) * delta;
+    }
+
+    @All(TransformComponent.class)
+    public static class SpinSystem extends IteratingSystem {
+        protected ComponentMapper<TransformComponent> transformMapper;
+
+        @Override
+        protected void process(int entityId) {
+            spin(transformMapper.get(entityId), engine.getDelta());
+        }
+    }
+
+    @All(TransformComponent.class)
+    public static class ParallelSpinSystem extends ParallelIteratingSystem {
+        protected ComponentMapper<TransformComponent> transformMapper;
+
+        @Override
+        protected void process(int entityId) {
+            spin(transformMapper.get(entityId), engine.getDelta());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import games.rednblack.editor.renderer.systems.render.RenderCommandList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a composite of items cycling through a few atlas textures and submits it, in hierarchy order
+ * (lookahead 1) or grouped by state. The <code>flushes</code> counter reports the texture switches a batch would
+ * flush on per submission.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderCommandBenchmark {
+
+    @Param({"1000", "10000"})
+    public int itemCount;
+
+    @Param({"4"})
+    public int textureCount;
+
+    @Param({"1", "32"})
+    public int lookahead;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long flushes;
+    }
+
+    private final RenderCommandList commands = new RenderCommandList();
+    private final RenderCommandList.Submitter submitter = new RenderCommandList.Submitter() {
+        @Override
+        public void submit(int entity, float parentAlpha, float offsetX, float offsetY) {
+            drawn += entity;
+        }
+    };
+    private Rectangle[] bounds;
+    private long drawn;
+
+    @Setup
+    public void setup() {
+        commands.setLookahead(lookahead);
+
+        RandomXS128 random = new RandomXS128(7);
+        bounds = new Rectangle[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            float x = random.nextFloat() * BenchmarkScenes.VIEW_WIDTH;
+            float y = random.nextFloat() * BenchmarkScenes.VIEW_HEIGHT;
+            float size = BenchmarkScenes.ITEM_SIZE * MathUtils.lerp(0.5f, 2f, random.nextFloat());
+            bounds[i] = new Rectangle(x, y, size, size);
+        }
+    }
+
+    @Benchmark
+    public long recordAndSubmit(Counters counters) {
+        commands.resetStateChanges();
+        for (int i = 0; i < itemCount; i++) {
+            commands.add(i, 1, 0, 0, i % textureCount, bounds[i]);
+        }
+        commands.submit(submitter);
+        counters.flushes += commands.getStateChanges();
+        return drawn;
+    }
+}
@@ -0,0 +1,80 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.data.io.BinarySceneReader;
+import games.rednblack.editor.renderer.data.io.BinarySceneWriter;
+import games.rednblack.editor.renderer.utils.HyperJson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the same scene from JSON and from the binary format. Run with <code>-prof gc</code> to compare allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SceneLoadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private String json;
+    private byte[] binary;
+    private final BinarySceneReader reader = new BinarySceneReader();
+
+    @Setup
+    public void setup() {
+        SceneVO sceneVO = createScene(entityCount);
+        json = HyperJson.getJson().toJson(sceneVO);
+        binary = new BinarySceneWriter().write(sceneVO);
+    }
+
+    @Benchmark
+    public SceneVO json() {
+        return HyperJson.getJson().fromJson(SceneVO.class, json);
+    }
+
+    @Benchmark
+    public SceneVO binary() {
+        return reader.read(binary);
+    }
+
+    static SceneVO createScene(int items) {
+        SceneVO sceneVO = new SceneVO();
+        sceneVO.sceneName = "Benchmark";
+        sceneVO.composite = new CompositeItemVO();
+        sceneVO.composite.layers.add(LayerItemVO.createDefault());
+
+        CompositeItemVO group = null;
+        for (int i = 0; i < items; i++) {
+            if (i % BenchmarkScenes.GROUP_SIZE == 0) {
+                group = new CompositeItemVO();
+                group.itemIdentifier = "group" + i;
+                group.layerName = "Default";
+                group.layers.add(LayerItemVO.createDefault());
+                sceneVO.composite.addItem(group);
+            }
+
+            MainItemVO item;
+            if (i % 10 == 0) {
+                LabelVO label = new LabelVO();
+                label.text = "Label " + i;
+                label.style = "lsans";
+                label.size = 24;
+                item = label;
+            } else {
+                SimpleImageVO image = new SimpleImageVO();
+                image.imageName = "image" + (i % 50);
+                item = image;
+            }
+            item.uniqueId = Integer.toString(i, 36);
+            item.layerName = "Default";
+            item.x = (i % 100) * BenchmarkScenes.ITEM_SIZE;
+            item.y = (i / 100) * BenchmarkScenes.ITEM_SIZE;
+            item.zIndex = i % BenchmarkScenes.GROUP_SIZE;
+            group.addItem(item);
+        }
+        return sceneVO;
+    }
+}
@@ -0,0 +1,82 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.data.io.SnapshotSerializers;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.EngineSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine snapshot of a two level scene, saved every frame or restored after a rollback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private Engine engine;
+    private EngineSnapshot snapshot;
+    private ComponentMapper<TransformComponent> transformMapper;
+    private ByteBuffer saved;
+    private ByteBuffer scratch;
+    private int[] groups;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine();
+        transformMapper = engine.getMapper(TransformComponent.class);
+        int root = BenchmarkScenes.createScene(engine, entityCount);
+        groups = engine.getMapper(NodeComponent.class).get(root).children.toArray();
+        engine.process();
+
+        snapshot = SnapshotSerializers.registerDefaults(new EngineSnapshot(engine));
+        saved = ByteBuffer.allocateDirect(entityCount * 512);
+        scratch = ByteBuffer.allocateDirect(entityCount * 512);
+        snapshot.save(saved);
+        saved.flip();
+    }
+
+    @Benchmark
+    public ByteBuffer save() {
+        scratch.clear();
+        snapshot.save(scratch);
+        return scratch;
+    }
+
+    /** Nothing changed since the snapshot */
+    @Benchmark
+    public void restoreUnchanged() {
+        saved.rewind();
+        snapshot.restore(saved);
+    }
+
+    /** The items of the last group were deleted, they are created again with the same ids */
+    @Benchmark
+    public void restoreAfterChanges() {
+        NodeComponent lastGroup = engine.getMapper(NodeComponent.class).get(groups[groups.length - 1]);
+        for (int i = 0, n = lastGroup.children.size; i < n; i++)
+            engine.delete(lastGroup.children.get(i));
+        engine.process();
+
+        saved.rewind();
+        snapshot.restore(saved);
+    }
+
+    /** Every group moved */
+    @Benchmark
+    public void restoreAfterMove() {
+        for (int group : groups)
+            transformMapper.get(group).x += 1;
+
+        saved.rewind();
+        snapshot.restore(saved);
+    }
+}
@@ -0,0 +1,81 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.TintComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.annotations.All;
+import games.rednblack.editor.renderer.ecs.annotations.Exclude;
+import games.rednblack.editor.renderer.ecs.annotations.One;
+import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds and removes a component on a share of the entities every frame, forcing aspect subscriptions to update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubscriptionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    /** Percentage of entities changing composition each frame */
+    @Param({"1", "100"})
+    public int churnPercent;
+
+    private Engine engine;
+    private ComponentMapper<TintComponent> tintMapper;
+    private int[] entities;
+    private int changed;
+    private boolean add = true;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine(new TintedSystem(), new PlainSystem(), new AnySystem());
+        tintMapper = engine.getMapper(TintComponent.class);
+        entities = new int[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            entities[i] = engine.create();
+            engine.edit(entities[i]).create(TransformComponent.class);
+            engine.edit(entities[i]).create(ZIndexComponent.class);
+        }
+        engine.process();
+        changed = Math.max(1, entityCount * churnPercent / 100);
+    }
+
+    @Benchmark
+    public void toggleComponent() {
+        for (int i = 0; i < changed; i++) {
+            tintMapper.set(entities[i], add);
+        }
+        add = !add;
+        engine.process();
+    }
+
+    @All({TransformComponent.class, TintComponent.class})
+    public static class TintedSystem extends IteratingSystem {
+        @Override
+        protected void process(int entityId) {
+        }
+    }
+
+    @All(TransformComponent.class)
+    @Exclude(TintComponent.class)
+    public static class PlainSystem extends IteratingSystem {
+        @Override
+        protected void process(int entityId) {
+        }
+    }
+
+    @One({TintComponent.class, ZIndexComponent.class})
+    public static class AnySystem extends IteratingSystem {
+        @Override
+        protected void process(int entityId) {
+        }
+    }
+}
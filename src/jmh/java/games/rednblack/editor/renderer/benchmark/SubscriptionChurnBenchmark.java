@@ -0,0 +1,72 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.ecs.Archetype;
+import games.rednblack.editor.renderer.ecs.ArchetypeBuilder;
+import games.rednblack.editor.renderer.ecs.Aspect;
+import games.rednblack.editor.renderer.ecs.AspectSubscriptionManager;
+import games.rednblack.editor.renderer.ecs.Component;
+import games.rednblack.editor.renderer.ecs.Engine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawns and deletes short lived bullet entities every frame next to a static scene, with many aspect subscriptions
+ * of which only a few match the bullets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubscriptionChurnBenchmark {
+
+    private static final Class<? extends Component>[] TYPES = new Class[]{
+            DimensionsComponent.class, TintComponent.class, ZIndexComponent.class, MainItemComponent.class,
+            NodeComponent.class, ParentNodeComponent.class, BoundingBoxComponent.class, ShaderComponent.class,
+            LayerMapComponent.class, CompositeTransformComponent.class, TextureRegionComponent.class,
+            ScriptComponent.class};
+
+    @Param({"10000"})
+    public int staticCount;
+
+    @Param({"100", "1000"})
+    public int bulletCount;
+
+    @Param({"10", "60"})
+    public int subscriptionCount;
+
+    private Engine engine;
+    private Archetype bullet;
+    private int[] bullets;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine();
+        AspectSubscriptionManager subscriptions = engine.getAspectSubscriptionManager();
+        for (int i = 0; i < subscriptionCount; i++) {
+            Class<? extends Component> first = TYPES[i % TYPES.length];
+            Class<? extends Component> second = TYPES[(i / TYPES.length + i + 1) % TYPES.length];
+            subscriptions.get(Aspect.all(first, second));
+        }
+
+        BenchmarkScenes.createScene(engine, staticCount);
+        bullet = new ArchetypeBuilder()
+                .add(TransformComponent.class, DimensionsComponent.class, TintComponent.class)
+                .build(engine);
+        bullets = new int[bulletCount];
+        engine.process();
+    }
+
+    @Benchmark
+    public void spawnDespawn() {
+        for (int i = 0; i < bulletCount; i++) {
+            bullets[i] = engine.create(bullet);
+        }
+        engine.process();
+
+        for (int i = 0; i < bulletCount; i++) {
+            engine.delete(bullets[i]);
+        }
+        engine.process();
+    }
+}
@@ -0,0 +1,64 @@
+package games.rednblack.editor.renderer.benchmark;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.components.ZIndexComponent;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.systems.LayerSystem;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Z-order maintenance of composite children by {@link LayerSystem}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ZSortBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private Engine engine;
+    private ComponentMapper<ZIndexComponent> zIndexMapper;
+    private int[] items;
+    private final RandomXS128 random = new RandomXS128(42);
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkScenes.createEngine(new LayerSystem());
+        zIndexMapper = engine.getMapper(ZIndexComponent.class);
+        int root = BenchmarkScenes.createScene(engine, entityCount);
+
+        ComponentMapper<NodeComponent> nodeMapper = engine.getMapper(NodeComponent.class);
+        IntArray leaves = new IntArray(entityCount);
+        SnapshotIntArray groups = nodeMapper.get(root).children;
+        for (int i = 0; i < groups.size; i++) {
+            leaves.addAll(nodeMapper.get(groups.get(i)).children);
+        }
+        items = leaves.toArray();
+
+        engine.process();
+    }
+
+    /** Nothing changed, composites are skipped */
+    @Benchmark
+    public void cleanFrame() {
+        engine.process();
+    }
+
+    /** 1% of the items get a new z-index */
+    @Benchmark
+    public void shuffleOnePercent() {
+        for (int i = 0, n = Math.max(1, entityCount / 100); i < n; i++) {
+            ZIndexComponent zIndex = zIndexMapper.get(items[random.nextInt(items.length)]);
+            zIndex.setZIndex(random.nextInt(BenchmarkScenes.GROUP_SIZE));
+            zIndex.needReOrder = true;
+        }
+        engine.process();
+    }
+}
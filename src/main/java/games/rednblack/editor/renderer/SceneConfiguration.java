@@ -60,6 +60,7 @@ public class SceneConfiguration {
         addSystem(new ParticleSystem());
         addSystem(new SpriteAnimationSystem());
         addSystem(new PhysicsSystem());
+        addSystem(new TransformHierarchySystem());
         addSystem(new LightSystem());
         addSystem(new CompositeSystem());
         addSystem(new LayoutSystem());
@@ -106,6 +107,11 @@ public class SceneConfiguration {
             HyperLap2dRenderer renderer = getSystem(rendererClass);
             renderer.setRayHandler(this.rayHandler);
         }
+
+        if (containsSystem(PhysicsSystem.class)) {
+            PhysicsSystem system = getSystem(PhysicsSystem.class);
+            system.setRayHandler(this.rayHandler);
+        }
     }
 
     public void setCullingEnabled(boolean cullingEnabled) {
@@ -15,19 +15,26 @@ import com.badlogic.gdx.utils.viewport.Viewport;
 import games.rednblack.editor.renderer.lights.DirectionalLight;
 import games.rednblack.editor.renderer.lights.RayHandler;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
+import games.rednblack.editor.renderer.components.ActionComponent;
 import games.rednblack.editor.renderer.components.MainItemComponent;
 import games.rednblack.editor.renderer.components.NodeComponent;
 import games.rednblack.editor.renderer.components.ParentNodeComponent;
 import games.rednblack.editor.renderer.components.ScriptComponent;
+import games.rednblack.editor.renderer.components.ShaderComponent;
+import games.rednblack.editor.renderer.components.ViewPortComponent;
 import games.rednblack.editor.renderer.components.light.LightBodyComponent;
 import games.rednblack.editor.renderer.components.light.LightObjectComponent;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
+import games.rednblack.editor.renderer.components.physics.SensorComponent;
 import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.data.io.SnapshotSerializers;
 import games.rednblack.editor.renderer.factory.ActionFactory;
+import games.rednblack.editor.renderer.factory.BudgetedSceneInstantiator;
 import games.rednblack.editor.renderer.factory.EntityFactory;
 import games.rednblack.editor.renderer.resources.IResourceRetriever;
 import games.rednblack.editor.renderer.scripts.BasicScript;
 import games.rednblack.editor.renderer.scripts.IScript;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
 import games.rednblack.editor.renderer.systems.PhysicsSystem;
 import games.rednblack.editor.renderer.systems.action.Actions;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
@@ -36,6 +43,7 @@ import games.rednblack.editor.renderer.systems.render.HyperLap2dRenderer;
 import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
 import games.rednblack.editor.renderer.utils.ComponentRetriever;
 import games.rednblack.editor.renderer.utils.SceneLoaderFieldResolver;
+import games.rednblack.editor.renderer.utils.SpatialHashGrid;
 
 import java.lang.reflect.Field;
 
@@ -72,6 +80,7 @@ public class SceneLoader {
     private ComponentMapper<ParentNodeComponent> parentNodeCM;
     private ComponentMapper<PhysicsBodyComponent> physicsBodyCM;
     private ComponentMapper<ScriptComponent> scriptCM;
+    private ComponentMapper<ShaderComponent> shaderCM;
 
     // Initialised when loadScene is called
     private int pixelsPerWU = 1;
@@ -79,6 +88,9 @@ public class SceneLoader {
     private int rootEntity = -1;
     private DirectionalLight sceneDirectionalLight;
     private ActionFactory actionFactory;
+    private BudgetedSceneInstantiator sceneInstantiator;
+    // Project whose library items the prefab templates were compiled from
+    private ProjectInfoVO prefabsProject;
 
     public SceneLoader(SceneConfiguration configuration) {
         configuration.addRenderer();
@@ -168,10 +180,13 @@ public class SceneLoader {
                             NodeComponent nodeComponent = nodeCM.get(entity);
                             if (nodeComponent != null) {
                                 // it is composite
-                                for (int node : nodeComponent.children) {
+                                int[] children = nodeComponent.children.begin();
+                                for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+                                    int node = children[i];
                                     if (engine.getEntityManager().isActive(node))
                                         engine.delete(node);
                                 }
+                                nodeComponent.children.end();
                             }
 
                             renderer.removeSpecialEntity(entity);
@@ -201,8 +216,44 @@ public class SceneLoader {
     }
 
     public SceneVO loadScene(SceneVO vo, Viewport viewport, boolean customLight) {
+        prepareScene(vo, viewport, customLight);
+
+        entityFactory.initAllChildren(rootEntity, sceneVO.composite);
+        updateEntityStates();
+
+        return sceneVO;
+    }
+
+    /**
+     * Load a scene over several frames, creating items nearest to the camera first. Only the root entity exists when
+     * this returns, call {@link BudgetedSceneInstantiator#update()} once per frame until it completes.
+     *
+     * @param listener notified of progress and completion, may be null
+     */
+    public BudgetedSceneInstantiator loadSceneBudgeted(String sceneName, Viewport viewport, boolean customLight, BudgetedSceneInstantiator.Listener listener) {
+        return loadSceneBudgeted(rm.getSceneVO(sceneName), viewport, customLight, listener);
+    }
+
+    public BudgetedSceneInstantiator loadSceneBudgeted(SceneVO vo, Viewport viewport, boolean customLight, BudgetedSceneInstantiator.Listener listener) {
+        prepareScene(vo, viewport, customLight);
+
+        sceneInstantiator = new BudgetedSceneInstantiator(entityFactory, rootEntity, sceneVO.composite, viewport.getCamera(), listener);
+        updateEntityStates();
+
+        return sceneInstantiator;
+    }
+
+    /**
+     * Clear the engine and create the root entity of the scene.
+     */
+    private void prepareScene(SceneVO vo, Viewport viewport, boolean customLight) {
         assert engine != null : "You need to first create an engine by calling createEngine";
 
+        if (sceneInstantiator != null) {
+            sceneInstantiator.cancel();
+            sceneInstantiator = null;
+        }
+
         IntBag entities = engine.getAspectSubscriptionManager()
                 .get(Aspect.all())
                 .getEntities();
@@ -213,6 +264,8 @@ public class SceneLoader {
         }
 
         entityFactory.clean();
+        entityFactory.clearPrefabs();
+        prefabsProject = rm.getProjectVO();
         //Update the engine to ensure that all pending operations are completed!!
         engine.setDelta(0);
         engine.process();
@@ -224,26 +277,26 @@ public class SceneLoader {
         PhysicsSystem physicsSystem = engine.getSystem(PhysicsSystem.class);
         if (physicsSystem != null)
             physicsSystem.setPhysicsOn(sceneVO.physicsPropertiesVO.enabled);
+        BoundingBoxSystem boundingBoxSystem = engine.getSystem(BoundingBoxSystem.class);
+        if (boundingBoxSystem != null)
+            boundingBoxSystem.getSpatialIndex().setCellSize(SpatialHashGrid.DEFAULT_CELL_SIZE / pixelsPerWU);
 
         if (sceneVO.composite == null) {
             sceneVO.composite = new CompositeItemVO();
         }
         rootEntity = entityFactory.createRootEntity(sceneVO.composite, viewport, pixelsPerWU);
 
-        if (sceneVO.composite != null) {
-            entityFactory.initAllChildren(rootEntity, sceneVO.composite);
-        }
         if (!customLight) {
             setAmbientInfo(sceneVO);
         }
 
         actionFactory = new ActionFactory(rm.getProjectVO().libraryActions);
+    }
 
+    private void updateEntityStates() {
         SystemInvocationStrategy strategy = engine.getInvocationStrategy();
         if (strategy instanceof HyperLap2dInvocationStrategy)
             ((HyperLap2dInvocationStrategy) strategy).updateEntitySateSync();
-
-        return sceneVO;
     }
 
     public SceneVO getSceneVO() {
@@ -251,7 +304,7 @@ public class SceneLoader {
     }
 
     public int loadFromLibrary(String libraryName, String layerName, float x, float y) {
-        ProjectInfoVO projectInfoVO = getRm().getProjectVO();
+        ProjectInfoVO projectInfoVO = getProjectForPrefabs();
         CompositeItemVO compositeItemVO = projectInfoVO.libraryItems.get(libraryName);
 
         if (compositeItemVO != null) {
@@ -259,16 +312,14 @@ public class SceneLoader {
             compositeItemVO.x = x;
             compositeItemVO.y = y;
 
-            int compositeEntity = entityFactory.createEntity(getRoot(), compositeItemVO);
-            getEntityFactory().initAllChildren(compositeEntity, compositeItemVO);
-            return compositeEntity;
+            return entityFactory.createPrefabInstance(getRoot(), compositeItemVO);
         }
 
         return -1;
     }
 
     public int loadFromLibrary(String libraryName, String layerName, float x, float y, int parent) {
-        ProjectInfoVO projectInfoVO = getRm().getProjectVO();
+        ProjectInfoVO projectInfoVO = getProjectForPrefabs();
         CompositeItemVO compositeItemVO = projectInfoVO.libraryItems.get(libraryName);
 
         if (compositeItemVO != null) {
@@ -276,14 +327,33 @@ public class SceneLoader {
             compositeItemVO.x = x;
             compositeItemVO.y = y;
 
-            int compositeEntity = getEntityFactory().createEntity(parent, compositeItemVO);
-            getEntityFactory().initAllChildren(compositeEntity, compositeItemVO);
-            return compositeEntity;
+            return entityFactory.createPrefabInstance(parent, compositeItemVO);
         }
 
         return -1;
     }
 
+    /**
+     * Drop the prefab template of a library item, call it after editing the item so new instances pick up changes.
+     */
+    public void invalidateLibraryItem(String libraryName) {
+        CompositeItemVO compositeItemVO = getRm().getProjectVO().libraryItems.get(libraryName);
+        if (compositeItemVO != null)
+            entityFactory.invalidatePrefab(compositeItemVO);
+    }
+
+    /**
+     * Prefab templates are dropped when the project is reloaded, they'd keep the previous library items alive.
+     */
+    private ProjectInfoVO getProjectForPrefabs() {
+        ProjectInfoVO projectInfoVO = getRm().getProjectVO();
+        if (projectInfoVO != prefabsProject) {
+            entityFactory.clearPrefabs();
+            prefabsProject = projectInfoVO;
+        }
+        return projectInfoVO;
+    }
+
     public CompositeItemVO loadVoFromLibrary(String libraryName) {
         ProjectInfoVO projectInfoVO = getRm().getProjectVO();
         return projectInfoVO.libraryItems.get(libraryName);
@@ -293,6 +363,41 @@ public class SceneLoader {
         return actionFactory.loadFromLibrary(actionName);
     }
 
+    /**
+     * Snapshot of the engine with the serializers of the runtime components registered, restoring it is an instant
+     * alternative to loading the scene again. After a restore, dropped resources are loaded again and unique ids and
+     * screen reading entities are registered again.
+     * <p>
+     * Physics bodies, sensors, lights, scripts, running actions and viewports hold native, user or running state
+     * and are excluded: live ones are kept as they are, entities deleted after the snapshot come back without them.
+     * Custom components need a serializer registered on the returned snapshot, or to be excluded.
+     */
+    public EngineSnapshot createEngineSnapshot() {
+        EngineSnapshot snapshot = SnapshotSerializers.registerDefaults(new EngineSnapshot(engine));
+        snapshot.exclude(PhysicsBodyComponent.class)
+                .exclude(SensorComponent.class)
+                .exclude(LightObjectComponent.class)
+                .exclude(LightBodyComponent.class)
+                .exclude(ScriptComponent.class)
+                .exclude(ActionComponent.class)
+                .exclude(ViewPortComponent.class);
+        snapshot.addRestoreListener(new EngineSnapshot.RestoreListener() {
+            @Override
+            public void restored(IntBag entities) {
+                entityFactory.restoreTransientComponents(entities);
+                entityFactory.registerEntities(entities);
+
+                int[] ids = entities.getData();
+                for (int i = 0, n = entities.size(); i < n; i++) {
+                    ShaderComponent shaderComponent = shaderCM.get(ids[i]);
+                    if (shaderComponent != null && shaderComponent.renderingLayer == MainItemVO.RenderingLayer.SCREEN_READING)
+                        renderer.addSpecialEntity(ids[i]);
+                }
+            }
+        });
+        return snapshot;
+    }
+
     public ActionFactory getActionFactory() {
         return actionFactory;
     }
@@ -7,20 +7,40 @@ public class CompositeTransformComponent extends PooledComponent {
 	public boolean automaticResize = true;
 	public boolean scissorsEnabled = false;
 	public boolean renderToFBO = false;
+	/**
+	 * Keep the rendered content in a frame buffer and redraw it only when the subtree changes, see
+	 * {@link games.rednblack.editor.renderer.components.NodeComponent#contentVersion}
+	 */
+	public boolean retained = false;
 
 	public final Rectangle scissors = new Rectangle();
 	public final Rectangle clipBounds = new Rectangle();
 
 	public int checksum;
 
+	public transient int retainedChecksum;
+	public transient boolean retainedValid;
+	public transient int staticFrames;
+	/** Content version last inspected by the renderer and what it found */
+	public transient int inspectedVersion = -1;
+	public transient boolean retainable;
+	public transient boolean contentFits;
+
 	@Override
 	public void reset() {
 		automaticResize = true;
 		scissorsEnabled = false;
 		renderToFBO = false;
+		retained = false;
 
 		scissors.set(0, 0, 0, 0);
 		clipBounds.set(0, 0, 0, 0);
 		checksum = 0;
+		retainedChecksum = 0;
+		retainedValid = false;
+		staticFrames = 0;
+		inspectedVersion = -1;
+		retainable = false;
+		contentFits = false;
 	}
 }
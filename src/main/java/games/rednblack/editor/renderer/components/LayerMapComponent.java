@@ -7,6 +7,11 @@ import games.rednblack.editor.renderer.data.LayerItemVO;
 
 public class LayerMapComponent  extends PooledComponent {
 	public boolean autoIndexing = true;
+	/**
+	 * Changes when layers are added, removed, renamed or reordered. Code modifying {@link #getLayers()} directly
+	 * should call {@link #invalidate()}.
+	 */
+	public transient int version;
 	private final Array<LayerItemVO> layers = new Array<>();
 	private final IntMap<LayerItemVO> layerMap = new IntMap<>();
 
@@ -18,6 +23,7 @@ public class LayerMapComponent  extends PooledComponent {
 		for (LayerItemVO vo : layers) {
 			putLayer(vo.layerName, vo);
 		}
+		version++;
 	}
 
 	public LayerItemVO getLayer(int nameHashCode) {
@@ -50,11 +56,13 @@ public class LayerMapComponent  extends PooledComponent {
 	public void addLayer(int index, LayerItemVO layerVo) {
 		layers.insert(index, layerVo);
 		putLayer(layerVo.layerName, layerVo);
+		version++;
 	}
 
 	public void addLayer(LayerItemVO layerVo) {
 		layers.add(layerVo);
 		putLayer(layerVo.layerName, layerVo);
+		version++;
 	}
 
 	public Array<LayerItemVO> getLayers() {
@@ -64,6 +72,7 @@ public class LayerMapComponent  extends PooledComponent {
 	public void deleteLayer(String layerName) {
 		layers.removeIndex(getIndexByName(layerName.hashCode()));
 		layerMap.remove(layerName.hashCode());
+		version++;
 	}
 
 	public void rename(String prevName, String newName) {
@@ -71,12 +80,14 @@ public class LayerMapComponent  extends PooledComponent {
 		vo.layerName = newName;
 		layerMap.remove(prevName.hashCode());
 		putLayer(newName, vo);
+		version++;
 	}
 
 	public void swap(String source, String target) {
 		LayerItemVO sourceVO = getLayer(source.hashCode());
 		LayerItemVO targetVO = getLayer(target.hashCode());
 		layers.swap(layers.indexOf(sourceVO, false), layers.indexOf(targetVO, false));
+		version++;
 	}
 
 	public String jump(String source, String target) {
@@ -91,13 +102,19 @@ public class LayerMapComponent  extends PooledComponent {
 		} else {
 			layers.insert(Math.max(targetIndex, 0), sourceVO);
 		}
+		version++;
 
 		return layers.get(sourceIndex).layerName;
 	}
 
+	public void invalidate() {
+		version++;
+	}
+
 	@Override
 	public void reset() {
 		autoIndexing = true;
+		version = 0;
 		layers.clear();
 		layerMap.clear();
 	}
@@ -3,25 +3,61 @@ package games.rednblack.editor.renderer.components;
 import games.rednblack.editor.renderer.ecs.PooledComponent;
 import games.rednblack.editor.renderer.ecs.annotations.EntityId;
 import games.rednblack.editor.renderer.ecs.utils.IntBag;
-import com.badlogic.gdx.utils.SnapshotArray;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
+/**
+ * Holds the children of a composite entity.
+ * <p>
+ * {@link #children} is a primitive {@link SnapshotIntArray}, code that used to iterate it as
+ * {@code Integer[] children = node.children.begin()} only needs to switch to {@code int[]}, while
+ * enhanced for loops should be replaced by an indexed loop between {@code begin()} and {@code end()}.
+ */
 public class NodeComponent extends PooledComponent {
-    public transient SnapshotArray<Integer> children = new SnapshotArray<>(true, 1, Integer.class);
+    public transient SnapshotIntArray children = new SnapshotIntArray(true, 1);
     @EntityId public IntBag persistentChildren = new IntBag();
+    /**
+     * Changes when a child is added, removed or modified, see
+     * {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem}.
+     */
+    public transient int childrenVersion;
+    /**
+     * Changes when the subtree moves or its structure changes, read by retained composites. Bumped for transform
+     * changes and by {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem#invalidateContent(int)}.
+     */
+    public transient int contentVersion;
+    /**
+     * Set when children are added or removed, or when a child changes z-index or layer, cleared by the z-sort of
+     * {@link games.rednblack.editor.renderer.systems.LayerSystem}.
+     */
+    public transient boolean zOrderDirty = true;
+    /**
+     * Layer map checksum of the last z-sort.
+     */
+    public transient int zOrderChecksum;
 
     public void removeChild(int entity) {
-        children.removeValue(entity, false);
+        children.removeValue(entity);
         persistentChildren.removeValue(entity);
+        childrenVersion++;
+        contentVersion++;
+        zOrderDirty = true;
     }
 
     public void addChild(int entity) {
         children.add(entity);
         persistentChildren.add(entity);
+        childrenVersion++;
+        contentVersion++;
+        zOrderDirty = true;
     }
 
     @Override
     public void reset() {
         children.clear();
         persistentChildren.clear();
+        childrenVersion = 0;
+        contentVersion = 0;
+        zOrderDirty = true;
+        zOrderChecksum = 0;
     }
 }
@@ -0,0 +1,45 @@
+package games.rednblack.editor.renderer.components;
+
+import com.badlogic.gdx.math.Rectangle;
+import games.rednblack.editor.renderer.ecs.PackedComponent;
+
+/**
+ * Packed copy of {@link BoundingBoxComponent#rectangle}, maintained by
+ * {@link games.rednblack.editor.renderer.systems.BoundingBoxSystem} for passes that only test scene bounds.
+ */
+public class PackedBounds extends PackedComponent {
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int WIDTH = 2;
+    public static final int HEIGHT = 3;
+    public static final int STRIDE = 4;
+
+    @Override
+    protected int getStride() {
+        return STRIDE;
+    }
+
+    public float getX() {
+        return get(X);
+    }
+
+    public float getY() {
+        return get(Y);
+    }
+
+    public float getWidth() {
+        return get(WIDTH);
+    }
+
+    public float getHeight() {
+        return get(HEIGHT);
+    }
+
+    public PackedBounds set(Rectangle rectangle) {
+        set(X, rectangle.x);
+        set(Y, rectangle.y);
+        set(WIDTH, rectangle.width);
+        set(HEIGHT, rectangle.height);
+        return this;
+    }
+}
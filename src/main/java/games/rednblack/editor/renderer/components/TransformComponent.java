@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.components;
 
 import games.rednblack.editor.renderer.ecs.PooledComponent;
+import games.rednblack.editor.renderer.systems.TransformHierarchySystem;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
 
@@ -19,8 +20,28 @@ public class TransformComponent extends PooledComponent {
     public boolean flipX = false;
     public boolean flipY = false;
 
+    /**
+     * Change tracking maintained by {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem}.
+     * {@code localVersion} changes with this entity's transform or dimensions, {@code worldVersion} also when an
+     * ancestor changes.
+     */
+    public transient int localChecksum;
+    public transient int localVersion;
+    public transient int worldVersion;
+    public transient int propagatedVersion;
+
+    /**
+     * Entity to scene transform and rotation, cached by {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem}
+     * and recomputed only when {@code worldVersion} changes.
+     */
+    public transient Affine2 sceneTransform = new Affine2();
+    public transient float sceneRotation;
+
     private transient TransformComponent backup = null;
 
+    private transient TransformHierarchySystem hierarchy;
+    private transient int entity = -1;
+
     public TransformComponent() {
 
     }
@@ -39,6 +60,8 @@ public class TransformComponent extends PooledComponent {
         worldTransform.set(component.worldTransform);
         computedTransform.set(component.computedTransform);
         oldTransform.set(component.oldTransform);
+        sceneTransform.set(component.sceneTransform);
+        sceneRotation = component.sceneRotation;
 
         backup = null;
     }
@@ -53,6 +76,7 @@ public class TransformComponent extends PooledComponent {
         rotation = 0;
         flipX = false;
         flipY = false;
+        markDirty();
     }
 
     public void enableTransform() {
@@ -67,6 +91,52 @@ public class TransformComponent extends PooledComponent {
         flipX = backup.flipX;
         flipY = backup.flipY;
         backup = null;
+        markDirty();
+    }
+
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+        markDirty();
+    }
+
+    public void setRotation(float rotation) {
+        this.rotation = rotation;
+        markDirty();
+    }
+
+    public void setScale(float scaleX, float scaleY) {
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        markDirty();
+    }
+
+    public void setOrigin(float originX, float originY) {
+        this.originX = originX;
+        this.originY = originY;
+        markDirty();
+    }
+
+    public void setFlip(boolean flipX, boolean flipY) {
+        this.flipX = flipX;
+        this.flipY = flipY;
+        markDirty();
+    }
+
+    /**
+     * Report a change to the hierarchy, setters do it already. Fields written directly are only picked up by the
+     * once per frame scan of {@link TransformHierarchySystem}, if enabled.
+     */
+    public void markDirty() {
+        if (hierarchy != null) hierarchy.invalidate(entity);
+    }
+
+    /**
+     * Called by {@link TransformHierarchySystem} when the entity enters or leaves it.
+     */
+    public void track(TransformHierarchySystem hierarchy, int entity) {
+        this.hierarchy = hierarchy;
+        this.entity = entity;
     }
 
     public boolean shouldTransform() {
@@ -95,6 +165,15 @@ public class TransformComponent extends PooledComponent {
         computedTransform.idt();
         oldTransform.idt();
 
+        localChecksum = 0;
+        localVersion = 0;
+        worldVersion = 0;
+        propagatedVersion = 0;
+        sceneTransform.idt();
+        sceneRotation = 0;
+
         backup = null;
+        hierarchy = null;
+        entity = -1;
     }
 }
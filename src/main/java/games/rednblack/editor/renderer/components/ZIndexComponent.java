@@ -8,6 +8,11 @@ public class ZIndexComponent  extends PooledComponent {
     private String layerName = "";
     public int layerHash = layerName.hashCode();
     public int layerIndex;
+    /**
+     * Node of the parent composite, set by {@link games.rednblack.editor.renderer.systems.LayerSystem} when it sorts the
+     * children. Z-index and layer changes mark it for sorting.
+     */
+    public transient NodeComponent parentNode;
 
     public int getZIndex() {
         return zIndex;
@@ -16,11 +21,17 @@ public class ZIndexComponent  extends PooledComponent {
     public void setZIndex(int zIndex) {
         this.zIndex = zIndex;
         needReOrder = true;
+        markOrderDirty();
     }
 
     public void setLayerName(String layerName) {
         this.layerName = layerName;
         this.layerHash = layerName.hashCode();
+        markOrderDirty();
+    }
+
+    private void markOrderDirty() {
+        if (parentNode != null) parentNode.zOrderDirty = true;
     }
 
     public String getLayerName() {
@@ -37,5 +48,6 @@ public class ZIndexComponent  extends PooledComponent {
         needReOrder = false;
         layerIndex = 0;
         setLayerName("");
+        parentNode = null;
     }
 }
\ No newline at end of file
@@ -9,8 +9,21 @@ import com.badlogic.gdx.utils.CharArray;
 
 public class LabelComponent extends PooledComponent {
 	public transient LabelStyle style;
-	public transient final GlyphLayout layout = new GlyphLayout();
+	/**
+	 * Text layout computed by {@link games.rednblack.editor.renderer.systems.LabelSystem}. Labels with the same text and
+	 * style share the same instance through {@link games.rednblack.editor.renderer.utils.GlyphLayoutCache}, so it must be
+	 * treated as read only while {@link #sharedLayout} is true. Labels whose text changes are laid out in
+	 * {@link #ownLayout} instead.
+	 */
+	public transient final GlyphLayout ownLayout = new GlyphLayout();
+	public transient GlyphLayout layout = ownLayout;
+	public transient boolean sharedLayout = false;
+	/** Set once the text changed after the first layout, the label then stops using shared layouts */
+	public transient boolean dynamicText = false;
+	public transient int textHash;
 	public transient BitmapFontCache cache;
+	/** Checksum of the layout inputs used for the current {@link #cache} text */
+	public transient int layoutChecksum;
 
 	public CharArray text = new CharArray();
 	public String fontName;
@@ -133,8 +146,13 @@ public class LabelComponent extends PooledComponent {
 	@Override
 	public void reset() {
 		style = null;
-		layout.reset();
+		ownLayout.reset();
+		layout = ownLayout;
+		sharedLayout = false;
+		dynamicText = false;
+		textHash = 0;
 		cache = null;
+		layoutChecksum = 0;
 
 		text.delete(0,text.length());
 		fontName = null;
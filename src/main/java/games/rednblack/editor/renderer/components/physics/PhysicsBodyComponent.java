@@ -96,6 +96,10 @@ public class PhysicsBodyComponent extends RefreshableComponent {
         needsRefresh = true;
     }
 
+    public boolean isRefreshScheduled() {
+        return needsRefresh;
+    }
+
     @Override
     public void executeRefresh(int entity) {
         if (needsRefresh) {
@@ -12,6 +12,8 @@ import java.util.Objects;
 
 public class SpriteAnimationStateComponent  extends PooledComponent {
     public transient Array<TextureAtlas.AtlasRegion> allRegions;
+    /** Animation name {@link #allRegions} were loaded for */
+    public transient String regionsName;
 	public transient Animation<TextureRegion> currentAnimation;
 	public float time = 0.0f;
 
@@ -62,6 +64,7 @@ public class SpriteAnimationStateComponent  extends PooledComponent {
     @Override
     public void reset() {
         allRegions = null;
+        regionsName = null;
         currentAnimation = null;
         time = 0.0f;
         paused = false;
@@ -92,7 +92,8 @@ public class CompositeItemVO extends MainItemVO {
 		}
 
 		BaseComponentMapper<MainItemComponent> mainItemComponentMapper = ComponentRetriever.getMapper(MainItemComponent.class, engine);
-		for (int child : nodeComponent.children) {
+		for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+			int child = nodeComponent.children.get(i);
 			int entityType = mainItemComponentMapper.get(child).entityType;
 			try {
 				MainItemVO entityVO = entityFactory.instantiateEmptyVO(entityType);
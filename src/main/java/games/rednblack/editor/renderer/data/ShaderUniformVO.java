@@ -3,7 +3,15 @@ package games.rednblack.editor.renderer.data;
 import com.badlogic.gdx.utils.Pool;
 
 public class ShaderUniformVO implements Pool.Poolable {
+    public static final int TYPE_INT = 1;
+    public static final int TYPE_FLOAT = 2;
+    public static final int TYPE_VEC2 = 3;
+    public static final int TYPE_VEC3 = 4;
+    public static final int TYPE_VEC4 = 5;
+
     protected String type;
+    /** Resolved from {@link #type} on first use, see {@link #getTypeId()} */
+    protected transient int typeId;
 
     public int intValue;
 
@@ -19,6 +27,7 @@ public class ShaderUniformVO implements Pool.Poolable {
 
     public ShaderUniformVO(ShaderUniformVO vo) {
         type = vo.type;
+        typeId = vo.typeId;
 
         intValue = vo.intValue;
 
@@ -30,6 +39,7 @@ public class ShaderUniformVO implements Pool.Poolable {
 
     public void set(ShaderUniformVO vo) {
         type = vo.type;
+        typeId = vo.typeId;
 
         intValue = vo.intValue;
 
@@ -74,6 +84,32 @@ public class ShaderUniformVO implements Pool.Poolable {
         return type;
     }
 
+    /**
+     * @return one of the <code>TYPE_</code> constants, 0 if the type isn't assigned yet
+     */
+    public int getTypeId() {
+        if (typeId == 0 && type != null) {
+            switch (type) {
+                case "int":
+                    typeId = TYPE_INT;
+                    break;
+                case "float":
+                    typeId = TYPE_FLOAT;
+                    break;
+                case "vec2":
+                    typeId = TYPE_VEC2;
+                    break;
+                case "vec3":
+                    typeId = TYPE_VEC3;
+                    break;
+                case "vec4":
+                    typeId = TYPE_VEC4;
+                    break;
+            }
+        }
+        return typeId;
+    }
+
     private String checkType(String newType) {
         if (type != null && !type.equals(newType))
             throw new IllegalArgumentException("Cannot modify Uniform type once assigned.");
@@ -83,6 +119,7 @@ public class ShaderUniformVO implements Pool.Poolable {
     @Override
     public void reset() {
         type = null;
+        typeId = 0;
         intValue = 0;
 
         floatValue = 0;
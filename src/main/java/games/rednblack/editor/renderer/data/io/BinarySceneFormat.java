@@ -0,0 +1,39 @@
+package games.rednblack.editor.renderer.data.io;
+
+/**
+ * Constants of the binary scene format, see {@link BinarySceneWriter} for the layout.
+ */
+public final class BinarySceneFormat {
+    /** "H2DB" */
+    public static final int MAGIC = 0x48324442;
+    public static final int VERSION = 1;
+
+    /** Extension of binary scenes, next to the JSON <code>.dt</code> files */
+    public static final String EXTENSION = ".dtb";
+
+    static final byte COMPOSITE = 1;
+    static final byte IMAGE = 2;
+    static final byte NINE_PATCH = 3;
+    static final byte LABEL = 4;
+    static final byte SPRITE_ANIMATION = 5;
+    static final byte PARTICLE = 6;
+    static final byte LIGHT = 7;
+    static final byte COLOR_PRIMITIVE = 8;
+    /** Item types without a binary record, like external item types, stored as JSON */
+    static final byte JSON = 127;
+
+    // Presence bits of optional MainItemVO data
+    static final int HAS_SHAPE = 1;
+    static final int HAS_PHYSICS = 1 << 1;
+    static final int HAS_LIGHT = 1 << 2;
+    static final int HAS_SENSOR = 1 << 3;
+    static final int HAS_CIRCLE = 1 << 4;
+    static final int HAS_LAYOUT = 1 << 5;
+    static final int HAS_TINT = 1 << 6;
+    static final int HAS_TAGS = 1 << 7;
+    static final int FLIP_X = 1 << 8;
+    static final int FLIP_Y = 1 << 9;
+
+    private BinarySceneFormat() {
+    }
+}
@@ -0,0 +1,459 @@
+package games.rednblack.editor.renderer.data.io;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import games.rednblack.editor.renderer.components.LayoutComponent;
+import games.rednblack.editor.renderer.components.light.LightObjectComponent;
+import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.utils.HyperJson;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static games.rednblack.editor.renderer.data.io.BinarySceneFormat.*;
+
+/**
+ * Reads scenes written by {@link BinarySceneWriter}.
+ * <p>
+ * Records are decoded sequentially from the stream straight into value objects, without building an intermediate
+ * document tree or going through reflection. Only item types without a binary record are parsed as JSON.
+ */
+public class BinarySceneReader {
+
+    private static final LightObjectComponent.LightType[] LIGHT_TYPES = LightObjectComponent.LightType.values();
+    private static final LayoutComponent.ConstraintSide[] CONSTRAINT_SIDES = LayoutComponent.ConstraintSide.values();
+    private static final PhysicsBodyDataVO.ShapeType[] SHAPE_TYPES = PhysicsBodyDataVO.ShapeType.values();
+    private static final MainItemVO.RenderingLayer[] RENDERING_LAYERS = MainItemVO.RenderingLayer.values();
+
+    private String[] strings;
+    private DataInput in;
+
+    /**
+     * @return true if the file starts with the binary scene magic number
+     */
+    public static boolean isBinaryScene(FileHandle file) {
+        if (!file.exists()) return false;
+        DataInput input = new DataInput(file.read());
+        try {
+            return input.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * @return format version of the binary scene, -1 if the file doesn't exist or isn't a binary scene
+     */
+    public static int readVersion(FileHandle file) {
+        if (!file.exists()) return -1;
+        DataInput input = new DataInput(file.read());
+        try {
+            if (input.readInt() != MAGIC) return -1;
+            return input.readInt(true);
+        } catch (IOException e) {
+            return -1;
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    public SceneVO read(FileHandle file) {
+        InputStream input = new BufferedInputStream(file.read(), 8192);
+        try {
+            return read(input);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading binary scene: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    public SceneVO read(byte[] bytes) {
+        try {
+            return read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading binary scene", e);
+        }
+    }
+
+    public SceneVO read(InputStream input) throws IOException {
+        in = new DataInput(input);
+        try {
+            if (in.readInt() != MAGIC) throw new GdxRuntimeException("Not a binary scene.");
+            int version = in.readInt(true);
+            if (version > VERSION)
+                throw new GdxRuntimeException("Unsupported binary scene version: " + version + ", max: " + VERSION);
+
+            strings = new String[in.readInt(true)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readString();
+            }
+
+            return readScene();
+        } finally {
+            in = null;
+            strings = null;
+        }
+    }
+
+    private SceneVO readScene() throws IOException {
+        SceneVO vo = new SceneVO();
+        vo.sceneName = readStringRef();
+
+        PhysicsPropertiesVO physics = vo.physicsPropertiesVO;
+        physics.gravityX = in.readFloat();
+        physics.gravityY = in.readFloat();
+        physics.sleepVelocity = in.readFloat();
+        physics.enabled = in.readBoolean();
+
+        LightsPropertiesVO lights = vo.lightsPropertiesVO;
+        lights.enabled = in.readBoolean();
+        lights.pseudo3d = in.readBoolean();
+        lights.ambientColor = readFloats();
+        lights.blurNum = in.readInt(true);
+        lights.lightMapScale = in.readInt(true);
+        lights.lightType = readStringRef();
+        lights.directionalRays = in.readInt(true);
+        lights.directionalDegree = in.readFloat();
+        lights.directionalHeight = in.readFloat();
+        lights.directionalColor = readFloats();
+
+        readShader(vo.shaderVO);
+
+        for (int i = 0, n = in.readInt(true); i < n; i++) vo.verticalGuides.add(in.readFloat());
+        for (int i = 0, n = in.readInt(true); i < n; i++) vo.horizontalGuides.add(in.readFloat());
+
+        if (in.readBoolean())
+            vo.composite = (CompositeItemVO) readItem();
+        return vo;
+    }
+
+    private MainItemVO readItem() throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case COMPOSITE: {
+                CompositeItemVO vo = new CompositeItemVO();
+                readMainItem(vo);
+                readComposite(vo);
+                return vo;
+            }
+            case IMAGE: {
+                SimpleImageVO vo = new SimpleImageVO();
+                readMainItem(vo);
+                vo.imageName = readStringRef();
+                vo.isRepeat = in.readBoolean();
+                vo.isPolygon = in.readBoolean();
+                return vo;
+            }
+            case NINE_PATCH: {
+                Image9patchVO vo = new Image9patchVO();
+                readMainItem(vo);
+                vo.imageName = readStringRef();
+                vo.width = in.readFloat();
+                vo.height = in.readFloat();
+                return vo;
+            }
+            case LABEL: {
+                LabelVO vo = new LabelVO();
+                readMainItem(vo);
+                vo.text = readStringRef();
+                vo.style = readStringRef();
+                vo.size = in.readInt(true);
+                vo.align = in.readInt(true);
+                vo.width = in.readFloat();
+                vo.height = in.readFloat();
+                vo.wrap = in.readBoolean();
+                vo.isTyping = in.readBoolean();
+                vo.monoSpace = in.readBoolean();
+                vo.bitmapFont = readStringRef();
+                return vo;
+            }
+            case SPRITE_ANIMATION: {
+                SpriteAnimationVO vo = new SpriteAnimationVO();
+                readMainItem(vo);
+                vo.animationName = readStringRef();
+                vo.fps = in.readInt(true);
+                vo.currentAnimation = readStringRef();
+                vo.playMode = in.readInt(true);
+                for (int i = 0, n = in.readInt(true); i < n; i++) {
+                    vo.frameRangeMap.add(new FrameRange(readStringRef(), in.readInt(true), in.readInt(true)));
+                }
+                return vo;
+            }
+            case PARTICLE: {
+                ParticleEffectVO vo = new ParticleEffectVO();
+                readMainItem(vo);
+                vo.particleName = readStringRef();
+                vo.transform = in.readBoolean();
+                vo.autoStart = in.readBoolean();
+                return vo;
+            }
+            case LIGHT: {
+                LightVO vo = new LightVO();
+                readMainItem(vo);
+                readLight(vo);
+                return vo;
+            }
+            case COLOR_PRIMITIVE: {
+                ColorPrimitiveVO vo = new ColorPrimitiveVO();
+                readMainItem(vo);
+                return vo;
+            }
+            case JSON: {
+                String className = readStringRef();
+                String json = in.readString();
+                try {
+                    Class<? extends MainItemVO> voType = ClassReflection.forName(className);
+                    return HyperJson.getJson().fromJson(voType, json);
+                } catch (ReflectionException e) {
+                    throw new GdxRuntimeException("Unknown item type: " + className, e);
+                }
+            }
+            default:
+                throw new GdxRuntimeException("Unknown item record: " + type);
+        }
+    }
+
+    private void readMainItem(MainItemVO vo) throws IOException {
+        int flags = in.readInt(true);
+
+        vo.uniqueId = readStringRef();
+        vo.itemIdentifier = readStringRef();
+        vo.itemName = readStringRef();
+        if ((flags & HAS_TAGS) != 0) {
+            vo.tags = new String[in.readInt(true)];
+            for (int i = 0; i < vo.tags.length; i++) vo.tags[i] = readStringRef();
+        }
+        for (int i = 0, n = in.readInt(true); i < n; i++) {
+            vo.customVariables.put(readStringRef(), readStringRef());
+        }
+
+        vo.x = in.readFloat();
+        vo.y = in.readFloat();
+        vo.scaleX = in.readFloat();
+        vo.scaleY = in.readFloat();
+        vo.originX = in.readFloat();
+        vo.originY = in.readFloat();
+        vo.rotation = in.readFloat();
+        vo.zIndex = in.readInt(false);
+        vo.layerName = readStringRef();
+        vo.tint = (flags & HAS_TINT) != 0 ? readFloats() : null;
+        vo.flipX = (flags & FLIP_X) != 0;
+        vo.flipY = (flags & FLIP_Y) != 0;
+
+        readShader(vo.shader);
+        byte renderingLayer = in.readByte();
+        vo.renderingLayer = renderingLayer >= 0 ? RENDERING_LAYERS[renderingLayer] : null;
+
+        if ((flags & HAS_SHAPE) != 0) vo.shape = readShape();
+        if ((flags & HAS_PHYSICS) != 0) vo.physics = readPhysics();
+        if ((flags & HAS_LIGHT) != 0) vo.light = readLightBody();
+        if ((flags & HAS_SENSOR) != 0) vo.sensor = readSensor();
+        if ((flags & HAS_CIRCLE) != 0) vo.circle = new Circle(in.readFloat(), in.readFloat(), in.readFloat());
+        if ((flags & HAS_LAYOUT) != 0) vo.layout = readLayout();
+    }
+
+    private void readComposite(CompositeItemVO vo) throws IOException {
+        vo.width = in.readFloat();
+        vo.height = in.readFloat();
+        vo.automaticResize = in.readBoolean();
+        vo.scissorsEnabled = in.readBoolean();
+        vo.renderToFBO = in.readBoolean();
+
+        for (int i = 0, n = in.readInt(true); i < n; i++) {
+            LayerItemVO layer = new LayerItemVO();
+            layer.layerName = readStringRef();
+            layer.isLocked = in.readBoolean();
+            layer.isVisible = in.readBoolean();
+            vo.layers.add(layer);
+        }
+
+        for (int i = 0, n = in.readInt(true); i < n; i++) {
+            StickyNoteVO note = new StickyNoteVO();
+            note.id = readStringRef();
+            note.x = in.readFloat();
+            note.y = in.readFloat();
+            note.width = in.readFloat();
+            note.height = in.readFloat();
+            note.content = readStringRef();
+            note.tint = readFloats();
+            vo.sStickyNotes.put(note.id, note);
+        }
+
+        for (int i = 0, groups = in.readInt(true); i < groups; i++) {
+            String key = readStringRef();
+            int count = in.readInt(true);
+            Array<MainItemVO> items = null;
+            for (int j = 0; j < count; j++) {
+                MainItemVO item = readItem();
+                if (items == null) items = new Array<>(true, count, item.getClass());
+                items.add(item);
+            }
+            if (items != null) vo.content.put(key, items);
+        }
+    }
+
+    private void readLight(LightVO vo) throws IOException {
+        byte type = in.readByte();
+        vo.type = type >= 0 ? LIGHT_TYPES[type] : null;
+        vo.rays = in.readInt(true);
+        vo.distance = in.readFloat();
+        vo.directionDegree = in.readFloat();
+        vo.height = in.readFloat();
+        vo.falloff.set(in.readFloat(), in.readFloat(), in.readFloat());
+        vo.coneDegree = in.readFloat();
+        vo.softnessLength = in.readFloat();
+        vo.intensity = in.readFloat();
+        vo.isStatic = in.readBoolean();
+        vo.isXRay = in.readBoolean();
+        vo.isSoft = in.readBoolean();
+        vo.isActive = in.readBoolean();
+    }
+
+    private void readShader(ShaderVO vo) throws IOException {
+        vo.shaderName = readStringRef();
+        for (int i = 0, n = in.readInt(true); i < n; i++) {
+            String name = readStringRef();
+            String type = readStringRef();
+            int intValue = in.readInt(false);
+            float value = in.readFloat(), value2 = in.readFloat(), value3 = in.readFloat(), value4 = in.readFloat();
+
+            ShaderUniformVO uniform = new ShaderUniformVO();
+            if ("int".equals(type)) uniform.set(intValue);
+            else if ("float".equals(type)) uniform.set(value);
+            else if ("vec2".equals(type)) uniform.set(value, value2);
+            else if ("vec3".equals(type)) uniform.set(value, value2, value3);
+            else if ("vec4".equals(type)) uniform.set(value, value2, value3, value4);
+            vo.shaderUniforms.put(name, uniform);
+        }
+    }
+
+    private PolygonShapeVO readShape() throws IOException {
+        PolygonShapeVO vo = new PolygonShapeVO();
+        vo.openEnded = in.readBoolean();
+        int vertices = in.readInt(true) - 1;
+        if (vertices >= 0) {
+            vo.vertices = new Array<>(true, vertices, Vector2.class);
+            for (int i = 0; i < vertices; i++) vo.vertices.add(readVector());
+        }
+        int polygons = in.readInt(true) - 1;
+        if (polygons >= 0) {
+            vo.polygonizedVertices = new Vector2[polygons][];
+            for (int i = 0; i < polygons; i++) {
+                Vector2[] polygon = new Vector2[in.readInt(true)];
+                for (int j = 0; j < polygon.length; j++) polygon[j] = readVector();
+                vo.polygonizedVertices[i] = polygon;
+            }
+        }
+        return vo;
+    }
+
+    private PhysicsBodyDataVO readPhysics() throws IOException {
+        PhysicsBodyDataVO vo = new PhysicsBodyDataVO();
+        vo.bodyType = in.readInt(true);
+        byte shapeType = in.readByte();
+        vo.shapeType = shapeType >= 0 ? SHAPE_TYPES[shapeType] : null;
+        vo.mass = in.readFloat();
+        vo.centerOfMass.set(in.readFloat(), in.readFloat());
+        vo.rotationalInertia = in.readFloat();
+        vo.damping = in.readFloat();
+        vo.angularDamping = in.readFloat();
+        vo.gravityScale = in.readFloat();
+        vo.allowSleep = in.readBoolean();
+        vo.awake = in.readBoolean();
+        vo.bullet = in.readBoolean();
+        vo.sensor = in.readBoolean();
+        vo.fineBoundBox = in.readBoolean();
+        vo.fixedRotation = in.readBoolean();
+        vo.density = in.readFloat();
+        vo.friction = in.readFloat();
+        vo.restitution = in.readFloat();
+        vo.height = in.readFloat();
+        return vo;
+    }
+
+    private LightBodyDataVO readLightBody() throws IOException {
+        LightBodyDataVO vo = new LightBodyDataVO();
+        vo.color = readFloats();
+        vo.rays = in.readInt(true);
+        vo.distance = in.readFloat();
+        vo.intensity = in.readFloat();
+        vo.height = in.readFloat();
+        vo.falloff.set(in.readFloat(), in.readFloat(), in.readFloat());
+        vo.rayDirection = in.readInt(false);
+        vo.softnessLength = in.readFloat();
+        vo.isStatic = in.readBoolean();
+        vo.isXRay = in.readBoolean();
+        vo.isSoft = in.readBoolean();
+        vo.isActive = in.readBoolean();
+        return vo;
+    }
+
+    private SensorDataVO readSensor() throws IOException {
+        SensorDataVO vo = new SensorDataVO();
+        vo.bottom = in.readBoolean();
+        vo.left = in.readBoolean();
+        vo.right = in.readBoolean();
+        vo.top = in.readBoolean();
+        vo.bottomSpanPercent = in.readFloat();
+        vo.leftSpanPercent = in.readFloat();
+        vo.rightSpanPercent = in.readFloat();
+        vo.topSpanPercent = in.readFloat();
+        vo.bottomHeightPercent = in.readFloat();
+        vo.leftWidthPercent = in.readFloat();
+        vo.rightWidthPercent = in.readFloat();
+        vo.topHeightPercent = in.readFloat();
+        return vo;
+    }
+
+    private LayoutConstraintVO readLayout() throws IOException {
+        LayoutConstraintVO vo = new LayoutConstraintVO();
+        vo.left = readConstraint();
+        vo.right = readConstraint();
+        vo.top = readConstraint();
+        vo.bottom = readConstraint();
+        vo.horizontalBias = in.readFloat();
+        vo.verticalBias = in.readFloat();
+        vo.matchConstraintWidth = in.readBoolean();
+        vo.matchConstraintHeight = in.readBoolean();
+        return vo;
+    }
+
+    private LayoutConstraintVO.ConstraintDataVO readConstraint() throws IOException {
+        if (!in.readBoolean()) return null;
+        LayoutConstraintVO.ConstraintDataVO vo = new LayoutConstraintVO.ConstraintDataVO();
+        vo.targetUniqueId = readStringRef();
+        byte side = in.readByte();
+        vo.targetSide = side >= 0 ? CONSTRAINT_SIDES[side] : null;
+        vo.margin = in.readFloat();
+        return vo;
+    }
+
+    private Vector2 readVector() throws IOException {
+        return new Vector2(in.readFloat(), in.readFloat());
+    }
+
+    private float[] readFloats() throws IOException {
+        int length = in.readInt(true) - 1;
+        if (length < 0) return null;
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) values[i] = in.readFloat();
+        return values;
+    }
+
+    private String readStringRef() throws IOException {
+        int index = in.readInt(true);
+        return index == 0 ? null : strings[index - 1];
+    }
+}
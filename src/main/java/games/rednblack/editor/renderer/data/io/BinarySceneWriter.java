@@ -0,0 +1,426 @@
+package games.rednblack.editor.renderer.data.io;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataOutput;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.utils.HyperJson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static games.rednblack.editor.renderer.data.io.BinarySceneFormat.*;
+
+/**
+ * Exports a {@link SceneVO} to the binary scene format read by {@link BinarySceneReader}.
+ * <p>
+ * Layout: magic, version, string table, then the scene properties and the root composite. Every string is stored once
+ * in the table and referenced by index, 0 being null. Items are typed records, composites store their children in
+ * content groups keyed like {@link CompositeItemVO#content}. Item types without a record are embedded as JSON.
+ * Integers are variable length.
+ */
+public class BinarySceneWriter {
+
+    private final ObjectIntMap<String> stringIndices = new ObjectIntMap<>();
+    private final Array<String> strings = new Array<>();
+    private DataOutput out;
+
+    public void write(SceneVO sceneVO, FileHandle file) {
+        OutputStream output = file.write(false);
+        try {
+            write(sceneVO, output);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing binary scene: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+
+    public byte[] write(SceneVO sceneVO) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            write(sceneVO, output);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing binary scene", e);
+        }
+        return output.toByteArray();
+    }
+
+    public void write(SceneVO sceneVO, OutputStream output) throws IOException {
+        stringIndices.clear();
+        strings.clear();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+        out = new DataOutput(body);
+        writeScene(sceneVO);
+        out.flush();
+
+        DataOutput header = new DataOutput(output);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION, true);
+        header.writeInt(strings.size, true);
+        for (int i = 0; i < strings.size; i++) {
+            header.writeString(strings.get(i));
+        }
+        header.flush();
+        body.writeTo(output);
+        output.flush();
+
+        out = null;
+    }
+
+    private void writeScene(SceneVO vo) throws IOException {
+        writeStringRef(vo.sceneName);
+
+        PhysicsPropertiesVO physics = vo.physicsPropertiesVO;
+        out.writeFloat(physics.gravityX);
+        out.writeFloat(physics.gravityY);
+        out.writeFloat(physics.sleepVelocity);
+        out.writeBoolean(physics.enabled);
+
+        LightsPropertiesVO lights = vo.lightsPropertiesVO;
+        out.writeBoolean(lights.enabled);
+        out.writeBoolean(lights.pseudo3d);
+        writeFloats(lights.ambientColor);
+        out.writeInt(lights.blurNum, true);
+        out.writeInt(lights.lightMapScale, true);
+        writeStringRef(lights.lightType);
+        out.writeInt(lights.directionalRays, true);
+        out.writeFloat(lights.directionalDegree);
+        out.writeFloat(lights.directionalHeight);
+        writeFloats(lights.directionalColor);
+
+        writeShader(vo.shaderVO);
+
+        out.writeInt(vo.verticalGuides.size(), true);
+        for (Float guide : vo.verticalGuides) out.writeFloat(guide);
+        out.writeInt(vo.horizontalGuides.size(), true);
+        for (Float guide : vo.horizontalGuides) out.writeFloat(guide);
+
+        out.writeBoolean(vo.composite != null);
+        if (vo.composite != null)
+            writeItem(vo.composite);
+    }
+
+    private void writeItem(MainItemVO vo) throws IOException {
+        byte type = typeOf(vo);
+        out.writeByte(type);
+        if (type == JSON) {
+            writeStringRef(vo.getClass().getName());
+            out.writeString(HyperJson.getJson().toJson(vo));
+            return;
+        }
+
+        writeMainItem(vo);
+        switch (type) {
+            case COMPOSITE:
+                writeComposite((CompositeItemVO) vo);
+                break;
+            case IMAGE:
+                SimpleImageVO image = (SimpleImageVO) vo;
+                writeStringRef(image.imageName);
+                out.writeBoolean(image.isRepeat);
+                out.writeBoolean(image.isPolygon);
+                break;
+            case NINE_PATCH:
+                Image9patchVO ninePatch = (Image9patchVO) vo;
+                writeStringRef(ninePatch.imageName);
+                out.writeFloat(ninePatch.width);
+                out.writeFloat(ninePatch.height);
+                break;
+            case LABEL:
+                LabelVO label = (LabelVO) vo;
+                writeStringRef(label.text);
+                writeStringRef(label.style);
+                out.writeInt(label.size, true);
+                out.writeInt(label.align, true);
+                out.writeFloat(label.width);
+                out.writeFloat(label.height);
+                out.writeBoolean(label.wrap);
+                out.writeBoolean(label.isTyping);
+                out.writeBoolean(label.monoSpace);
+                writeStringRef(label.bitmapFont);
+                break;
+            case SPRITE_ANIMATION:
+                SpriteAnimationVO sprite = (SpriteAnimationVO) vo;
+                writeStringRef(sprite.animationName);
+                out.writeInt(sprite.fps, true);
+                writeStringRef(sprite.currentAnimation);
+                out.writeInt(sprite.playMode, true);
+                out.writeInt(sprite.frameRangeMap.size(), true);
+                for (FrameRange range : sprite.frameRangeMap) {
+                    writeStringRef(range.name);
+                    out.writeInt(range.startFrame, true);
+                    out.writeInt(range.endFrame, true);
+                }
+                break;
+            case PARTICLE:
+                ParticleEffectVO particle = (ParticleEffectVO) vo;
+                writeStringRef(particle.particleName);
+                out.writeBoolean(particle.transform);
+                out.writeBoolean(particle.autoStart);
+                break;
+            case LIGHT:
+                writeLight((LightVO) vo);
+                break;
+            case COLOR_PRIMITIVE:
+                break;
+        }
+    }
+
+    private byte typeOf(MainItemVO vo) {
+        // Exact classes only, subclasses may add fields
+        Class<?> type = vo.getClass();
+        if (type == CompositeItemVO.class) return COMPOSITE;
+        if (type == SimpleImageVO.class) return IMAGE;
+        if (type == Image9patchVO.class) return NINE_PATCH;
+        if (type == LabelVO.class) return LABEL;
+        if (type == SpriteAnimationVO.class) return SPRITE_ANIMATION;
+        if (type == ParticleEffectVO.class) return PARTICLE;
+        if (type == LightVO.class) return LIGHT;
+        if (type == ColorPrimitiveVO.class) return COLOR_PRIMITIVE;
+        return JSON;
+    }
+
+    private void writeMainItem(MainItemVO vo) throws IOException {
+        int flags = 0;
+        if (vo.shape != null) flags |= HAS_SHAPE;
+        if (vo.physics != null) flags |= HAS_PHYSICS;
+        if (vo.light != null) flags |= HAS_LIGHT;
+        if (vo.sensor != null) flags |= HAS_SENSOR;
+        if (vo.circle != null) flags |= HAS_CIRCLE;
+        if (vo.layout != null) flags |= HAS_LAYOUT;
+        if (vo.tint != null) flags |= HAS_TINT;
+        if (vo.tags != null) flags |= HAS_TAGS;
+        if (vo.flipX) flags |= FLIP_X;
+        if (vo.flipY) flags |= FLIP_Y;
+        out.writeInt(flags, true);
+
+        writeStringRef(vo.uniqueId);
+        writeStringRef(vo.itemIdentifier);
+        writeStringRef(vo.itemName);
+        if (vo.tags != null) {
+            out.writeInt(vo.tags.length, true);
+            for (String tag : vo.tags) writeStringRef(tag);
+        }
+        out.writeInt(vo.customVariables.size, true);
+        for (ObjectMap.Entry<String, String> entry : vo.customVariables) {
+            writeStringRef(entry.key);
+            writeStringRef(entry.value);
+        }
+
+        out.writeFloat(vo.x);
+        out.writeFloat(vo.y);
+        out.writeFloat(vo.scaleX);
+        out.writeFloat(vo.scaleY);
+        out.writeFloat(vo.originX);
+        out.writeFloat(vo.originY);
+        out.writeFloat(vo.rotation);
+        out.writeInt(vo.zIndex, false);
+        writeStringRef(vo.layerName);
+        if (vo.tint != null) writeFloats(vo.tint);
+
+        writeShader(vo.shader);
+        out.writeByte(vo.renderingLayer != null ? vo.renderingLayer.ordinal() : -1);
+
+        if (vo.shape != null) writeShape(vo.shape);
+        if (vo.physics != null) writePhysics(vo.physics);
+        if (vo.light != null) writeLightBody(vo.light);
+        if (vo.sensor != null) writeSensor(vo.sensor);
+        if (vo.circle != null) {
+            out.writeFloat(vo.circle.x);
+            out.writeFloat(vo.circle.y);
+            out.writeFloat(vo.circle.radius);
+        }
+        if (vo.layout != null) writeLayout(vo.layout);
+    }
+
+    private void writeComposite(CompositeItemVO vo) throws IOException {
+        out.writeFloat(vo.width);
+        out.writeFloat(vo.height);
+        out.writeBoolean(vo.automaticResize);
+        out.writeBoolean(vo.scissorsEnabled);
+        out.writeBoolean(vo.renderToFBO);
+
+        out.writeInt(vo.layers.size, true);
+        for (LayerItemVO layer : vo.layers) {
+            writeStringRef(layer.layerName);
+            out.writeBoolean(layer.isLocked);
+            out.writeBoolean(layer.isVisible);
+        }
+
+        out.writeInt(vo.sStickyNotes.size, true);
+        for (StickyNoteVO note : vo.sStickyNotes.values()) {
+            writeStringRef(note.id);
+            out.writeFloat(note.x);
+            out.writeFloat(note.y);
+            out.writeFloat(note.width);
+            out.writeFloat(note.height);
+            writeStringRef(note.content);
+            writeFloats(note.tint);
+        }
+
+        out.writeInt(vo.content.size, true);
+        for (ObjectMap.Entry<String, Array<MainItemVO>> group : vo.content) {
+            writeStringRef(group.key);
+            out.writeInt(group.value.size, true);
+            for (MainItemVO item : group.value) {
+                writeItem(item);
+            }
+        }
+    }
+
+    private void writeLight(LightVO vo) throws IOException {
+        out.writeByte(vo.type != null ? vo.type.ordinal() : -1);
+        out.writeInt(vo.rays, true);
+        out.writeFloat(vo.distance);
+        out.writeFloat(vo.directionDegree);
+        out.writeFloat(vo.height);
+        out.writeFloat(vo.falloff.x);
+        out.writeFloat(vo.falloff.y);
+        out.writeFloat(vo.falloff.z);
+        out.writeFloat(vo.coneDegree);
+        out.writeFloat(vo.softnessLength);
+        out.writeFloat(vo.intensity);
+        out.writeBoolean(vo.isStatic);
+        out.writeBoolean(vo.isXRay);
+        out.writeBoolean(vo.isSoft);
+        out.writeBoolean(vo.isActive);
+    }
+
+    private void writeShader(ShaderVO vo) throws IOException {
+        writeStringRef(vo.shaderName);
+        out.writeInt(vo.shaderUniforms.size, true);
+        for (ObjectMap.Entry<String, ShaderUniformVO> entry : vo.shaderUniforms) {
+            ShaderUniformVO uniform = entry.value;
+            writeStringRef(entry.key);
+            writeStringRef(uniform.getType());
+            out.writeInt(uniform.intValue, false);
+            out.writeFloat(uniform.floatValue);
+            out.writeFloat(uniform.floatValue2);
+            out.writeFloat(uniform.floatValue3);
+            out.writeFloat(uniform.floatValue4);
+        }
+    }
+
+    private void writeShape(PolygonShapeVO vo) throws IOException {
+        out.writeBoolean(vo.openEnded);
+        out.writeInt(vo.vertices != null ? vo.vertices.size + 1 : 0, true);
+        if (vo.vertices != null) {
+            for (Vector2 vertex : vo.vertices) writeVector(vertex);
+        }
+        out.writeInt(vo.polygonizedVertices != null ? vo.polygonizedVertices.length + 1 : 0, true);
+        if (vo.polygonizedVertices != null) {
+            for (Vector2[] polygon : vo.polygonizedVertices) {
+                out.writeInt(polygon.length, true);
+                for (Vector2 vertex : polygon) writeVector(vertex);
+            }
+        }
+    }
+
+    private void writePhysics(PhysicsBodyDataVO vo) throws IOException {
+        out.writeInt(vo.bodyType, true);
+        out.writeByte(vo.shapeType != null ? vo.shapeType.ordinal() : -1);
+        out.writeFloat(vo.mass);
+        writeVector(vo.centerOfMass);
+        out.writeFloat(vo.rotationalInertia);
+        out.writeFloat(vo.damping);
+        out.writeFloat(vo.angularDamping);
+        out.writeFloat(vo.gravityScale);
+        out.writeBoolean(vo.allowSleep);
+        out.writeBoolean(vo.awake);
+        out.writeBoolean(vo.bullet);
+        out.writeBoolean(vo.sensor);
+        out.writeBoolean(vo.fineBoundBox);
+        out.writeBoolean(vo.fixedRotation);
+        out.writeFloat(vo.density);
+        out.writeFloat(vo.friction);
+        out.writeFloat(vo.restitution);
+        out.writeFloat(vo.height);
+    }
+
+    private void writeLightBody(LightBodyDataVO vo) throws IOException {
+        writeFloats(vo.color);
+        out.writeInt(vo.rays, true);
+        out.writeFloat(vo.distance);
+        out.writeFloat(vo.intensity);
+        out.writeFloat(vo.height);
+        out.writeFloat(vo.falloff.x);
+        out.writeFloat(vo.falloff.y);
+        out.writeFloat(vo.falloff.z);
+        out.writeInt(vo.rayDirection, false);
+        out.writeFloat(vo.softnessLength);
+        out.writeBoolean(vo.isStatic);
+        out.writeBoolean(vo.isXRay);
+        out.writeBoolean(vo.isSoft);
+        out.writeBoolean(vo.isActive);
+    }
+
+    private void writeSensor(SensorDataVO vo) throws IOException {
+        out.writeBoolean(vo.bottom);
+        out.writeBoolean(vo.left);
+        out.writeBoolean(vo.right);
+        out.writeBoolean(vo.top);
+        out.writeFloat(vo.bottomSpanPercent);
+        out.writeFloat(vo.leftSpanPercent);
+        out.writeFloat(vo.rightSpanPercent);
+        out.writeFloat(vo.topSpanPercent);
+        out.writeFloat(vo.bottomHeightPercent);
+        out.writeFloat(vo.leftWidthPercent);
+        out.writeFloat(vo.rightWidthPercent);
+        out.writeFloat(vo.topHeightPercent);
+    }
+
+    private void writeLayout(LayoutConstraintVO vo) throws IOException {
+        writeConstraint(vo.left);
+        writeConstraint(vo.right);
+        writeConstraint(vo.top);
+        writeConstraint(vo.bottom);
+        out.writeFloat(vo.horizontalBias);
+        out.writeFloat(vo.verticalBias);
+        out.writeBoolean(vo.matchConstraintWidth);
+        out.writeBoolean(vo.matchConstraintHeight);
+    }
+
+    private void writeConstraint(LayoutConstraintVO.ConstraintDataVO vo) throws IOException {
+        out.writeBoolean(vo != null);
+        if (vo == null) return;
+        writeStringRef(vo.targetUniqueId);
+        out.writeByte(vo.targetSide != null ? vo.targetSide.ordinal() : -1);
+        out.writeFloat(vo.margin);
+    }
+
+    private void writeVector(Vector2 vector) throws IOException {
+        out.writeFloat(vector.x);
+        out.writeFloat(vector.y);
+    }
+
+    /**
+     * Length prefixed, 0 for null.
+     */
+    private void writeFloats(float[] values) throws IOException {
+        out.writeInt(values != null ? values.length + 1 : 0, true);
+        if (values == null) return;
+        for (float value : values) out.writeFloat(value);
+    }
+
+    private void writeStringRef(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(0, true);
+            return;
+        }
+        int index = stringIndices.get(value, -1);
+        if (index == -1) {
+            index = strings.size;
+            strings.add(value);
+            stringIndices.put(value, index);
+        }
+        out.writeInt(index + 1, true);
+    }
+}
@@ -0,0 +1,928 @@
+package games.rednblack.editor.renderer.data.io;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.components.label.LabelComponent;
+import games.rednblack.editor.renderer.components.normal.NormalMapRendering;
+import games.rednblack.editor.renderer.components.particle.ParticleComponent;
+import games.rednblack.editor.renderer.components.shape.CircleShapeComponent;
+import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
+import games.rednblack.editor.renderer.components.sprite.SpriteAnimationComponent;
+import games.rednblack.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import games.rednblack.editor.renderer.data.FrameRange;
+import games.rednblack.editor.renderer.data.LayerItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+import games.rednblack.editor.renderer.data.ShaderUniformVO;
+import games.rednblack.editor.renderer.ecs.ComponentSnapshotSerializer;
+import games.rednblack.editor.renderer.ecs.EngineSnapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * {@link ComponentSnapshotSerializer}s of the components created by the runtime.
+ * <p>
+ * Only the authored state is stored, caches like world transforms, bounding boxes and layouts are recomputed by their
+ * systems after a restore. Resources like texture regions, fonts, shaders and particle effects are stored by name:
+ * when the name changes the live resource is dropped, and
+ * {@link games.rednblack.editor.renderer.factory.EntityFactory#restoreTransientComponents(games.rednblack.editor.renderer.ecs.utils.IntBag)}
+ * loads it again. Components holding native, script or running action state, like physics bodies, lights, scripts and
+ * actions, have no serializer and are excluded by {@link games.rednblack.editor.renderer.SceneLoader#createEngineSnapshot()}.
+ * <p>
+ * Strings are stored as UTF-16 and reused when equal to the live value, restoring an unchanged entity doesn't allocate.
+ */
+public class SnapshotSerializers {
+
+    public static EngineSnapshot registerDefaults(EngineSnapshot snapshot) {
+        snapshot.register(TransformComponent.class, new TransformSerializer());
+        snapshot.register(DimensionsComponent.class, new DimensionsSerializer());
+        snapshot.register(TintComponent.class, new TintSerializer());
+        snapshot.register(ZIndexComponent.class, new ZIndexSerializer());
+        snapshot.register(MainItemComponent.class, new MainItemSerializer());
+        snapshot.register(NodeComponent.class, new NodeSerializer());
+        snapshot.register(ParentNodeComponent.class, new ParentNodeSerializer());
+        snapshot.register(CompositeTransformComponent.class, new CompositeTransformSerializer());
+        snapshot.register(BoundingBoxComponent.class, new BoundingBoxSerializer());
+        snapshot.register(LayerMapComponent.class, new LayerMapSerializer());
+        snapshot.register(LayoutComponent.class, new LayoutSerializer());
+        snapshot.register(ChainedEntitiesComponent.class, new ChainedEntitiesSerializer());
+        snapshot.register(PolygonShapeComponent.class, new PolygonShapeSerializer());
+        snapshot.register(CircleShapeComponent.class, new CircleShapeSerializer());
+        snapshot.register(NormalMapRendering.class, new NormalMapRenderingSerializer());
+        snapshot.register(ShaderComponent.class, new ShaderSerializer());
+        snapshot.register(TextureRegionComponent.class, new TextureRegionSerializer());
+        snapshot.register(NinePatchComponent.class, new NinePatchSerializer());
+        snapshot.register(LabelComponent.class, new LabelSerializer());
+        snapshot.register(ParticleComponent.class, new ParticleSerializer());
+        snapshot.register(SpriteAnimationComponent.class, new SpriteAnimationSerializer());
+        snapshot.register(SpriteAnimationStateComponent.class, new SpriteAnimationStateSerializer());
+        return snapshot;
+    }
+
+    public static class TransformSerializer implements ComponentSnapshotSerializer<TransformComponent> {
+        @Override
+        public void write(TransformComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.x);
+            buffer.putFloat(component.y);
+            buffer.putFloat(component.scaleX);
+            buffer.putFloat(component.scaleY);
+            buffer.putFloat(component.rotation);
+            buffer.putFloat(component.originX);
+            buffer.putFloat(component.originY);
+            buffer.put((byte) ((component.flipX ? 1 : 0) | (component.flipY ? 2 : 0)));
+        }
+
+        @Override
+        public void read(TransformComponent component, ByteBuffer buffer) {
+            component.x = buffer.getFloat();
+            component.y = buffer.getFloat();
+            component.scaleX = buffer.getFloat();
+            component.scaleY = buffer.getFloat();
+            component.rotation = buffer.getFloat();
+            component.originX = buffer.getFloat();
+            component.originY = buffer.getFloat();
+            byte flip = buffer.get();
+            component.flipX = (flip & 1) != 0;
+            component.flipY = (flip & 2) != 0;
+        }
+    }
+
+    public static class DimensionsSerializer implements ComponentSnapshotSerializer<DimensionsComponent> {
+        @Override
+        public void write(DimensionsComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.width);
+            buffer.putFloat(component.height);
+            writeRectangle(component.boundBox, buffer);
+
+            float[] vertices = component.polygon != null ? component.polygon.getVertices() : null;
+            buffer.putInt(vertices != null ? vertices.length : -1);
+            if (vertices != null) {
+                for (float vertex : vertices)
+                    buffer.putFloat(vertex);
+            }
+        }
+
+        @Override
+        public void read(DimensionsComponent component, ByteBuffer buffer) {
+            component.width = buffer.getFloat();
+            component.height = buffer.getFloat();
+            component.boundBox = readRectangle(component.boundBox, buffer);
+
+            int length = buffer.getInt();
+            if (length == -1) {
+                component.polygon = null;
+                return;
+            }
+            if (component.polygon == null || component.polygon.getVertices().length != length)
+                component.polygon = new Polygon(new float[length]);
+            float[] vertices = component.polygon.getVertices();
+            for (int i = 0; i < length; i++)
+                vertices[i] = buffer.getFloat();
+            component.polygon.dirty();
+        }
+    }
+
+    public static class TintSerializer implements ComponentSnapshotSerializer<TintComponent> {
+        @Override
+        public void write(TintComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.color.r);
+            buffer.putFloat(component.color.g);
+            buffer.putFloat(component.color.b);
+            buffer.putFloat(component.color.a);
+        }
+
+        @Override
+        public void read(TintComponent component, ByteBuffer buffer) {
+            component.color.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        }
+    }
+
+    public static class ZIndexSerializer implements ComponentSnapshotSerializer<ZIndexComponent> {
+        @Override
+        public void write(ZIndexComponent component, ByteBuffer buffer) {
+            buffer.putInt(component.getZIndex());
+            buffer.putInt(component.layerIndex);
+            buffer.put((byte) (component.needReOrder ? 1 : 0));
+            writeString(component.getLayerName(), buffer);
+        }
+
+        @Override
+        public void read(ZIndexComponent component, ByteBuffer buffer) {
+            int zIndex = buffer.getInt();
+            component.layerIndex = buffer.getInt();
+            boolean needReOrder = buffer.get() != 0;
+            String layerName = readString(component.getLayerName(), buffer);
+
+            if (zIndex != component.getZIndex()) component.setZIndex(zIndex);
+            if (!layerName.equals(component.getLayerName())) component.setLayerName(layerName);
+            component.needReOrder = needReOrder;
+        }
+    }
+
+    public static class MainItemSerializer implements ComponentSnapshotSerializer<MainItemComponent> {
+        @Override
+        public void write(MainItemComponent component, ByteBuffer buffer) {
+            buffer.putInt(component.entityType);
+            buffer.put((byte) ((component.visible ? 1 : 0) | (component.culled ? 2 : 0)));
+            writeString(component.uniqueId, buffer);
+            writeString(component.itemIdentifier, buffer);
+            writeString(component.libraryLink, buffer);
+
+            buffer.putInt(component.tags.size);
+            for (String tag : component.tags)
+                writeString(tag, buffer);
+
+            buffer.putInt(component.customVariables.size);
+            for (ObjectMap.Entry<String, String> entry : component.customVariables) {
+                writeString(entry.key, buffer);
+                writeString(entry.value, buffer);
+            }
+        }
+
+        @Override
+        public void read(MainItemComponent component, ByteBuffer buffer) {
+            component.entityType = buffer.getInt();
+            byte flags = buffer.get();
+            component.visible = (flags & 1) != 0;
+            component.culled = (flags & 2) != 0;
+            component.uniqueId = readString(component.uniqueId, buffer);
+            component.itemIdentifier = readString(component.itemIdentifier, buffer);
+            component.libraryLink = readString(component.libraryLink, buffer);
+
+            readTags(component.tags, buffer);
+            readCustomVariables(component.customVariables, buffer);
+        }
+
+        private void readTags(ObjectSet<String> tags, ByteBuffer buffer) {
+            int size = buffer.getInt();
+            int start = buffer.position();
+            // Same content iterates in the same order, compare in place before rebuilding
+            if (size == tags.size) {
+                boolean equal = true;
+                for (String tag : tags) {
+                    if (!skipString(tag, buffer)) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            tags.clear();
+            for (int i = 0; i < size; i++)
+                tags.add(readString(null, buffer));
+        }
+
+        private void readCustomVariables(ObjectMap<String, String> variables, ByteBuffer buffer) {
+            int size = buffer.getInt();
+            int start = buffer.position();
+            if (size == variables.size) {
+                boolean equal = true;
+                for (ObjectMap.Entry<String, String> entry : variables) {
+                    if (!skipString(entry.key, buffer) || !skipString(entry.value, buffer)) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            variables.clear();
+            for (int i = 0; i < size; i++) {
+                String key = readString(null, buffer);
+                variables.put(key, readString(null, buffer));
+            }
+        }
+    }
+
+    public static class NodeSerializer implements ComponentSnapshotSerializer<NodeComponent> {
+        @Override
+        public void write(NodeComponent component, ByteBuffer buffer) {
+            int[] children = component.children.items;
+            buffer.putInt(component.children.size);
+            for (int i = 0, n = component.children.size; i < n; i++)
+                buffer.putInt(children[i]);
+        }
+
+        @Override
+        public void read(NodeComponent component, ByteBuffer buffer) {
+            int size = buffer.getInt();
+            int start = buffer.position();
+            if (size == component.children.size) {
+                boolean equal = true;
+                for (int i = 0; i < size; i++) {
+                    if (buffer.getInt() != component.children.get(i)) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) {
+                    buffer.position(start + size * 4);
+                    return;
+                }
+                buffer.position(start);
+            }
+
+            component.children.clear();
+            component.persistentChildren.setSize(0);
+            for (int i = 0; i < size; i++) {
+                int child = buffer.getInt();
+                component.children.add(child);
+                component.persistentChildren.add(child);
+            }
+            component.childrenVersion++;
+        }
+    }
+
+    public static class ParentNodeSerializer implements ComponentSnapshotSerializer<ParentNodeComponent> {
+        @Override
+        public void write(ParentNodeComponent component, ByteBuffer buffer) {
+            buffer.putInt(component.parentEntity);
+        }
+
+        @Override
+        public void read(ParentNodeComponent component, ByteBuffer buffer) {
+            component.parentEntity = buffer.getInt();
+        }
+    }
+
+    public static class CompositeTransformSerializer implements ComponentSnapshotSerializer<CompositeTransformComponent> {
+        @Override
+        public void write(CompositeTransformComponent component, ByteBuffer buffer) {
+            buffer.put((byte) ((component.automaticResize ? 1 : 0) | (component.scissorsEnabled ? 2 : 0)
+                    | (component.renderToFBO ? 4 : 0) | (component.retained ? 8 : 0)));
+            writeRectangle(component.scissors, buffer);
+        }
+
+        @Override
+        public void read(CompositeTransformComponent component, ByteBuffer buffer) {
+            byte flags = buffer.get();
+            component.automaticResize = (flags & 1) != 0;
+            component.scissorsEnabled = (flags & 2) != 0;
+            component.renderToFBO = (flags & 4) != 0;
+            component.retained = (flags & 8) != 0;
+            readRectangle(component.scissors, buffer);
+        }
+    }
+
+    /**
+     * Bounding boxes are a cache, a restore only invalidates the checksum so the box is computed again.
+     */
+    public static class BoundingBoxSerializer implements ComponentSnapshotSerializer<BoundingBoxComponent> {
+        @Override
+        public void write(BoundingBoxComponent component, ByteBuffer buffer) {
+        }
+
+        @Override
+        public void read(BoundingBoxComponent component, ByteBuffer buffer) {
+            component.checksum = ~component.checksum;
+        }
+    }
+
+    public static class LayerMapSerializer implements ComponentSnapshotSerializer<LayerMapComponent> {
+        @Override
+        public void write(LayerMapComponent component, ByteBuffer buffer) {
+            buffer.put((byte) (component.autoIndexing ? 1 : 0));
+            Array<LayerItemVO> layers = component.getLayers();
+            buffer.putInt(layers.size);
+            for (LayerItemVO layer : layers) {
+                writeString(layer.layerName, buffer);
+                buffer.put((byte) ((layer.isLocked ? 1 : 0) | (layer.isVisible ? 2 : 0)));
+            }
+        }
+
+        @Override
+        public void read(LayerMapComponent component, ByteBuffer buffer) {
+            component.autoIndexing = buffer.get() != 0;
+            Array<LayerItemVO> layers = component.getLayers();
+            int size = buffer.getInt();
+            int start = buffer.position();
+            // Same layers in the same order only need their flags
+            if (size == layers.size) {
+                boolean equal = true;
+                for (LayerItemVO layer : layers) {
+                    if (!skipString(layer.layerName, buffer)) {
+                        equal = false;
+                        break;
+                    }
+                    readLayerFlags(layer, buffer);
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            Array<LayerItemVO> restored = new Array<>(size);
+            for (int i = 0; i < size; i++) {
+                LayerItemVO layer = new LayerItemVO();
+                layer.layerName = readString(null, buffer);
+                readLayerFlags(layer, buffer);
+                restored.add(layer);
+            }
+            layers.clear();
+            component.setLayers(restored);
+        }
+
+        private void readLayerFlags(LayerItemVO layer, ByteBuffer buffer) {
+            byte flags = buffer.get();
+            layer.isLocked = (flags & 1) != 0;
+            layer.isVisible = (flags & 2) != 0;
+        }
+    }
+
+    public static class LayoutSerializer implements ComponentSnapshotSerializer<LayoutComponent> {
+        @Override
+        public void write(LayoutComponent component, ByteBuffer buffer) {
+            writeConstraint(component.left, buffer);
+            writeConstraint(component.right, buffer);
+            writeConstraint(component.top, buffer);
+            writeConstraint(component.bottom, buffer);
+            buffer.putFloat(component.horizontalBias);
+            buffer.putFloat(component.verticalBias);
+            buffer.put((byte) ((component.matchConstraintWidth ? 1 : 0) | (component.matchConstraintHeight ? 2 : 0)));
+        }
+
+        @Override
+        public void read(LayoutComponent component, ByteBuffer buffer) {
+            component.left = readConstraint(component.left, buffer);
+            component.right = readConstraint(component.right, buffer);
+            component.top = readConstraint(component.top, buffer);
+            component.bottom = readConstraint(component.bottom, buffer);
+            component.horizontalBias = buffer.getFloat();
+            component.verticalBias = buffer.getFloat();
+            byte flags = buffer.get();
+            component.matchConstraintWidth = (flags & 1) != 0;
+            component.matchConstraintHeight = (flags & 2) != 0;
+            // Positions are written by the layout, compute them again
+            component.checksum = ~component.checksum;
+        }
+
+        private void writeConstraint(LayoutComponent.ConstraintData data, ByteBuffer buffer) {
+            buffer.put((byte) (data != null ? 1 : 0));
+            if (data == null) return;
+            buffer.putInt(data.targetEntity);
+            buffer.putInt(data.targetSide != null ? data.targetSide.ordinal() : -1);
+            buffer.putFloat(data.margin);
+            buffer.put((byte) (data.resolved ? 1 : 0));
+            writeString(data.targetUniqueId, buffer);
+        }
+
+        private LayoutComponent.ConstraintData readConstraint(LayoutComponent.ConstraintData data, ByteBuffer buffer) {
+            if (buffer.get() == 0) return null;
+            if (data == null) data = new LayoutComponent.ConstraintData();
+            data.targetEntity = buffer.getInt();
+            int side = buffer.getInt();
+            data.targetSide = side != -1 ? LayoutComponent.ConstraintSide.values()[side] : null;
+            data.margin = buffer.getFloat();
+            data.resolved = buffer.get() != 0;
+            data.targetUniqueId = readString(data.targetUniqueId, buffer);
+            return data;
+        }
+    }
+
+    public static class ChainedEntitiesSerializer implements ComponentSnapshotSerializer<ChainedEntitiesComponent> {
+        @Override
+        public void write(ChainedEntitiesComponent component, ByteBuffer buffer) {
+            writeIntArray(component.chainedEntities, buffer);
+        }
+
+        @Override
+        public void read(ChainedEntitiesComponent component, ByteBuffer buffer) {
+            readIntArray(component.chainedEntities, buffer);
+        }
+    }
+
+    public static class PolygonShapeSerializer implements ComponentSnapshotSerializer<PolygonShapeComponent> {
+        @Override
+        public void write(PolygonShapeComponent component, ByteBuffer buffer) {
+            buffer.put((byte) (component.openEnded ? 1 : 0));
+
+            buffer.putInt(component.vertices != null ? component.vertices.size : -1);
+            if (component.vertices != null) {
+                for (Vector2 vertex : component.vertices)
+                    writeVector(vertex, buffer);
+            }
+
+            Vector2[][] polygons = component.polygonizedVertices;
+            buffer.putInt(polygons != null ? polygons.length : -1);
+            if (polygons != null) {
+                for (Vector2[] polygon : polygons) {
+                    buffer.putInt(polygon.length);
+                    for (Vector2 vertex : polygon)
+                        writeVector(vertex, buffer);
+                }
+            }
+        }
+
+        @Override
+        public void read(PolygonShapeComponent component, ByteBuffer buffer) {
+            component.openEnded = buffer.get() != 0;
+
+            int size = buffer.getInt();
+            if (size == -1) {
+                component.vertices = null;
+            } else {
+                if (component.vertices == null) component.vertices = new Array<>(true, size, Vector2.class);
+                Array<Vector2> vertices = component.vertices;
+                for (int i = 0; i < size; i++) {
+                    if (i == vertices.size) vertices.add(new Vector2());
+                    readVector(vertices.get(i), buffer);
+                }
+                vertices.truncate(size);
+            }
+
+            int count = buffer.getInt();
+            if (count == -1) {
+                component.polygonizedVertices = null;
+                return;
+            }
+            if (component.polygonizedVertices == null || component.polygonizedVertices.length != count)
+                component.polygonizedVertices = new Vector2[count][];
+            Vector2[][] polygons = component.polygonizedVertices;
+            for (int p = 0; p < count; p++) {
+                int length = buffer.getInt();
+                if (polygons[p] == null || polygons[p].length != length) polygons[p] = new Vector2[length];
+                Vector2[] polygon = polygons[p];
+                for (int i = 0; i < length; i++) {
+                    if (polygon[i] == null) polygon[i] = new Vector2();
+                    readVector(polygon[i], buffer);
+                }
+            }
+        }
+    }
+
+    public static class CircleShapeSerializer implements ComponentSnapshotSerializer<CircleShapeComponent> {
+        @Override
+        public void write(CircleShapeComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.radius);
+        }
+
+        @Override
+        public void read(CircleShapeComponent component, ByteBuffer buffer) {
+            component.radius = buffer.getFloat();
+        }
+    }
+
+    public static class NormalMapRenderingSerializer implements ComponentSnapshotSerializer<NormalMapRendering> {
+        @Override
+        public void write(NormalMapRendering component, ByteBuffer buffer) {
+            buffer.put((byte) (component.useNormalMap ? 1 : 0));
+        }
+
+        @Override
+        public void read(NormalMapRendering component, ByteBuffer buffer) {
+            component.useNormalMap = buffer.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    /**
+     * Stores the shader by name with its custom uniforms, a different name drops the live program.
+     */
+    public static class ShaderSerializer implements ComponentSnapshotSerializer<ShaderComponent> {
+        @Override
+        public void write(ShaderComponent component, ByteBuffer buffer) {
+            buffer.putInt(component.renderingLayer.ordinal());
+            writeString(component.shaderName, buffer);
+
+            buffer.putInt(component.customUniforms.size);
+            for (ObjectMap.Entry<String, ShaderUniformVO> entry : component.customUniforms) {
+                ShaderUniformVO vo = entry.value;
+                writeString(entry.key, buffer);
+                writeString(vo.getType(), buffer);
+                buffer.putInt(vo.intValue);
+                buffer.putFloat(vo.floatValue);
+                buffer.putFloat(vo.floatValue2);
+                buffer.putFloat(vo.floatValue3);
+                buffer.putFloat(vo.floatValue4);
+            }
+        }
+
+        @Override
+        public void read(ShaderComponent component, ByteBuffer buffer) {
+            MainItemVO.RenderingLayer renderingLayer = MainItemVO.RenderingLayer.values()[buffer.getInt()];
+            if (!skipString(component.shaderName, buffer)) {
+                String shaderName = readString(null, buffer);
+                component.clear();
+                component.shaderName = shaderName;
+            }
+            component.renderingLayer = renderingLayer;
+
+            int size = buffer.getInt();
+            int start = buffer.position();
+            // Same uniforms in the same order are updated in place
+            if (size == component.customUniforms.size) {
+                boolean equal = true;
+                for (ObjectMap.Entry<String, ShaderUniformVO> entry : component.customUniforms) {
+                    if (!skipString(entry.key, buffer) || !skipString(entry.value.getType(), buffer)) {
+                        equal = false;
+                        break;
+                    }
+                    readUniformValues(entry.value, buffer);
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            for (ShaderUniformVO vo : component.customUniforms.values())
+                ShaderComponent.POOLS.free(vo);
+            component.customUniforms.clear();
+            for (int i = 0; i < size; i++) {
+                String name = readString(null, buffer);
+                String typeName = readString(null, buffer);
+                ShaderUniformVO vo = ShaderComponent.POOLS.obtain(ShaderUniformVO.class);
+                readUniformValues(vo, buffer);
+                assignType(vo, typeName);
+                component.customUniforms.put(name, vo);
+            }
+        }
+
+        private void readUniformValues(ShaderUniformVO vo, ByteBuffer buffer) {
+            vo.intValue = buffer.getInt();
+            vo.floatValue = buffer.getFloat();
+            vo.floatValue2 = buffer.getFloat();
+            vo.floatValue3 = buffer.getFloat();
+            vo.floatValue4 = buffer.getFloat();
+        }
+
+        private void assignType(ShaderUniformVO vo, String typeName) {
+            if (typeName == null) return;
+            // The type is only assigned by the typed setters
+            switch (typeName) {
+                case "int":
+                    vo.set(vo.intValue);
+                    break;
+                case "float":
+                    vo.set(vo.floatValue);
+                    break;
+                case "vec2":
+                    vo.set(vo.floatValue, vo.floatValue2);
+                    break;
+                case "vec3":
+                    vo.set(vo.floatValue, vo.floatValue2, vo.floatValue3);
+                    break;
+                case "vec4":
+                    vo.set(vo.floatValue, vo.floatValue2, vo.floatValue3, vo.floatValue4);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Stores the region by name, a different name drops the live region.
+     */
+    public static class TextureRegionSerializer implements ComponentSnapshotSerializer<TextureRegionComponent> {
+        @Override
+        public void write(TextureRegionComponent component, ByteBuffer buffer) {
+            writeString(component.regionName, buffer);
+            buffer.put((byte) ((component.isRepeat ? 1 : 0) | (component.isPolygon ? 2 : 0)));
+            buffer.putFloat(component.ppwu);
+        }
+
+        @Override
+        public void read(TextureRegionComponent component, ByteBuffer buffer) {
+            if (!skipString(component.regionName, buffer)) {
+                component.regionName = readString(null, buffer);
+                component.region = null;
+                component.repeatablePolygonSprite = null;
+            }
+            byte flags = buffer.get();
+            boolean isRepeat = (flags & 1) != 0;
+            boolean isPolygon = (flags & 2) != 0;
+            if (isRepeat != component.isRepeat || isPolygon != component.isPolygon) component.scheduleRefresh();
+            component.isRepeat = isRepeat;
+            component.isPolygon = isPolygon;
+            component.ppwu = buffer.getFloat();
+        }
+    }
+
+    /**
+     * Stores the nine patch by region name, a different name drops the live nine patch.
+     */
+    public static class NinePatchSerializer implements ComponentSnapshotSerializer<NinePatchComponent> {
+        @Override
+        public void write(NinePatchComponent component, ByteBuffer buffer) {
+            writeString(component.textureRegionName, buffer);
+        }
+
+        @Override
+        public void read(NinePatchComponent component, ByteBuffer buffer) {
+            if (!skipString(component.textureRegionName, buffer)) {
+                component.textureRegionName = readString(null, buffer);
+                component.ninePatch = null;
+            }
+        }
+    }
+
+    /**
+     * Stores text and font settings, a different font drops the live style.
+     */
+    public static class LabelSerializer implements ComponentSnapshotSerializer<LabelComponent> {
+        @Override
+        public void write(LabelComponent component, ByteBuffer buffer) {
+            CharArray text = component.getText();
+            buffer.putInt(text.size);
+            for (int i = 0, n = text.size; i < n; i++)
+                buffer.putChar(text.items[i]);
+
+            writeString(component.fontName, buffer);
+            buffer.putInt(component.fontSize);
+            writeString(component.bitmapFont, buffer);
+            buffer.putInt(component.labelAlign);
+            buffer.putInt(component.lineAlign);
+            buffer.putFloat(component.fontScaleX);
+            buffer.putFloat(component.fontScaleY);
+            buffer.put((byte) ((component.wrap ? 1 : 0) | (component.mono ? 2 : 0) | (component.typingEffect ? 4 : 0)));
+        }
+
+        @Override
+        public void read(LabelComponent component, ByteBuffer buffer) {
+            readText(component.getText(), buffer);
+
+            boolean fontChanged = false;
+            if (!skipString(component.fontName, buffer)) {
+                component.fontName = readString(null, buffer);
+                fontChanged = true;
+            }
+            int fontSize = buffer.getInt();
+            fontChanged |= fontSize != component.fontSize;
+            component.fontSize = fontSize;
+            if (!skipString(component.bitmapFont, buffer)) {
+                component.bitmapFont = readString(null, buffer);
+                fontChanged = true;
+            }
+
+            component.labelAlign = buffer.getInt();
+            component.lineAlign = buffer.getInt();
+            component.fontScaleX = buffer.getFloat();
+            component.fontScaleY = buffer.getFloat();
+            byte flags = buffer.get();
+            component.wrap = (flags & 1) != 0;
+            boolean mono = (flags & 2) != 0;
+            fontChanged |= mono != component.mono;
+            component.mono = mono;
+            component.typingEffect = (flags & 4) != 0;
+
+            if (fontChanged) {
+                component.style = null;
+                component.cache = null;
+            }
+        }
+
+        private void readText(CharArray text, ByteBuffer buffer) {
+            int length = buffer.getInt();
+            int start = buffer.position();
+            if (length == text.size) {
+                boolean equal = true;
+                for (int i = 0; i < length; i++) {
+                    if (buffer.getChar() != text.items[i]) {
+                        equal = false;
+                        break;
+                    }
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            text.setLength(0);
+            for (int i = 0; i < length; i++)
+                text.append(buffer.getChar());
+        }
+    }
+
+    /**
+     * Stores the effect by name, a different name drops the live effect. The simulation itself isn't stored, a live
+     * effect keeps running from where it is.
+     */
+    public static class ParticleSerializer implements ComponentSnapshotSerializer<ParticleComponent> {
+        @Override
+        public void write(ParticleComponent component, ByteBuffer buffer) {
+            writeString(component.particleName, buffer);
+            buffer.put((byte) ((component.transform ? 1 : 0) | (component.autoStart ? 2 : 0)));
+            buffer.putFloat(component.worldMultiplier);
+            buffer.putFloat(component.getScaleFactor());
+        }
+
+        @Override
+        public void read(ParticleComponent component, ByteBuffer buffer) {
+            if (!skipString(component.particleName, buffer)) {
+                component.particleName = readString(null, buffer);
+                if (component.particleEffect instanceof ParticleEffectPool.PooledEffect)
+                    ((ParticleEffectPool.PooledEffect) component.particleEffect).free();
+                component.particleEffect = null;
+            }
+            byte flags = buffer.get();
+            component.transform = (flags & 1) != 0;
+            component.autoStart = (flags & 2) != 0;
+            component.worldMultiplier = buffer.getFloat();
+            float scaleFactor = buffer.getFloat();
+            if (component.particleEffect != null && scaleFactor != component.getScaleFactor())
+                component.scaleEffect(scaleFactor);
+        }
+    }
+
+    /**
+     * Stores the animation by name with its frame ranges, regions are loaded again by
+     * {@link games.rednblack.editor.renderer.factory.EntityFactory#restoreTransientComponents(games.rednblack.editor.renderer.ecs.utils.IntBag)}
+     * when the name changes.
+     */
+    public static class SpriteAnimationSerializer implements ComponentSnapshotSerializer<SpriteAnimationComponent> {
+        @Override
+        public void write(SpriteAnimationComponent component, ByteBuffer buffer) {
+            writeString(component.animationName, buffer);
+            buffer.putInt(component.fps);
+            writeString(component.currentAnimation, buffer);
+            buffer.putInt(component.playMode.ordinal());
+
+            buffer.putInt(component.frameRangeMap.size());
+            for (Map.Entry<String, FrameRange> entry : component.frameRangeMap.entrySet()) {
+                FrameRange range = entry.getValue();
+                writeString(entry.getKey(), buffer);
+                writeString(range.name, buffer);
+                buffer.putInt(range.startFrame);
+                buffer.putInt(range.endFrame);
+            }
+        }
+
+        @Override
+        public void read(SpriteAnimationComponent component, ByteBuffer buffer) {
+            component.animationName = readString(component.animationName, buffer);
+            component.fps = buffer.getInt();
+            component.currentAnimation = readString(component.currentAnimation, buffer);
+            component.playMode = Animation.PlayMode.values()[buffer.getInt()];
+
+            int size = buffer.getInt();
+            int start = buffer.position();
+            if (size == component.frameRangeMap.size()) {
+                boolean equal = true;
+                for (Map.Entry<String, FrameRange> entry : component.frameRangeMap.entrySet()) {
+                    FrameRange range = entry.getValue();
+                    if (!skipString(entry.getKey(), buffer) || !skipString(range.name, buffer)) {
+                        equal = false;
+                        break;
+                    }
+                    range.startFrame = buffer.getInt();
+                    range.endFrame = buffer.getInt();
+                }
+                if (equal) return;
+                buffer.position(start);
+            }
+
+            component.frameRangeMap.clear();
+            for (int i = 0; i < size; i++) {
+                String key = readString(null, buffer);
+                String name = readString(null, buffer);
+                component.frameRangeMap.put(key, new FrameRange(name, buffer.getInt(), buffer.getInt()));
+            }
+        }
+    }
+
+    public static class SpriteAnimationStateSerializer implements ComponentSnapshotSerializer<SpriteAnimationStateComponent> {
+        @Override
+        public void write(SpriteAnimationStateComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.time);
+            buffer.put((byte) (component.paused ? 1 : 0));
+        }
+
+        @Override
+        public void read(SpriteAnimationStateComponent component, ByteBuffer buffer) {
+            component.time = buffer.getFloat();
+            component.paused = buffer.get() != 0;
+        }
+    }
+
+    public static void writeRectangle(Rectangle rectangle, ByteBuffer buffer) {
+        buffer.put((byte) (rectangle != null ? 1 : 0));
+        if (rectangle == null) return;
+        buffer.putFloat(rectangle.x);
+        buffer.putFloat(rectangle.y);
+        buffer.putFloat(rectangle.width);
+        buffer.putFloat(rectangle.height);
+    }
+
+    /**
+     * @param rectangle filled when not null
+     * @return the filled rectangle, null if none was written
+     */
+    public static Rectangle readRectangle(Rectangle rectangle, ByteBuffer buffer) {
+        if (buffer.get() == 0) return null;
+        if (rectangle == null) rectangle = new Rectangle();
+        return rectangle.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    public static void writeVector(Vector2 vector, ByteBuffer buffer) {
+        buffer.putFloat(vector.x);
+        buffer.putFloat(vector.y);
+    }
+
+    public static Vector2 readVector(Vector2 vector, ByteBuffer buffer) {
+        return vector.set(buffer.getFloat(), buffer.getFloat());
+    }
+
+    public static void writeIntArray(IntArray array, ByteBuffer buffer) {
+        buffer.putInt(array.size);
+        for (int i = 0, n = array.size; i < n; i++)
+            buffer.putInt(array.items[i]);
+    }
+
+    public static void readIntArray(IntArray array, ByteBuffer buffer) {
+        int size = buffer.getInt();
+        array.clear();
+        array.ensureCapacity(size);
+        for (int i = 0; i < size; i++)
+            array.add(buffer.getInt());
+    }
+
+    public static void writeString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length());
+        for (int i = 0, n = value.length(); i < n; i++)
+            buffer.putChar(value.charAt(i));
+    }
+
+    /**
+     * @param current returned instead of a new string when equal to the stored one
+     */
+    public static String readString(String current, ByteBuffer buffer) {
+        if (skipString(current, buffer)) return current;
+
+        int length = buffer.getInt();
+        if (length == -1) return null;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = buffer.getChar();
+        return new String(chars);
+    }
+
+    /**
+     * Skip the stored string if it's equal to <code>value</code>, leave the buffer position untouched otherwise.
+     */
+    public static boolean skipString(String value, ByteBuffer buffer) {
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length == -1 || value == null || length != value.length()) {
+            if (length == -1 && value == null) return true;
+            buffer.position(start);
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar() != value.charAt(i)) {
+                buffer.position(start);
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,9 +2,11 @@ package games.rednblack.editor.renderer.ecs;
 
 import static games.rednblack.editor.renderer.ecs.Aspect.all;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.badlogic.gdx.utils.LongMap;
 import games.rednblack.editor.renderer.ecs.annotations.SkipWire;
 import games.rednblack.editor.renderer.ecs.utils.Bag;
 import games.rednblack.editor.renderer.ecs.utils.BitVector;
@@ -29,6 +31,19 @@ public class AspectSubscriptionManager extends BaseSystem {
 	private final IntBag changed = new IntBag();
 	private final IntBag deleted = new IntBag();
 
+	// composition id + 1 of every entity as last seen by subscriptions, 0 if not alive
+	private int[] knownIdentities = new int[64];
+
+	// changed and deleted entities grouped by composition transition
+	// keyed by both identities, boxed indices below 128 come from the Integer cache
+	private final LongMap<Integer> transitionIndices = new LongMap<Integer>();
+	private int transitionCount;
+	private int[] transitionFrom = new int[16];
+	private int[] transitionTo = new int[16];
+	private int[] transitionStart = new int[17];
+	private int[] entryTransitions = new int[64];
+	private int[] groupedIds = new int[64];
+
 	protected AspectSubscriptionManager() {
 		subscriptionMap = new HashMap<Aspect.Builder, EntitySubscription>();
 	}
@@ -92,8 +107,112 @@ public class AspectSubscriptionManager extends BaseSystem {
 		// note: processAll != process
 		subscriptions.get(0).processAll(changed, deleted);
 
+		groupByTransition();
 		for (int i = 1, s = subscriptions.size(); s > i; i++) {
-			subscriptions.get(i).process(changed, deleted);
+			process(subscriptions.get(i));
+		}
+
+		updateKnownIdentities();
+	}
+
+	/**
+	 * Only visits entities whose composition transition changes whether the
+	 * subscription is interested, subscriptions unaffected by this round's
+	 * transitions skip every entity.
+	 */
+	private void process(EntitySubscription subscription) {
+		BitVector aspectCache = subscription.aspectCache;
+		for (int t = 0; transitionCount > t; t++) {
+			boolean wasInterested = isInterested(aspectCache, transitionFrom[t]);
+			boolean interested = isInterested(aspectCache, transitionTo[t]);
+			if (wasInterested != interested)
+				subscription.changed(groupedIds, transitionStart[t], transitionStart[t + 1], interested);
+		}
+
+		subscription.informEntityChanges();
+	}
+
+	private static boolean isInterested(BitVector aspectCache, int knownIdentity) {
+		return knownIdentity != 0 && aspectCache.unsafeGet(knownIdentity - 1);
+	}
+
+	private void groupByTransition() {
+		int changedCount = changed.size() / 2;
+		int entryCount = changedCount + deleted.size();
+		if (entryTransitions.length < entryCount) {
+			entryTransitions = new int[Math.max(entryCount, entryTransitions.length * 2)];
+			groupedIds = new int[entryTransitions.length];
+		}
+
+		transitionIndices.clear();
+		transitionCount = 0;
+		transitionStart[0] = 0;
+
+		int[] changedIds = changed.getData();
+		for (int i = 0; changedCount > i; i++) {
+			int id = changedIds[i * 2];
+			entryTransitions[i] = transition(knownIdentity(id), changedIds[i * 2 + 1] + 1);
+		}
+
+		int[] deletedIds = deleted.getData();
+		for (int i = 0, s = deleted.size(); s > i; i++) {
+			entryTransitions[changedCount + i] = transition(knownIdentity(deletedIds[i]), 0);
+		}
+
+		// counting sort by transition, iterating backwards keeps ids ascending within a group
+		for (int t = 0; transitionCount > t; t++) {
+			transitionStart[t + 1] += transitionStart[t];
+		}
+		for (int i = entryCount - 1; i >= 0; i--) {
+			int id = changedCount > i ? changedIds[i * 2] : deletedIds[i - changedCount];
+			groupedIds[--transitionStart[entryTransitions[i] + 1]] = id;
+		}
+		for (int t = 0; transitionCount > t; t++) {
+			transitionStart[t] = transitionStart[t + 1];
+		}
+		transitionStart[transitionCount] = entryCount;
+	}
+
+	private int transition(int from, int to) {
+		long key = ((long) from << 32) | to;
+		Integer index = transitionIndices.get(key);
+		int t;
+		if (index != null) {
+			t = index;
+		} else {
+			t = transitionCount++;
+			if (transitionFrom.length == t) {
+				transitionFrom = Arrays.copyOf(transitionFrom, t * 2);
+				transitionTo = Arrays.copyOf(transitionTo, t * 2);
+				transitionStart = Arrays.copyOf(transitionStart, t * 2 + 1);
+			}
+			transitionIndices.put(key, t);
+			transitionFrom[t] = from;
+			transitionTo[t] = to;
+			transitionStart[t + 1] = 0;
+		}
+		transitionStart[t + 1]++;
+		return t;
+	}
+
+	private int knownIdentity(int entityId) {
+		return knownIdentities.length > entityId ? knownIdentities[entityId] : 0;
+	}
+
+	private void updateKnownIdentities() {
+		int[] changedIds = changed.getData();
+		for (int i = 0, s = changed.size(); s > i; i += 2) {
+			int id = changedIds[i];
+			if (id >= knownIdentities.length)
+				knownIdentities = Arrays.copyOf(knownIdentities, Math.max(id + 1, knownIdentities.length * 2));
+			knownIdentities[id] = changedIds[i + 1] + 1;
+		}
+
+		int[] deletedIds = deleted.getData();
+		for (int i = 0, s = deleted.size(); s > i; i++) {
+			int id = deletedIds[i];
+			if (knownIdentities.length > id)
+				knownIdentities[id] = 0;
 		}
 	}
 
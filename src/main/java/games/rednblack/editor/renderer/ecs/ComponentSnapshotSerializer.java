@@ -0,0 +1,16 @@
+package games.rednblack.editor.renderer.ecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary form of a component type in an {@link EngineSnapshot}.
+ * <p>
+ * {@link #read(Component, ByteBuffer)} receives either the live component of the entity or a freshly created one,
+ * it must consume exactly the bytes written by {@link #write(Component, ByteBuffer)} and should avoid allocating
+ * when the value is unchanged.
+ */
+public interface ComponentSnapshotSerializer<T extends Component> {
+	void write(T component, ByteBuffer buffer);
+
+	void read(T component, ByteBuffer buffer);
+}
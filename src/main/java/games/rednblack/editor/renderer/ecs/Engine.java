@@ -402,6 +402,19 @@ public class Engine {
 	public void process() {
 		invocationStrategy.process();
 
+		purgeDeleted();
+	}
+
+	/**
+	 * Notify subscriptions of pending composition changes and release deleted entities, without processing
+	 * any system. Must not be called while systems are being processed.
+	 */
+	void flush() {
+		batchProcessor.update();
+		purgeDeleted();
+	}
+
+	private void purgeDeleted() {
 		IntBag pendingPurge = batchProcessor.getPendingPurge();
 		if (!pendingPurge.isEmpty()) {
 			cm.clean(pendingPurge);
@@ -0,0 +1,234 @@
+package games.rednblack.editor.renderer.ecs;
+
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import games.rednblack.editor.renderer.ecs.annotations.Transient;
+import games.rednblack.editor.renderer.ecs.utils.Bag;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
+import games.rednblack.editor.renderer.ecs.utils.IntDeque;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary snapshot of every entity, its composition and the id allocator state, meant to be taken every frame for
+ * rollback, replays or instant restart.
+ * <p>
+ * {@link #restore(ByteBuffer)} keeps entity ids: entities created after the snapshot are deleted, deleted ones are
+ * created again with the same id and ids allocated afterwards follow the same order as after {@link #save(ByteBuffer)}.
+ * Every saved component type needs a registered {@link ComponentSnapshotSerializer}, or {@link #registerMarker(Class)}
+ * for types without values: saving or restoring a type with neither throws an {@link IllegalStateException} rather
+ * than bringing it back with default values. Components annotated with {@link Transient} and types passed to
+ * {@link #exclude(Class)} are ignored: they aren't saved, and a restore neither adds nor removes them.
+ * <p>
+ * Registries kept outside the engine, like lookups by id, aren't notified of recreated entities and must be rebuilt
+ * by a {@link RestoreListener}.
+ * <p>
+ * Snapshots refer to component types by index, they can only be restored in the engine that saved them. Both methods
+ * apply pending entity changes first and must be called between two {@link Engine#process()}.
+ */
+public class EngineSnapshot {
+	public static final int MAGIC = 0x48325353;
+	public static final int VERSION = 1;
+
+	private static final ComponentSnapshotSerializer<Component> MARKER = new ComponentSnapshotSerializer<Component>() {
+		@Override
+		public void write(Component component, ByteBuffer buffer) {
+		}
+
+		@Override
+		public void read(Component component, ByteBuffer buffer) {
+		}
+	};
+
+	private final Engine engine;
+	private final ComponentManager cm;
+	private final EntityManager em;
+	private final EntitySubscription allEntities;
+
+	private final Bag<ComponentSnapshotSerializer> serializers = new Bag<ComponentSnapshotSerializer>();
+	private final BitVector inspectedTypes = new BitVector();
+	private final BitVector transientTypes = new BitVector();
+
+	private final BitVector restoredEntities = new BitVector();
+	private final BitVector restoredComposition = new BitVector();
+	private int[] recyclable = new int[0];
+
+	private final Bag<RestoreListener> listeners = new Bag<RestoreListener>();
+
+	public EngineSnapshot(Engine engine) {
+		this.engine = engine;
+		cm = engine.getComponentManager();
+		em = engine.getEntityManager();
+		allEntities = engine.getAspectSubscriptionManager().get(Aspect.all());
+	}
+
+	public <T extends Component> EngineSnapshot register(Class<T> type, ComponentSnapshotSerializer<T> serializer) {
+		serializers.set(cm.getTypeFactory().getTypeFor(type).getIndex(), serializer);
+		return this;
+	}
+
+	/**
+	 * Store only the presence of a component type, e.g. a tag without fields.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Component> EngineSnapshot registerMarker(Class<T> type) {
+		return register(type, (ComponentSnapshotSerializer<T>) MARKER);
+	}
+
+	/**
+	 * Leave a component type out of snapshots, e.g. one backed by native or script state that can't be rebuilt
+	 * from values.
+	 */
+	public <T extends Component> EngineSnapshot exclude(Class<T> type) {
+		int index = cm.getTypeFactory().getTypeFor(type).getIndex();
+		inspectedTypes.set(index);
+		transientTypes.set(index);
+		return this;
+	}
+
+	public EngineSnapshot addRestoreListener(RestoreListener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Write the engine state at the buffer position.
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer is too small
+	 * @throws IllegalStateException if a component type has no serializer and isn't excluded
+	 */
+	@SuppressWarnings("unchecked")
+	public void save(ByteBuffer buffer) {
+		engine.flush();
+
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(cm.getComponentTypes().size());
+
+		buffer.putInt(em.getNextId());
+		IntDeque free = em.getRecyclable();
+		buffer.putInt(free.size());
+		for (int i = 0, s = free.size(); s > i; i++) {
+			buffer.putInt(free.get(i));
+		}
+
+		IntBag entities = allEntities.getEntities();
+		int[] ids = entities.getData();
+		buffer.putInt(entities.size());
+		for (int i = 0, s = entities.size(); s > i; i++) {
+			int entity = ids[i];
+			buffer.putInt(entity);
+
+			int countPosition = buffer.position();
+			buffer.putShort((short) 0);
+
+			short count = 0;
+			BitVector composition = cm.componentBits(entity);
+			for (int type = composition.nextSetBit(0); type >= 0; type = composition.nextSetBit(type + 1)) {
+				if (isTransient(type)) continue;
+
+				buffer.putShort((short) type);
+				serializerFor(type).write(cm.mapperFor(type).get(entity), buffer);
+				count++;
+			}
+			buffer.putShort(countPosition, count);
+		}
+	}
+
+	/**
+	 * Bring the engine back to the state written at the buffer position. Subscriptions are notified before
+	 * returning, as they would be at the end of a frame.
+	 *
+	 * @throws IllegalStateException if a stored component type has no serializer
+	 */
+	@SuppressWarnings("unchecked")
+	public void restore(ByteBuffer buffer) {
+		if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not an engine snapshot.");
+		int version = buffer.getInt();
+		if (version != VERSION) throw new IllegalArgumentException("Unsupported engine snapshot version: " + version);
+		if (buffer.getInt() > cm.getComponentTypes().size())
+			throw new IllegalArgumentException("Snapshot was saved by another engine.");
+
+		engine.flush();
+
+		// Entities alive in the snapshot are the allocated ids that aren't waiting to be recycled
+		int nextId = buffer.getInt();
+		int recyclableCount = buffer.getInt();
+		if (recyclable.length < recyclableCount) recyclable = new int[recyclableCount];
+
+		restoredEntities.clear();
+		if (nextId > 0) restoredEntities.set(nextId - 1);
+		for (int id = 0; nextId > id; id++) {
+			restoredEntities.unsafeSet(id);
+		}
+		for (int i = 0; recyclableCount > i; i++) {
+			recyclable[i] = buffer.getInt();
+			restoredEntities.unsafeClear(recyclable[i]);
+		}
+
+		BitVector active = allEntities.getActiveEntityIds();
+		for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+			if (!restoredEntities.get(id)) engine.delete(id);
+		}
+		engine.flush();
+
+		em.restoreState(nextId, recyclable, recyclableCount);
+		for (int id = restoredEntities.nextSetBit(0); id >= 0; id = restoredEntities.nextSetBit(id + 1)) {
+			if (!active.get(id)) engine.batchProcessor.changed.unsafeSet(id);
+		}
+
+		int entityCount = buffer.getInt();
+		for (int i = 0; entityCount > i; i++) {
+			int entity = buffer.getInt();
+			int count = buffer.getShort();
+
+			BitVector composition = cm.componentBits(entity);
+			restoredComposition.clear();
+			for (int c = 0; count > c; c++) {
+				int type = buffer.getShort();
+				restoredComposition.set(type);
+
+				ComponentSnapshotSerializer serializer = serializerFor(type);
+				serializer.read(cm.mapperFor(type).create(entity), buffer);
+			}
+
+			// Composition bits belong to the previous identity and aren't changed by the edits above
+			for (int type = composition.nextSetBit(0); type >= 0; type = composition.nextSetBit(type + 1)) {
+				if (!restoredComposition.get(type) && !isTransient(type)) cm.mapperFor(type).remove(entity);
+			}
+		}
+
+		engine.flush();
+
+		IntBag entities = allEntities.getEntities();
+		for (int i = 0, s = listeners.size(); s > i; i++) {
+			listeners.get(i).restored(entities);
+		}
+	}
+
+	private ComponentSnapshotSerializer serializerFor(int type) {
+		ComponentSnapshotSerializer serializer = serializers.safeGet(type);
+		if (serializer == null) {
+			Class<? extends Component> c = cm.getTypeFactory().getTypeFor(type).getType();
+			throw new IllegalStateException("No snapshot serializer for " + c.getName()
+					+ ", register one or exclude the type.");
+		}
+		return serializer;
+	}
+
+	private boolean isTransient(int type) {
+		if (!inspectedTypes.get(type)) {
+			inspectedTypes.set(type);
+			Class<? extends Component> c = cm.getTypeFactory().getTypeFor(type).getType();
+			if (ClassReflection.getAnnotation(c, Transient.class) != null) transientTypes.set(type);
+		}
+		return transientTypes.get(type);
+	}
+
+	/**
+	 * Notified at the end of {@link #restore(ByteBuffer)} with every entity alive in the restored state.
+	 */
+	public interface RestoreListener {
+		void restored(IntBag entities);
+	}
+}
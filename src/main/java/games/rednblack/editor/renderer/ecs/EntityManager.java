@@ -129,6 +129,38 @@ public class EntityManager extends BaseSystem {
 		return true;
 	}
 
+	/**
+	 * @return id of the next entity created when no id is waiting to be recycled
+	 */
+	int getNextId() {
+		return nextId;
+	}
+
+	/**
+	 * @return ids waiting to be recycled, in reuse order
+	 */
+	IntDeque getRecyclable() {
+		return limbo;
+	}
+
+	/**
+	 * Replace the id allocator state, used by {@link EngineSnapshot}. Every id below {@code nextId} that isn't
+	 * listed in {@code recyclable} becomes active, the caller is responsible for their components.
+	 */
+	void restoreState(int nextId, int[] recyclable, int recyclableCount) {
+		while (this.nextId < nextId) {
+			createEntity(this.nextId++);
+		}
+		this.nextId = nextId;
+
+		limbo.clear();
+		recycled.clear();
+		for (int i = 0; i < recyclableCount; i++) {
+			limbo.add(recyclable[i]);
+			recycled.unsafeSet(recyclable[i]);
+		}
+	}
+
 	/**
 	 * Instantiates an Entity without registering it into the engine.
 	 * @param id The ID to be set on the Entity
@@ -118,13 +118,6 @@ public class EntitySubscription {
         insertedIds.unsafeSet(entityId);
     }
 
-    void process(IntBag changed, IntBag deleted) {
-        deleted(deleted);
-        changed(changed);
-
-        informEntityChanges();
-    }
-
     void processAll(IntBag changed, IntBag deleted) {
         deletedAll(deleted);
         changed(changed);
@@ -137,8 +130,55 @@ public class EntitySubscription {
             return;
 
         transferBitsToInts(extra.inserted, extra.removed);
+        if (!entities.isEmpty())
+            mergeCompressedActives(extra.removed, extra.inserted);
         extra.informEntityChanges();
-        entities.setSize(0);
+    }
+
+    /**
+     * Keep the sorted entity list in sync without rescanning {@link #activeEntityIds}.
+     * Both bags are sorted, inserted ids are never in the list already.
+     */
+    private void mergeCompressedActives(IntBag removed, IntBag inserted) {
+        int[] data = entities.getData();
+        int size = entities.size();
+
+        if (!removed.isEmpty()) {
+            int[] removedIds = removed.getData();
+            int r = 0, removedSize = removed.size(), write = 0;
+            for (int i = 0; size > i; i++) {
+                int id = data[i];
+                while (removedSize > r && id > removedIds[r])
+                    r++;
+
+                if (removedSize > r && removedIds[r] == id) {
+                    r++;
+                } else {
+                    data[write++] = id;
+                }
+            }
+            size = write;
+        }
+
+        if (!inserted.isEmpty()) {
+            int[] insertedIds = inserted.getData();
+            int insertedSize = inserted.size();
+            entities.ensureCapacity(size + insertedSize - 1);
+            data = entities.getData();
+
+            // merging from the back, existing ids only move towards the end
+            int i = size - 1, j = insertedSize - 1;
+            for (int write = size + insertedSize - 1; j >= 0; write--) {
+                if (i >= 0 && data[i] > insertedIds[j]) {
+                    data[write] = data[i--];
+                } else {
+                    data[write] = insertedIds[j--];
+                }
+            }
+            size += insertedSize;
+        }
+
+        entities.setSize(size);
     }
 
     private void transferBitsToInts(IntBag inserted, IntBag removed) {
@@ -163,12 +203,23 @@ public class EntitySubscription {
         }
     }
 
-    private void deleted(IntBag entities) {
-        int[] ids = entities.getData();
-        for (int i = 0, s = entities.size(); s > i; i++) {
+    /**
+     * Match entities sharing the same composition transition, when it changes
+     * whether this subscription is interested in them.
+     *
+     * @param ids entities to update, from <code>start</code> to <code>end</code>
+     * @param interested whether the new composition matches the aspect
+     */
+    void changed(int[] ids, int start, int end, boolean interested) {
+        for (int i = start; end > i; i++) {
             int id = ids[i];
-            if (activeEntityIds.unsafeGet(id))
+            boolean contains = activeEntityIds.unsafeGet(id);
+
+            if (interested && !contains) {
+                insert(id);
+            } else if (!interested && contains) {
                 remove(id);
+            }
         }
     }
 
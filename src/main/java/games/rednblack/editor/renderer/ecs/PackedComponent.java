@@ -0,0 +1,29 @@
+package games.rednblack.editor.renderer.ecs;
+
+/**
+ * Flyweight view over the fields of one entity in a {@link PackedComponentMapper}.
+ *
+ * Subclasses expose named accessors on top of {@link #get(int)} and {@link #set(int, float)}, the same instance is
+ * moved from entity to entity by the mapper and must not be retained.
+ */
+public abstract class PackedComponent {
+	float[] data;
+	int offset;
+	int entityId;
+
+	/** @return number of float fields per entity. */
+	protected abstract int getStride();
+
+	protected final float get(int field) {
+		return data[offset + field];
+	}
+
+	protected final void set(int field, float value) {
+		data[offset + field] = value;
+	}
+
+	/** @return entity this flyweight currently points to. */
+	public int getEntityId() {
+		return entityId;
+	}
+}
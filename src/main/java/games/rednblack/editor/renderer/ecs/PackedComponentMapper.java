@@ -0,0 +1,101 @@
+package games.rednblack.editor.renderer.ecs;
+
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+
+/**
+ * Struct-of-arrays storage for hot float data, an opt-in alternative to {@link ComponentMapper} when a pass reads a
+ * few fields of many entities.
+ *
+ * The fields of every entity live in one contiguous <code>float[]</code>, laid out by entity id, so passes over
+ * ascending ids stream through memory instead of chasing component objects. Packed data isn't part of the entity
+ * composition: owners create it and remove it themselves, usually from their system's inserted and removed callbacks.
+ *
+ * @param <P> flyweight type returned by {@link #get(int)}
+ */
+public class PackedComponentMapper<P extends PackedComponent> {
+	private final P flyweight;
+	private final int stride;
+	private final BitVector present = new BitVector();
+	private float[] data;
+
+	public PackedComponentMapper(P flyweight) {
+		this(flyweight, 64);
+	}
+
+	public PackedComponentMapper(P flyweight, int initialEntityCapacity) {
+		this.flyweight = flyweight;
+		this.stride = flyweight.getStride();
+		data = new float[Math.max(1, initialEntityCapacity) * stride];
+		flyweight.data = data;
+	}
+
+	/**
+	 * Point the flyweight to an entity, without checking whether it has packed data.
+	 *
+	 * @return the shared flyweight
+	 */
+	public P get(int entityId) {
+		flyweight.entityId = entityId;
+		flyweight.offset = entityId * stride;
+		return flyweight;
+	}
+
+	/**
+	 * Add packed data to an entity, zeroing its fields if it had none.
+	 *
+	 * @return the shared flyweight pointing to the entity
+	 */
+	public P create(int entityId) {
+		ensureCapacity(entityId);
+		if (!present.get(entityId)) {
+			present.set(entityId);
+			int offset = entityId * stride;
+			for (int i = 0; stride > i; i++)
+				data[offset + i] = 0;
+		}
+		return get(entityId);
+	}
+
+	public boolean has(int entityId) {
+		return present.get(entityId);
+	}
+
+	public void remove(int entityId) {
+		present.clear(entityId);
+	}
+
+	public float get(int entityId, int field) {
+		return data[entityId * stride + field];
+	}
+
+	public void set(int entityId, int field, float value) {
+		data[entityId * stride + field] = value;
+	}
+
+	/**
+	 * Backing array for linear passes, field <code>f</code> of entity <code>e</code> is at
+	 * <code>e * getStride() + f</code>. Replaced when the storage grows.
+	 */
+	public float[] getData() {
+		return data;
+	}
+
+	public int getStride() {
+		return stride;
+	}
+
+	/** @return entities with packed data, don't modify. */
+	public BitVector getEntities() {
+		return present;
+	}
+
+	private void ensureCapacity(int entityId) {
+		int required = (entityId + 1) * stride;
+		if (required <= data.length) return;
+
+		float[] grown = new float[Math.max(required, data.length * 2)];
+		System.arraycopy(data, 0, grown, 0, data.length);
+		data = grown;
+		flyweight.data = grown;
+	}
+}
@@ -0,0 +1,138 @@
+package games.rednblack.editor.renderer.ecs.systems.parallel;
+
+import games.rednblack.editor.renderer.ecs.Aspect;
+import games.rednblack.editor.renderer.ecs.BaseEntitySystem;
+import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel counterpart of {@link IteratingSystem}, splits the subscribed entities in chunks processed on a
+ * work-stealing {@link ForkJoinPool}.
+ *
+ * Contract for {@link #process(int)}:
+ * <ul>
+ *     <li>it's called concurrently, only the processed entity's components and thread-safe state may be modified</li>
+ *     <li>structural changes (creating or deleting entities, adding or removing components) must go through
+ *     {@link #defer(Runnable)} or {@link #deferDelete(int)}, they are applied in submission order per thread
+ *     on the calling thread once every chunk is done, before {@link #end()}</li>
+ * </ul>
+ * Small subscriptions, up to one chunk, are processed sequentially on the calling thread.
+ *
+ * Not available on GWT.
+ */
+public abstract class ParallelIteratingSystem extends BaseEntitySystem {
+	public static final int DEFAULT_CHUNK_SIZE = 256;
+
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private final ConcurrentLinkedQueue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates a new ParallelIteratingSystem.
+	 *
+	 * @param aspect
+	 *			the aspect to match entities
+	 */
+	public ParallelIteratingSystem(Aspect.Builder aspect) {
+		super(aspect);
+	}
+
+	public ParallelIteratingSystem() {
+	}
+
+	/**
+	 * Process a entity this system is interested in, may run on any pool thread.
+	 *
+	 * @param entityId
+	 *			the entity to process
+	 */
+	protected abstract void process(int entityId);
+
+	@Override
+	protected final void processSystem() {
+		IntBag actives = subscription.getEntities();
+		int[] ids = actives.getData();
+		int size = actives.size();
+
+		if (size <= chunkSize) {
+			for (int i = 0; size > i; i++) {
+				process(ids[i]);
+			}
+		} else {
+			pool.invoke(new ChunkTask(ids, 0, size));
+		}
+
+		applyDeferred();
+	}
+
+	/**
+	 * Queue a structural change, applied on the calling thread after every chunk is processed.
+	 */
+	protected void defer(Runnable change) {
+		deferred.add(change);
+	}
+
+	/**
+	 * Queue the deletion of an entity, applied after every chunk is processed.
+	 */
+	protected void deferDelete(final int entityId) {
+		deferred.add(() -> engine.delete(entityId));
+	}
+
+	private void applyDeferred() {
+		Runnable change;
+		while ((change = deferred.poll()) != null) {
+			change.run();
+		}
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public void setPool(ForkJoinPool pool) {
+		if (pool == null) throw new NullPointerException("pool");
+		this.pool = pool;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Number of entities processed by a single task, lower values balance better but cost more scheduling.
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be >= 1.");
+		this.chunkSize = chunkSize;
+	}
+
+	private class ChunkTask extends RecursiveAction {
+		private final int[] ids;
+		private final int from, to;
+
+		ChunkTask(int[] ids, int from, int to) {
+			this.ids = ids;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunkSize) {
+				for (int i = from; to > i; i++) {
+					process(ids[i]);
+				}
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new ChunkTask(ids, from, mid), new ChunkTask(ids, mid, to));
+		}
+	}
+}
@@ -0,0 +1,467 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import games.rednblack.editor.renderer.data.GraphConnectionVO;
+import games.rednblack.editor.renderer.data.GraphNodeVO;
+import games.rednblack.editor.renderer.data.GraphVO;
+import games.rednblack.editor.renderer.systems.action.ActionEventListener;
+import games.rednblack.editor.renderer.systems.action.ActionRunnable;
+import games.rednblack.editor.renderer.systems.action.Actions;
+import games.rednblack.editor.renderer.systems.action.data.*;
+import games.rednblack.editor.renderer.utils.InterpolationMap;
+
+import java.util.*;
+
+/**
+ * Library action graph compiled into a flat program.
+ * <p>
+ * Every action node becomes an instruction, stored in pre-order: an opcode, the number of sub actions following it
+ * and a range of parameter setters. Setters are resolved for the node's data type at compile time and read either a
+ * constant parsed once or an argument slot, custom parameters are bound by slot index with
+ * {@link #getParameterSlot(String)}.
+ * <p>
+ * {@link #instantiate(boolean, Object[], ActionEventListener)} walks the program obtaining data from the action pools,
+ * with auto poolable data and the same listener spawning an action allocates nothing in steady state. Not thread safe.
+ */
+public class ActionProgram {
+
+    // Action opcodes
+    static final int ALPHA = 0;
+    static final int COLOR = 1;
+    static final int DELAY = 2;
+    static final int FADE_IN = 3;
+    static final int FADE_OUT = 4;
+    static final int FOREVER = 5;
+    static final int MOVE_BY = 6;
+    static final int MOVE_TO = 7;
+    static final int PARALLEL = 8;
+    static final int REPEAT = 9;
+    static final int ROTATE_BY = 10;
+    static final int ROTATE_TO = 11;
+    static final int SCALE_BY = 12;
+    static final int SEQUENCE = 13;
+    static final int SIZE_BY = 14;
+    static final int SIZE_TO = 15;
+    static final int SCALE_TO = 16;
+    static final int EVENT = 17;
+
+    // Parameter setters
+    static final int SET_DURATION = 0;
+    static final int SET_INTERPOLATION = 1;
+    static final int SET_MOVE_TO = 2;
+    static final int SET_MOVE_BY = 3;
+    static final int SET_ROTATE_TO = 4;
+    static final int SET_ROTATE_BY = 5;
+    static final int SET_SIZE_TO = 6;
+    static final int SET_SIZE_BY = 7;
+    static final int SET_SCALE_TO = 8;
+    static final int SET_SCALE_BY = 9;
+    static final int SET_COLOR = 10;
+    static final int SET_ALPHA = 11;
+    static final int SET_DELAY = 12;
+    static final int SET_REPEAT_COUNT = 13;
+
+    private static final ObjectMap<String, Integer> opcodes = new ObjectMap<>();
+
+    static {
+        opcodes.put("AlphaAction", ALPHA);
+        opcodes.put("ColorAction", COLOR);
+        opcodes.put("DelayAction", DELAY);
+        opcodes.put("FadeInAction", FADE_IN);
+        opcodes.put("FadeOutAction", FADE_OUT);
+        opcodes.put("ForeverAction", FOREVER);
+        opcodes.put("MoveByAction", MOVE_BY);
+        opcodes.put("MoveToAction", MOVE_TO);
+        opcodes.put("ParallelAction", PARALLEL);
+        opcodes.put("RepeatAction", REPEAT);
+        opcodes.put("RotateByAction", ROTATE_BY);
+        opcodes.put("RotateToAction", ROTATE_TO);
+        opcodes.put("ScaleByAction", SCALE_BY);
+        opcodes.put("SequenceAction", SEQUENCE);
+        opcodes.put("SizeByAction", SIZE_BY);
+        opcodes.put("SizeToAction", SIZE_TO);
+        opcodes.put("ScaleToAction", SCALE_TO);
+        opcodes.put("EventAction", EVENT);
+    }
+
+    private final int[] code;
+    private final int[] childCount;
+    /** Setters of an instruction are in [paramStart, paramEnd), after the ones of its sub actions */
+    private final int[] paramStart;
+    private final int[] paramEnd;
+    private final int[] paramSetter;
+    /** Index in {@link #constants}, or -(slot + 1) for an argument */
+    private final int[] paramSource;
+    private final Object[] constants;
+    private final String[] eventNames;
+    private final String[] slotNames;
+
+    private final ActionEventListener[] eventListeners;
+    private final ActionRunnable[] eventRunnables;
+    private final Object[] mappedArguments;
+    private int pc;
+
+    private ActionProgram(Compiler compiler) {
+        code = compiler.code.toArray();
+        childCount = compiler.childCount.toArray();
+        paramStart = compiler.paramStart.toArray();
+        paramEnd = compiler.paramEnd.toArray();
+        paramSetter = compiler.paramSetter.toArray();
+        paramSource = compiler.paramSource.toArray();
+        constants = compiler.constants.toArray();
+        eventNames = compiler.eventNames.toArray(String.class);
+        slotNames = compiler.slotNames.toArray(String.class);
+
+        eventListeners = new ActionEventListener[code.length];
+        eventRunnables = new ActionRunnable[code.length];
+        mappedArguments = new Object[slotNames.length];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the graph isn't valid
+     */
+    public static ActionProgram compile(GraphVO graph) {
+        return new Compiler(graph).compile();
+    }
+
+    /**
+     * @return slot of a custom parameter, -1 if the action doesn't use it
+     */
+    public int getParameterSlot(String name) {
+        for (int i = 0; i < slotNames.length; i++) {
+            if (slotNames[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    public int getParameterCount() {
+        return slotNames.length;
+    }
+
+    public String getParameterName(int slot) {
+        return slotNames[slot];
+    }
+
+    /**
+     * Bind custom parameters by name, the returned array is reused by the next call.
+     */
+    public Object[] mapArguments(ObjectMap<String, Object> params) {
+        for (int i = 0; i < slotNames.length; i++) {
+            mappedArguments[i] = params != null ? params.get(slotNames[i]) : null;
+        }
+        return mappedArguments;
+    }
+
+    /**
+     * @param arguments custom parameters indexed by slot, may be null when the action has none
+     */
+    public ActionData instantiate(boolean autoPoolable, Object[] arguments, ActionEventListener listener) {
+        pc = 0;
+        return next(autoPoolable, arguments, listener);
+    }
+
+    private ActionData next(boolean autoPoolable, Object[] arguments, ActionEventListener listener) {
+        int instruction = pc++;
+        int opcode = code[instruction];
+        ActionData actionData = obtain(opcode, autoPoolable);
+
+        for (int i = 0, n = childCount[instruction]; i < n; i++) {
+            ActionData subAction = next(autoPoolable, arguments, listener);
+            if (actionData instanceof DelegateData) {
+                ((DelegateData) actionData).setDelegatedAction(subAction);
+            } else if (actionData instanceof ParallelData) {
+                ((ParallelData) actionData).actionsData.add(subAction);
+            }
+        }
+
+        for (int p = paramStart[instruction], end = paramEnd[instruction]; p < end; p++) {
+            int source = paramSource[p];
+            Object value;
+            if (source >= 0) {
+                value = constants[source];
+            } else {
+                int slot = -source - 1;
+                value = arguments != null ? arguments[slot] : null;
+                if (value == null)
+                    throw new IllegalArgumentException("Custom parameter '" + slotNames[slot] + "' not found.");
+            }
+            set(actionData, paramSetter[p], value);
+        }
+
+        if (opcode == EVENT && listener != null)
+            ((RunnableData) actionData).setRunnable(eventRunnable(instruction, listener));
+
+        return actionData;
+    }
+
+    private ActionRunnable eventRunnable(int instruction, final ActionEventListener listener) {
+        if (eventListeners[instruction] != listener) {
+            final String eventName = eventNames[instruction];
+            eventListeners[instruction] = listener;
+            eventRunnables[instruction] = new ActionRunnable() {
+                @Override
+                public void run(int entity) {
+                    listener.onActionEvent(entity, eventName);
+                }
+            };
+        }
+        return eventRunnables[instruction];
+    }
+
+    private static ActionData obtain(int opcode, boolean autoPoolable) {
+        switch (opcode) {
+            case ALPHA:
+                return Actions.actionData(AlphaData.class, autoPoolable);
+            case COLOR:
+                return Actions.actionData(ColorData.class, autoPoolable);
+            case DELAY:
+                return Actions.actionData(DelayData.class, autoPoolable);
+            case FADE_IN:
+                AlphaData fadeIn = Actions.actionData(AlphaData.class, autoPoolable);
+                fadeIn.setEnd(1);
+                return fadeIn;
+            case FADE_OUT:
+                AlphaData fadeOut = Actions.actionData(AlphaData.class, autoPoolable);
+                fadeOut.setEnd(0);
+                return fadeOut;
+            case FOREVER:
+                RepeatData forever = Actions.actionData(RepeatData.class, autoPoolable);
+                forever.setRepeatCount(RepeatData.FOREVER);
+                return forever;
+            case MOVE_BY:
+                return Actions.actionData(MoveByData.class, autoPoolable);
+            case MOVE_TO:
+                return Actions.actionData(MoveToData.class, autoPoolable);
+            case PARALLEL:
+                return Actions.actionData(ParallelData.class, autoPoolable);
+            case REPEAT:
+                return Actions.actionData(RepeatData.class, autoPoolable);
+            case ROTATE_BY:
+                return Actions.actionData(RotateByData.class, autoPoolable);
+            case ROTATE_TO:
+                return Actions.actionData(RotateToData.class, autoPoolable);
+            case SCALE_BY:
+                return Actions.actionData(ScaleByData.class, autoPoolable);
+            case SEQUENCE:
+                return Actions.actionData(SequenceData.class, autoPoolable);
+            case SIZE_BY:
+                return Actions.actionData(SizeByData.class, autoPoolable);
+            case SIZE_TO:
+                return Actions.actionData(SizeToData.class, autoPoolable);
+            case SCALE_TO:
+                return Actions.actionData(ScaleToData.class, autoPoolable);
+            case EVENT:
+                return Actions.actionData(RunnableData.class, autoPoolable);
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+    }
+
+    private static void set(ActionData actionData, int setter, Object value) {
+        switch (setter) {
+            case SET_DURATION:
+                ((TemporalData) actionData).setDuration((Float) value);
+                break;
+            case SET_INTERPOLATION:
+                ((TemporalData) actionData).setInterpolation((Interpolation) value);
+                break;
+            case SET_MOVE_TO:
+                ((MoveToData) actionData).setEndX(((Vector2) value).x);
+                ((MoveToData) actionData).setEndY(((Vector2) value).y);
+                break;
+            case SET_MOVE_BY:
+                ((MoveByData) actionData).setAmountX(((Vector2) value).x);
+                ((MoveByData) actionData).setAmountY(((Vector2) value).y);
+                break;
+            case SET_ROTATE_TO:
+                ((RotateToData) actionData).setEnd((Float) value);
+                break;
+            case SET_ROTATE_BY:
+                ((RotateByData) actionData).setAmount((Float) value);
+                break;
+            case SET_SIZE_TO:
+                ((SizeToData) actionData).setEndWidth(((Vector2) value).x);
+                ((SizeToData) actionData).setEndHeight(((Vector2) value).y);
+                break;
+            case SET_SIZE_BY:
+                ((SizeByData) actionData).setAmountWidth(((Vector2) value).x);
+                ((SizeByData) actionData).setAmountHeight(((Vector2) value).y);
+                break;
+            case SET_SCALE_TO:
+                ((ScaleToData) actionData).setEndX(((Vector2) value).x);
+                ((ScaleToData) actionData).setEndY(((Vector2) value).y);
+                break;
+            case SET_SCALE_BY:
+                ((ScaleByData) actionData).setAmountX(((Vector2) value).x);
+                ((ScaleByData) actionData).setAmountY(((Vector2) value).y);
+                break;
+            case SET_COLOR:
+                ((ColorData) actionData).setEndColor((Color) value);
+                break;
+            case SET_ALPHA:
+                ((AlphaData) actionData).setEnd((Float) value);
+                break;
+            case SET_DELAY:
+                ((DelayData) actionData).setDuration((Float) value);
+                break;
+            case SET_REPEAT_COUNT:
+                ((RepeatData) actionData).setRepeatCount((int) (float) (Float) value);
+                break;
+        }
+    }
+
+    private static class Compiler {
+        final IntArray code = new IntArray();
+        final IntArray childCount = new IntArray();
+        final IntArray paramStart = new IntArray();
+        final IntArray paramEnd = new IntArray();
+        final IntArray paramSetter = new IntArray();
+        final IntArray paramSource = new IntArray();
+        final Array<Object> constants = new Array<>();
+        final Array<String> eventNames = new Array<>();
+        final Array<String> slotNames = new Array<>();
+
+        final Map<String, List<GraphConnectionVO>> toNodeConnections = new HashMap<>();
+        final Map<String, GraphNodeVO> nodes = new HashMap<>();
+        GraphNodeVO rootNode;
+
+        Compiler(GraphVO graph) {
+            for (GraphNodeVO node : graph.nodes) {
+                toNodeConnections.put(node.id, new ArrayList<GraphConnectionVO>());
+                nodes.put(node.id, node);
+            }
+
+            for (GraphConnectionVO connection : graph.connections) {
+                toNodeConnections.get(connection.toNode).add(connection);
+                if (connection.toNode.equals("end") && connection.toField.equals("action"))
+                    rootNode = nodes.get(connection.fromNode);
+            }
+            for (List<GraphConnectionVO> connections : toNodeConnections.values()) {
+                Collections.sort(connections);
+            }
+        }
+
+        ActionProgram compile() {
+            if (rootNode == null) throw new IllegalArgumentException("Missing end action.");
+            emit(rootNode);
+            return new ActionProgram(this);
+        }
+
+        private void emit(GraphNodeVO node) {
+            Integer opcode = opcodes.get(node.type);
+            if (opcode == null) throw new IllegalArgumentException("Unknown action '" + node.type + "'.");
+
+            int instruction = code.size;
+            code.add(opcode);
+            childCount.add(0);
+            paramStart.add(0);
+            paramEnd.add(0);
+            eventNames.add(opcode == EVENT ? node.data.get("v") : null);
+
+            List<GraphConnectionVO> connections = toNodeConnections.get(node.id);
+            int children = 0;
+            for (GraphConnectionVO connection : connections) {
+                if (connection.toField.contains("action")) {
+                    emit(nodes.get(connection.fromNode));
+                    children++;
+                }
+            }
+            childCount.set(instruction, children);
+
+            // Sub actions are emitted first, the setters of this instruction follow theirs
+            paramStart.set(instruction, paramSetter.size);
+            for (GraphConnectionVO connection : connections) {
+                int setter = setterFor(opcode, connection.toField);
+                if (setter == -1) continue;
+
+                paramSetter.add(setter);
+                paramSource.add(source(nodes.get(connection.fromNode)));
+            }
+            paramEnd.set(instruction, paramSetter.size);
+        }
+
+        private int source(GraphNodeVO node) {
+            if (node.type.equals("ValueParam")) {
+                String name = node.data.get("v");
+                int slot = slotNames.indexOf(name, false);
+                if (slot == -1) {
+                    slot = slotNames.size;
+                    slotNames.add(name);
+                }
+                return -(slot + 1);
+            }
+
+            constants.add(constant(node));
+            return constants.size - 1;
+        }
+
+        private Object constant(GraphNodeVO node) {
+            switch (node.type) {
+                case "ValueBoolean":
+                    return node.data.get("v") != null;
+                case "ValueColor":
+                    return Color.valueOf(node.data.get("color"));
+                case "ValueFloat":
+                    return Float.parseFloat(node.data.get("v1"));
+                case "ValueVector2":
+                    return new Vector2(Float.parseFloat(node.data.get("v1")), Float.parseFloat(node.data.get("v2")));
+                case "ValueInterpolation":
+                    return InterpolationMap.map.get(node.data.get("interpolation"));
+                default:
+                    return null;
+            }
+        }
+
+        private static int setterFor(int opcode, String field) {
+            switch (field) {
+                case "duration":
+                    return isTemporal(opcode) ? SET_DURATION : -1;
+                case "interpolation":
+                    return isTemporal(opcode) ? SET_INTERPOLATION : -1;
+                case "position":
+                    return opcode == MOVE_TO ? SET_MOVE_TO : opcode == MOVE_BY ? SET_MOVE_BY : -1;
+                case "degree":
+                    return opcode == ROTATE_TO ? SET_ROTATE_TO : opcode == ROTATE_BY ? SET_ROTATE_BY : -1;
+                case "size":
+                    return opcode == SIZE_TO ? SET_SIZE_TO : opcode == SIZE_BY ? SET_SIZE_BY : -1;
+                case "scale":
+                    return opcode == SCALE_TO ? SET_SCALE_TO : opcode == SCALE_BY ? SET_SCALE_BY : -1;
+                case "color":
+                    return opcode == COLOR ? SET_COLOR : -1;
+                case "alpha":
+                    return opcode == ALPHA || opcode == FADE_IN || opcode == FADE_OUT ? SET_ALPHA : -1;
+                case "delay":
+                    return opcode == DELAY ? SET_DELAY : -1;
+                case "count":
+                    return opcode == REPEAT || opcode == FOREVER ? SET_REPEAT_COUNT : -1;
+                default:
+                    return -1;
+            }
+        }
+
+        private static boolean isTemporal(int opcode) {
+            switch (opcode) {
+                case ALPHA:
+                case COLOR:
+                case FADE_IN:
+                case FADE_OUT:
+                case MOVE_BY:
+                case MOVE_TO:
+                case ROTATE_BY:
+                case ROTATE_TO:
+                case SCALE_BY:
+                case SCALE_TO:
+                case SIZE_BY:
+                case SIZE_TO:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+}
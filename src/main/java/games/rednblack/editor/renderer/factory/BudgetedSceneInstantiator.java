@@ -0,0 +1,169 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BinaryHeap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+
+/**
+ * Creates the children of a composite over several frames, spending at most a time budget per {@link #update()}.
+ * <p>
+ * Items nearest to the camera are created first. Children of a composite are queued once the composite entity exists,
+ * their priority uses the position accumulated from their ancestors, ignoring rotation and scale. Every update creates
+ * at least one item so loading always progresses.
+ * <p>
+ * Runs on the calling thread, call {@link #update()} once per frame before processing the engine.
+ */
+public class BudgetedSceneInstantiator {
+
+    public static final long DEFAULT_BUDGET_MICROS = 4000;
+
+    public interface Listener {
+        /**
+         * @param progress created items over total items, in [0, 1]
+         */
+        void onProgress(float progress);
+
+        void onComplete(int root);
+    }
+
+    private final EntityFactory entityFactory;
+    private final int root;
+    private final Camera camera;
+    private final Listener listener;
+    private long budgetNanos;
+
+    private final BinaryHeap<PendingItem> queue = new BinaryHeap<>();
+    private final Pool<PendingItem> pendingPool = new Pool<PendingItem>() {
+        @Override
+        protected PendingItem newObject() {
+            return new PendingItem();
+        }
+    };
+
+    private final int totalItems;
+    private int createdItems;
+    private int sequence;
+    private boolean completed;
+
+    /**
+     * @param camera used to prioritize items, null to create in scene order
+     * @param listener notified after every update and on completion, may be null
+     */
+    public BudgetedSceneInstantiator(EntityFactory entityFactory, int root, CompositeItemVO vo, Camera camera, Listener listener) {
+        this.entityFactory = entityFactory;
+        this.root = root;
+        this.camera = camera;
+        this.listener = listener;
+        setBudgetMicros(DEFAULT_BUDGET_MICROS);
+
+        totalItems = vo.getAllItems().size;
+        enqueueChildren(root, vo, 0, 0);
+    }
+
+    /**
+     * Create items until the budget is spent.
+     *
+     * @return true when every item has been created
+     */
+    public boolean update() {
+        if (completed) return true;
+
+        long start = TimeUtils.nanoTime();
+        do {
+            if (queue.size == 0) break;
+
+            PendingItem item = queue.pop();
+            int entity = entityFactory.createEntity(item.parent, item.vo);
+            if (item.vo instanceof CompositeItemVO)
+                enqueueChildren(entity, (CompositeItemVO) item.vo, item.x, item.y);
+            pendingPool.free(item);
+            createdItems++;
+        } while (TimeUtils.nanoTime() - start < budgetNanos);
+
+        if (listener != null) listener.onProgress(getProgress());
+
+        if (queue.size == 0) {
+            completed = true;
+            if (listener != null) listener.onComplete(root);
+        }
+        return completed;
+    }
+
+    /**
+     * Create every remaining item now.
+     */
+    public void finish() {
+        long budget = budgetNanos;
+        budgetNanos = Long.MAX_VALUE;
+        update();
+        budgetNanos = budget;
+    }
+
+    /**
+     * Drop every remaining item, the listener isn't notified.
+     */
+    public void cancel() {
+        while (queue.size > 0) {
+            pendingPool.free(queue.pop());
+        }
+        completed = true;
+    }
+
+    private void enqueueChildren(int parent, CompositeItemVO vo, float parentX, float parentY) {
+        for (Array<MainItemVO> items : vo.content.values()) {
+            for (int i = 0; i < items.size; i++) {
+                MainItemVO child = items.get(i);
+                PendingItem item = pendingPool.obtain();
+                item.parent = parent;
+                item.vo = child;
+                item.x = parentX + child.x;
+                item.y = parentY + child.y;
+                queue.add(item, priorityOf(item));
+            }
+        }
+    }
+
+    private float priorityOf(PendingItem item) {
+        if (camera == null) return sequence++;
+
+        float dx = item.x - camera.position.x;
+        float dy = item.y - camera.position.y;
+        return dx * dx + dy * dy;
+    }
+
+    public float getProgress() {
+        return totalItems == 0 ? 1 : (float) createdItems / totalItems;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getRoot() {
+        return root;
+    }
+
+    public void setBudgetMicros(long budgetMicros) {
+        if (budgetMicros <= 0) throw new IllegalArgumentException("Budget must be > 0.");
+        budgetNanos = budgetMicros * 1000;
+    }
+
+    private static class PendingItem extends BinaryHeap.Node implements Pool.Poolable {
+        int parent;
+        MainItemVO vo;
+        float x, y;
+
+        PendingItem() {
+            super(0);
+        }
+
+        @Override
+        public void reset() {
+            vo = null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.factory;
 
 import games.rednblack.editor.renderer.ecs.*;
+import games.rednblack.editor.renderer.ecs.utils.ImmutableBag;
 import games.rednblack.editor.renderer.ecs.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
@@ -13,14 +14,16 @@ import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import games.rednblack.editor.renderer.lights.RayHandler;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
-import games.rednblack.editor.renderer.components.MainItemComponent;
-import games.rednblack.editor.renderer.components.NodeComponent;
-import games.rednblack.editor.renderer.components.ParentNodeComponent;
-import games.rednblack.editor.renderer.components.ViewPortComponent;
+import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.components.label.LabelComponent;
+import games.rednblack.editor.renderer.components.particle.ParticleComponent;
+import games.rednblack.editor.renderer.components.sprite.SpriteAnimationComponent;
+import games.rednblack.editor.renderer.components.sprite.SpriteAnimationStateComponent;
 import games.rednblack.editor.renderer.data.CompositeItemVO;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.factory.component.*;
 import games.rednblack.editor.renderer.resources.IResourceRetriever;
+import games.rednblack.editor.renderer.systems.strategy.EntityCommandBuffer;
 import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
 import games.rednblack.editor.renderer.utils.AsyncEntityFactoryCallback;
 import games.rednblack.editor.renderer.utils.HyperJson;
@@ -43,6 +46,13 @@ public class EntityFactory {
     protected ComponentMapper<NodeComponent> node;
     protected ComponentMapper<ParentNodeComponent> parent;
     protected ComponentMapper<ViewPortComponent> viewportCM;
+    protected ComponentMapper<ShaderComponent> shaderCM;
+    protected ComponentMapper<TextureRegionComponent> textureRegionCM;
+    protected ComponentMapper<NinePatchComponent> ninePatchCM;
+    protected ComponentMapper<LabelComponent> labelCM;
+    protected ComponentMapper<ParticleComponent> particleCM;
+    protected ComponentMapper<SpriteAnimationComponent> spriteAnimationCM;
+    protected ComponentMapper<SpriteAnimationStateComponent> spriteAnimationStateCM;
 
     private final IntMap<ComponentFactory> factoriesMap = new IntMap<>();
     private final IntMap<ComponentFactory> externalFactories = new IntMap<>();
@@ -53,12 +63,15 @@ public class EntityFactory {
 
     private final ObjectIntMap<String> entities = new ObjectIntMap<>();
 
+    private final IdentityMap<CompositeItemVO, PrefabTemplate> prefabs = new IdentityMap<>();
+
     public RayHandler rayHandler;
     public World world;
     public IResourceRetriever rm = null;
     public Engine engine;
 
     private final AsyncExecutor asyncExecutor = new AsyncExecutor(1);
+    private EntityCommandBuffer commandBuffer;
 
     /**
      * Do call injectDependencies manually when using this constructor!
@@ -87,6 +100,10 @@ public class EntityFactory {
         }
         factoriesMap.putAll(externalFactories);
 
+        SystemInvocationStrategy strategy = engine.getInvocationStrategy();
+        if (strategy instanceof HyperLap2dInvocationStrategy)
+            commandBuffer = ((HyperLap2dInvocationStrategy) strategy).getCommandBuffer();
+
         for (ComponentFactory factory : factoriesMap.values()) {
             Class<? extends MainItemVO> voType = factory.getVOType();
             factoriesVOMap.put(voType, factory);
@@ -151,43 +168,49 @@ public class EntityFactory {
         return entity;
     }
 
+    /**
+     * Create entities from a background thread. Creation is recorded in the engine command buffer and played back
+     * at the beginning of the next frame, the callback is invoked on the engine thread.
+     *
+     * @throws IllegalStateException if the invocation strategy has no command buffer
+     */
     public void createEntitiesAsync(final int root, final int entityType, final Array<ComponentFactory.InitialData> initialData, final AsyncEntityFactoryCallback callback) {
         AsyncTask<Void> task = new AsyncTask<Void>() {
             @Override
             public Void call() throws Exception {
                 for (int i = 0; i < initialData.size; i++) {
-                    ComponentFactory.InitialData data = initialData.get(i);
-                    synchronized (HyperLap2dInvocationStrategy.updateEntities) {
-                        int e = createEntity(root, entityType, data);
-                        if (callback != null) callback.onEntityCreated(e, data);
-                    }
+                    submit(new CreateDataCommand(root, entityType, initialData.get(i), callback));
                 }
                 return null;
             }
         };
-        asyncExecutor.submit(task);
+        submitAsync(task);
     }
 
+    /**
+     * Walk the composite from a background thread and record the creation of all its children, played back at the
+     * beginning of the next frame.
+     *
+     * @throws IllegalStateException if the invocation strategy has no command buffer
+     */
     public void initAllChildrenAsync(final int root, final CompositeItemVO vo) {
         AsyncTask<Void> task = new AsyncTask<Void>() {
             @Override
             public Void call() throws Exception {
-                createAllChildrenAsync(root, vo);
+                createAllChildrenDeferred(root, null, vo);
                 return null;
             }
         };
-        asyncExecutor.submit(task);
+        submitAsync(task);
     }
 
-    private void createAllChildrenAsync(int root, CompositeItemVO vo) {
+    private void createAllChildrenDeferred(int root, EntityCommandBuffer.EntityCommand rootCommand, CompositeItemVO vo) {
         for (String key : new ObjectMap.Keys<>(vo.content)) {
             if (key.equals(HyperJson.getJson().getTag(CompositeItemVO.class))) continue;
 
             Array<MainItemVO> vos = vo.content.get(key);
             for (MainItemVO mainItemVO : new Array.ArrayIterator<>(vos, true)) {
-                synchronized (HyperLap2dInvocationStrategy.updateEntities) {
-                    createEntity(root, mainItemVO);
-                }
+                submit(new CreateItemCommand(root, rootCommand, mainItemVO));
             }
         }
 
@@ -195,15 +218,53 @@ public class EntityFactory {
         if (compositeVOs != null) {
             for (MainItemVO mainItemVO : new Array.ArrayIterator<>(compositeVOs, true)) {
                 CompositeItemVO compositeItemVO = (CompositeItemVO) mainItemVO;
-                int composite = -1;
-                synchronized (HyperLap2dInvocationStrategy.updateEntities) {
-                    composite = createEntity(root, compositeItemVO);
-                }
-                createAllChildrenAsync(composite, compositeItemVO);
+                CreateItemCommand composite = new CreateItemCommand(root, rootCommand, compositeItemVO);
+                submit(composite);
+                createAllChildrenDeferred(-1, composite, compositeItemVO);
             }
         }
     }
 
+    /**
+     * Record the creation of an entity, safe to call from any thread when the invocation strategy has a command buffer.
+     *
+     * @return command holding the entity once played back, can be used as parent of other deferred entities
+     */
+    public EntityCommandBuffer.EntityCommand createEntityDeferred(int root, MainItemVO vo) {
+        CreateItemCommand command = new CreateItemCommand(root, null, vo);
+        submit(command);
+        return command;
+    }
+
+    /**
+     * Record the creation of an entity whose parent is also deferred, safe to call from any thread when the invocation
+     * strategy has a command buffer.
+     */
+    public EntityCommandBuffer.EntityCommand createEntityDeferred(EntityCommandBuffer.EntityCommand parent, MainItemVO vo) {
+        CreateItemCommand command = new CreateItemCommand(-1, parent, vo);
+        submit(command);
+        return command;
+    }
+
+    /**
+     * Without a command buffer, e.g. with a custom invocation strategy, commands are executed right away: off-thread
+     * callers must use a strategy with a command buffer.
+     */
+    private void submit(EntityCommandBuffer.Command command) {
+        if (commandBuffer != null) {
+            commandBuffer.submit(command);
+        } else {
+            command.execute();
+        }
+    }
+
+    private void submitAsync(AsyncTask<Void> task) {
+        // Commands would run on the executor thread, racing the engine
+        if (commandBuffer == null)
+            throw new IllegalStateException("Async creation needs an invocation strategy with a command buffer.");
+        asyncExecutor.submit(task);
+    }
+
     public void initAllChildren(int root, CompositeItemVO vo) {
         for (String key : vo.content.keys()) {
             if (key.equals(HyperJson.getJson().getTag(CompositeItemVO.class))) continue;
@@ -224,6 +285,69 @@ public class EntityFactory {
         }
     }
 
+    /**
+     * Create a library item and all its children. The first instance of a VO compiles a {@link PrefabTemplate}, the
+     * following ones are created directly from the archetypes it recorded.
+     * <p>
+     * Templates are cached by VO instance, call {@link #invalidatePrefab(CompositeItemVO)} after editing its content.
+     * Position and layer of the root VO are read on every instance.
+     */
+    public int createPrefabInstance(int root, CompositeItemVO vo) {
+        PrefabTemplate prefab = prefabs.get(vo);
+        if (prefab != null) return prefab.instantiate(this, root);
+
+        prefab = new PrefabTemplate(vo);
+        int entity = compilePrefabNode(prefab, -1, root, vo);
+        prefabs.put(vo, prefab);
+        return entity;
+    }
+
+    private int compilePrefabNode(PrefabTemplate prefab, int parentNode, int root, MainItemVO vo) {
+        ComponentFactory factory = factoriesVOMap.get(vo.getClass());
+        int entity = factory.createEntity(root, vo);
+        postProcessEntity(entity);
+        int node = prefab.addNode(vo, factory, compositionOf(entity), parentNode);
+
+        if (vo instanceof CompositeItemVO) {
+            CompositeItemVO compositeItemVO = (CompositeItemVO) vo;
+            String compositeTag = HyperJson.getJson().getTag(CompositeItemVO.class);
+            for (String key : compositeItemVO.content.keys()) {
+                if (key.equals(compositeTag)) continue;
+
+                for (MainItemVO mainItemVO : compositeItemVO.content.get(key)) {
+                    compilePrefabNode(prefab, node, entity, mainItemVO);
+                }
+            }
+
+            Array<MainItemVO> compositeVOs = compositeItemVO.content.get(compositeTag);
+            if (compositeVOs != null) {
+                for (MainItemVO mainItemVO : compositeVOs) {
+                    compilePrefabNode(prefab, node, entity, mainItemVO);
+                }
+            }
+        }
+        return entity;
+    }
+
+    private Archetype compositionOf(int entity) {
+        ArchetypeBuilder builder = new ArchetypeBuilder();
+        ImmutableBag<ComponentType> types = engine.getComponentManager().getComponentTypes();
+        for (int i = 0, s = types.size(); i < s; i++) {
+            Class<? extends Component> type = types.get(i).getType();
+            // Composition identity is only resolved on the next sync, ask the mappers instead
+            if (engine.getMapper(type).has(entity)) builder.add(type);
+        }
+        return builder.build(engine);
+    }
+
+    public void invalidatePrefab(CompositeItemVO vo) {
+        prefabs.remove(vo);
+    }
+
+    public void clearPrefabs() {
+        prefabs.clear();
+    }
+
     public void postProcessEntity(int entity) {
         MainItemComponent mainItemComponent = mapper.get(entity);
 
@@ -248,6 +372,58 @@ public class EntityFactory {
         return entities.get(id, -1);
     }
 
+    /**
+     * Rebuild the unique id lookup from the given entities, e.g. after an engine snapshot was restored.
+     */
+    public void registerEntities(IntBag entities) {
+        this.entities.clear();
+        int[] ids = entities.getData();
+        for (int i = 0, n = entities.size(); i < n; i++) {
+            MainItemComponent mainItemComponent = mapper.get(ids[i]);
+            if (mainItemComponent != null && mainItemComponent.uniqueId != null)
+                this.entities.put(mainItemComponent.uniqueId, ids[i]);
+        }
+    }
+
+    /**
+     * Load the resources dropped by an engine snapshot restore again: entities created by the restore, or whose
+     * region, font, shader, effect or animation name changed. Entities whose resources are in place are skipped.
+     */
+    public void restoreTransientComponents(IntBag entities) {
+        int[] ids = entities.getData();
+        for (int i = 0, n = entities.size(); i < n; i++) {
+            int entity = ids[i];
+            if (!hasTransientComponents(entity)) {
+                ComponentFactory factory = factoriesMap.get(mapper.get(entity).entityType);
+                if (factory != null) factory.reloadTransientComponents(entity);
+            }
+        }
+    }
+
+    private boolean hasTransientComponents(int entity) {
+        ShaderComponent shader = shaderCM.get(entity);
+        if (shader != null && shader.getShader() == null && !shader.shaderName.isEmpty()) return false;
+
+        TextureRegionComponent textureRegion = textureRegionCM.get(entity);
+        if (textureRegion != null && textureRegion.region == null) return false;
+
+        NinePatchComponent ninePatch = ninePatchCM.get(entity);
+        if (ninePatch != null && ninePatch.ninePatch == null) return false;
+
+        LabelComponent label = labelCM.get(entity);
+        if (label != null && label.style == null) return false;
+
+        ParticleComponent particle = particleCM.get(entity);
+        if (particle != null && particle.particleEffect == null) return false;
+
+        SpriteAnimationStateComponent spriteState = spriteAnimationStateCM.get(entity);
+        if (spriteState != null) {
+            SpriteAnimationComponent sprite = spriteAnimationCM.get(entity);
+            return spriteState.allRegions != null && sprite != null && sprite.animationName.equals(spriteState.regionsName);
+        }
+        return true;
+    }
+
     public void removeEntity(String id) {
         entities.remove(id, -1);
     }
@@ -267,4 +443,41 @@ public class EntityFactory {
     public void dispose() {
         asyncExecutor.dispose();
     }
+
+    private class CreateItemCommand extends EntityCommandBuffer.EntityCommand {
+        private final int parent;
+        private final EntityCommandBuffer.EntityCommand parentCommand;
+        private final MainItemVO vo;
+
+        CreateItemCommand(int parent, EntityCommandBuffer.EntityCommand parentCommand, MainItemVO vo) {
+            this.parent = parent;
+            this.parentCommand = parentCommand;
+            this.vo = vo;
+        }
+
+        @Override
+        public void execute() {
+            entity = createEntity(parentCommand != null ? parentCommand.getEntity() : parent, vo);
+        }
+    }
+
+    private class CreateDataCommand extends EntityCommandBuffer.EntityCommand {
+        private final int parent;
+        private final int entityType;
+        private final ComponentFactory.InitialData data;
+        private final AsyncEntityFactoryCallback callback;
+
+        CreateDataCommand(int parent, int entityType, ComponentFactory.InitialData data, AsyncEntityFactoryCallback callback) {
+            this.parent = parent;
+            this.entityType = entityType;
+            this.data = data;
+            this.callback = callback;
+        }
+
+        @Override
+        public void execute() {
+            entity = createEntity(parent, entityType, data);
+            if (callback != null) callback.onEntityCreated(entity, data);
+        }
+    }
 }
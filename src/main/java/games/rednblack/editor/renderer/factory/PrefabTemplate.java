@@ -0,0 +1,65 @@
+package games.rednblack.editor.renderer.factory;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.data.CompositeItemVO;
+import games.rednblack.editor.renderer.data.MainItemVO;
+import games.rednblack.editor.renderer.ecs.Archetype;
+import games.rednblack.editor.renderer.factory.component.ComponentFactory;
+
+/**
+ * Flattened hierarchy of a library item, compiled by {@link EntityFactory#createPrefabInstance(int, CompositeItemVO)}
+ * from its first instance.
+ * <p>
+ * Nodes are stored parents first, in the same order {@link EntityFactory#initAllChildren(int, CompositeItemVO)} creates
+ * them. Each node keeps the final component composition of the entity created for it, so following instances are
+ * created straight into their archetype instead of growing through transmuters.
+ */
+public class PrefabTemplate {
+
+    private final CompositeItemVO vo;
+
+    private final Array<MainItemVO> nodes = new Array<>();
+    private final Array<ComponentFactory> factories = new Array<>();
+    private final Array<Archetype> archetypes = new Array<>();
+    /** Index of the parent node, -1 for the root */
+    private final IntArray parents = new IntArray();
+
+    private int[] entities = new int[0];
+
+    PrefabTemplate(CompositeItemVO vo) {
+        this.vo = vo;
+    }
+
+    int addNode(MainItemVO node, ComponentFactory factory, Archetype archetype, int parent) {
+        nodes.add(node);
+        factories.add(factory);
+        archetypes.add(archetype);
+        parents.add(parent);
+        return nodes.size - 1;
+    }
+
+    int instantiate(EntityFactory entityFactory, int root) {
+        if (entities.length < nodes.size) entities = new int[nodes.size];
+
+        for (int i = 0; i < nodes.size; i++) {
+            int parent = parents.get(i);
+            int entity = factories.get(i).createEntity(parent == -1 ? root : entities[parent], nodes.get(i), archetypes.get(i));
+            entityFactory.postProcessEntity(entity);
+            entities[i] = entity;
+        }
+
+        return entities[0];
+    }
+
+    public CompositeItemVO getVO() {
+        return vo;
+    }
+
+    /**
+     * @return number of entities created by every instance
+     */
+    public int getSize() {
+        return nodes.size;
+    }
+}
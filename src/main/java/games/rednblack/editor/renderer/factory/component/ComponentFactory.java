@@ -101,6 +101,13 @@ public abstract class ComponentFactory {
         postEntityInitialization(entity);
     }
 
+    /**
+     * Load the resources of an existing entity again, e.g. after an engine snapshot restore dropped them.
+     */
+    public void reloadTransientComponents(int entity) {
+        initializeTransientComponents(entity);
+    }
+
     protected void initializeTransientComponents(int entity) {
         if (scriptCM.has(entity)) {
             scriptCM.get(entity).engine = engine;
@@ -187,6 +194,25 @@ public abstract class ComponentFactory {
         return entity;
     }
 
+    /**
+     * Create an entity from a composition computed by a previous {@link #createEntity(int, MainItemVO)} of the same
+     * VO, without transmuting it. Components the VO initializes are already present, so they are only filled.
+     */
+    public int createEntity(int root, MainItemVO vo, Archetype archetype) {
+        int entity = engine.create(archetype);
+        mainItemCM.get(entity).entityType = getEntityType();
+
+        initializeComponentsFromVO(entity, vo);
+
+        initializeSpecialComponentsFromVO(entity, vo);
+
+        adjustNodeHierarchy(root, entity);
+
+        initialize(entity);
+
+        return entity;
+    }
+
     protected void initializeComponentsFromVO(int entity, MainItemVO vo) {
         MainItemComponent mainItemComponent = mainItemCM.get(entity);
         mainItemComponent.uniqueId = vo.uniqueId;
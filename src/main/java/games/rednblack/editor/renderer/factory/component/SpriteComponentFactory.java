@@ -85,6 +85,7 @@ public class SpriteComponentFactory extends ComponentFactory {
         Array<TextureAtlas.AtlasRegion> regions = rm.getSpriteAnimation(spriteAnimationComponent.animationName);
         SpriteAnimationStateComponent stateComponent = spriteAnimationStateCM.get(entity);
         stateComponent.setAllRegions(regions);
+        stateComponent.regionsName = spriteAnimationComponent.animationName;
 
         if (spriteAnimationComponent.frameRangeMap.isEmpty()) {
             spriteAnimationComponent.frameRangeMap.put("Default", new FrameRange("Default", 0, regions.size - 1));
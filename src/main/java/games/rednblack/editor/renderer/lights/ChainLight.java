@@ -519,6 +519,12 @@ public class ChainLight extends Light {
         return culled;
     }
 
+    @Override
+    boolean getBounds(Rectangle bounds) {
+        bounds.set(chainLightBounds);
+        return true;
+    }
+
     void updateBody() {
         if (body == null || staticLight) return;
         final Vector2 vec = body.getPosition();
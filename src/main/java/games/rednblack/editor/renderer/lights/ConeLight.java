@@ -52,8 +52,11 @@ public class ConeLight extends PositionalLight {
 		updateBody();
 		if (dirty) setEndPoints();
 		
-		if (cull()) return;
-		if (staticLight && !dirty) return;
+		if (cull()) {
+			invalidateCast();
+			return;
+		}
+		if (!needsUpdate()) return;
 		
 		dirty = false;
 		updateMesh();
@@ -64,6 +67,8 @@ public class ConeLight extends PositionalLight {
 	 * <p>Actual recalculations will be done only on {@link #update()} call
 	 */
 	public void setDirection(float direction) {
+		//Called every update by lights attached to a body
+		if (this.direction == direction) return;
 		this.direction = direction;
 		dirty = true;
 	}
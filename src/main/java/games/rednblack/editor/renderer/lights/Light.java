@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.lights;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.Body;
@@ -31,6 +32,8 @@ public abstract class Light implements Disposable {
 
 	/** Global lights filter **/
 	private static Filter globalFilterA = null;
+	/** Changes with the global filter, lights cast again when it differs from the one they cast with */
+	static int globalFilterVersion;
 	/** This light specific filter **/
 	private Filter filterA = null;
 	
@@ -38,6 +41,10 @@ public abstract class Light implements Disposable {
 	protected final Vector2 tmpPosition = new Vector2();
 	
 	protected RayHandler rayHandler;
+
+	/** Cells of {@link LightGrid} the light was put in */
+	int gridX1, gridY1, gridX2, gridY2;
+	boolean gridUnbounded;
 	
 	protected boolean active = true;
 	protected boolean soft = true;
@@ -100,6 +107,7 @@ public abstract class Light implements Disposable {
 	public Light(RayHandler rayHandler, int rays, Color color,
 				 float distance, float directionDegree) {
 		rayHandler.lightList.add(this);
+		rayHandler.lightIndex.invalidate();
 		this.rayHandler = rayHandler;
 		setRayNum(rays);
 		setColor(color);
@@ -113,6 +121,7 @@ public abstract class Light implements Disposable {
 	 */
 	public static void setGlobalContactFilter(Filter filter) {
 		globalFilterA = filter;
+		globalFilterVersion++;
 	}
 
 	/**
@@ -127,6 +136,7 @@ public abstract class Light implements Disposable {
 		globalFilterA.categoryBits = categoryBits;
 		globalFilterA.groupIndex = groupIndex;
 		globalFilterA.maskBits = maskBits;
+		globalFilterVersion++;
 	}
 
 	/**
@@ -134,6 +144,7 @@ public abstract class Light implements Disposable {
 	 */
 	public void setContactFilter(Filter filter) {
 		filterA = filter;
+		dirty = true;
 	}
 
 	/**
@@ -148,6 +159,7 @@ public abstract class Light implements Disposable {
 		filterA.categoryBits = categoryBits;
 		filterA.groupIndex = groupIndex;
 		filterA.maskBits = maskBits;
+		dirty = true;
 	}
 
 	/**
@@ -272,6 +284,7 @@ public abstract class Light implements Disposable {
 		this.rayHandler = rayHandler;
 		if (active) {
 			rayHandler.lightList.add(this);
+			rayHandler.lightIndex.invalidate();
 		} else {
 			rayHandler.disabledLights.add(this);
 		}
@@ -290,6 +303,7 @@ public abstract class Light implements Disposable {
 	public void remove(boolean doDispose) {
 		if (active) {
 			rayHandler.lightList.removeValue(this, false);
+			rayHandler.lightIndex.invalidate();
 		} else {
 			rayHandler.disabledLights.removeValue(this, false);
 		}
@@ -329,6 +343,7 @@ public abstract class Light implements Disposable {
 			rayHandler.disabledLights.add(this);
 			rayHandler.lightList.removeValue(this, true);
 		}
+		rayHandler.lightIndex.invalidate();
 	}
 
 	/**
@@ -397,7 +412,7 @@ public abstract class Light implements Disposable {
 	 */
 	public void setSoft(boolean soft) {
 		this.soft = soft;
-		if (staticLight) dirty = true;
+		dirty = true;
 	}
 
 	/**
@@ -415,7 +430,7 @@ public abstract class Light implements Disposable {
 	 */
 	public void setSoftnessLength(float softShadowLength) {
 		this.softShadowLength = softShadowLength;
-		if (staticLight) dirty = true;
+		dirty = true;
 	}
 	
 	/**
@@ -448,6 +463,15 @@ public abstract class Light implements Disposable {
 	public boolean contains(float x, float y) {
 		return false;
 	}
+
+	/**
+	 * World bounds of the area this light can reach, used by the {@link RayHandler} light index
+	 *
+	 * @return false if the light isn't bounded
+	 */
+	boolean getBounds(Rectangle bounds) {
+		return false;
+	}
 	
 	/**
 	 * Sets if the attached body fixtures should be ignored during raycasting
@@ -458,6 +482,7 @@ public abstract class Light implements Disposable {
 	 */
 	public void setIgnoreAttachedBody(boolean flag) {
 		ignoreBody = flag;
+		dirty = true;
 	}
 	
 	/**
@@ -0,0 +1,182 @@
+package games.rednblack.editor.renderer.lights;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid of the lights of a {@link RayHandler}, finds the lights that can reach a point without testing all of
+ * them. Lights are put in every cell their bounds overlap, unbounded lights and lights spanning too many cells are
+ * always tested.
+ * <p>
+ * The grid is rebuilt lazily on the first query after lights were added, removed, activated or deactivated. Lights
+ * whose bounds moved to other cells are re-binned one by one through {@link #update(Light)}.
+ */
+class LightGrid {
+    private static final int MAX_CELLS_PER_LIGHT = 64;
+
+    private final LongMap<Array<Light>> cells = new LongMap<>();
+    private final Array<Array<Light>> freeCells = new Array<>(false, 16);
+    private final Array<Light> unbounded = new Array<>(false, 4);
+    private final Rectangle bounds = new Rectangle();
+
+    private float cellSize = 8f;
+    private boolean valid = false;
+
+    void invalidate() {
+        valid = false;
+    }
+
+    void setCellSize(float cellSize) {
+        this.cellSize = Math.max(cellSize, 0.01f);
+        valid = false;
+    }
+
+    float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return true if any of the lights contains the point, see {@link Light#contains(float, float)}
+     */
+    boolean contains(Array<Light> lights, float x, float y) {
+        if (!valid) rebuild(lights);
+
+        for (int i = 0; i < unbounded.size; i++) {
+            if (unbounded.get(i).contains(x, y)) return true;
+        }
+
+        Array<Light> cell = cells.get(key(cellOf(x), cellOf(y)));
+        if (cell == null) return false;
+
+        for (int i = 0; i < cell.size; i++) {
+            if (cell.get(i).contains(x, y)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Collect the lights whose bounds may overlap the area, lights spanning several cells can be added more than once.
+     */
+    void query(Array<Light> lights, Rectangle area, Array<Light> out) {
+        if (!valid) rebuild(lights);
+
+        out.addAll(unbounded);
+        int x1 = cellOf(area.x), x2 = cellOf(area.x + area.width);
+        int y1 = cellOf(area.y), y2 = cellOf(area.y + area.height);
+        for (int cx = x1; cx <= x2; cx++) {
+            for (int cy = y1; cy <= y2; cy++) {
+                Array<Light> cell = cells.get(key(cx, cy));
+                if (cell != null) out.addAll(cell);
+            }
+        }
+    }
+
+    /**
+     * Move a light to the cells of its current bounds if they changed, nothing to do while the grid needs a rebuild.
+     */
+    void update(Light light) {
+        if (!valid) return;
+
+        if (!light.getBounds(bounds)) {
+            if (light.gridUnbounded) return;
+            remove(light);
+            addUnbounded(light);
+            return;
+        }
+
+        int x1 = cellOf(bounds.x), x2 = cellOf(bounds.x + bounds.width);
+        int y1 = cellOf(bounds.y), y2 = cellOf(bounds.y + bounds.height);
+        if (!light.gridUnbounded && x1 == light.gridX1 && y1 == light.gridY1 && x2 == light.gridX2 && y2 == light.gridY2)
+            return;
+
+        remove(light);
+        add(light, x1, y1, x2, y2);
+    }
+
+    private void rebuild(Array<Light> lights) {
+        // Cells that stayed empty since last rebuild are dropped, the others are reused
+        LongMap.Entries<Array<Light>> entries = cells.entries();
+        while (entries.hasNext()) {
+            Array<Light> cell = entries.next().value;
+            if (cell.size == 0) {
+                entries.remove();
+                freeCells.add(cell);
+            } else {
+                cell.clear();
+            }
+        }
+        unbounded.clear();
+
+        for (int i = 0; i < lights.size; i++) {
+            Light light = lights.get(i);
+            if (!light.getBounds(bounds)) {
+                addUnbounded(light);
+                continue;
+            }
+
+            add(light, cellOf(bounds.x), cellOf(bounds.y), cellOf(bounds.x + bounds.width), cellOf(bounds.y + bounds.height));
+        }
+        valid = true;
+    }
+
+    private void add(Light light, int x1, int y1, int x2, int y2) {
+        if ((x2 - x1 + 1) * (y2 - y1 + 1) > MAX_CELLS_PER_LIGHT) {
+            addUnbounded(light);
+            return;
+        }
+
+        for (int cx = x1; cx <= x2; cx++) {
+            for (int cy = y1; cy <= y2; cy++) {
+                long key = key(cx, cy);
+                Array<Light> cell = cells.get(key);
+                if (cell == null) {
+                    cell = freeCells.size > 0 ? freeCells.pop() : new Array<Light>(false, 4);
+                    cells.put(key, cell);
+                }
+                cell.add(light);
+            }
+        }
+        light.gridUnbounded = false;
+        light.gridX1 = x1;
+        light.gridY1 = y1;
+        light.gridX2 = x2;
+        light.gridY2 = y2;
+    }
+
+    private void addUnbounded(Light light) {
+        unbounded.add(light);
+        light.gridUnbounded = true;
+    }
+
+    private void remove(Light light) {
+        if (light.gridUnbounded) {
+            unbounded.removeValue(light, true);
+            return;
+        }
+
+        // Emptied cells are kept until the next rebuild
+        for (int cx = light.gridX1; cx <= light.gridX2; cx++) {
+            for (int cy = light.gridY1; cy <= light.gridY2; cy++) {
+                Array<Light> cell = cells.get(key(cx, cy));
+                if (cell != null) cell.removeValue(light, true);
+            }
+        }
+    }
+
+    void clear() {
+        cells.clear();
+        freeCells.clear();
+        unbounded.clear();
+        valid = false;
+    }
+
+    private int cellOf(float coordinate) {
+        return MathUtils.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
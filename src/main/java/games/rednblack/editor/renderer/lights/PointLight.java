@@ -57,8 +57,11 @@ public class PointLight extends PositionalLight {
 		updateBody();
 		if (dirty) setEndPoints();
 		
-		if (cull()) return;
-		if (staticLight && !dirty) return;
+		if (cull()) {
+			invalidateCast();
+			return;
+		}
+		if (!needsUpdate()) return;
 		
 		dirty = false;
 		updateMesh();
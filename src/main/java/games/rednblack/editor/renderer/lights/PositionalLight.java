@@ -3,6 +3,7 @@ package games.rednblack.editor.renderer.lights;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 
@@ -31,6 +32,29 @@ public abstract class PositionalLight extends Light {
     protected float[] endX;
     protected float[] endY;
 
+    // State of the last ray casting, dynamic lights cast again only when it changes
+    protected float lastX = Float.NaN;
+    protected float lastY = Float.NaN;
+    protected float lastColorF;
+    protected boolean lastXray;
+    protected int lastFixtureCount = -1;
+    protected int lastGlobalFilterVersion = -1;
+    private int fixtureCount;
+    private boolean fixtureAwake;
+
+    private final QueryCallback changeCallback = new QueryCallback() {
+        @Override
+        public boolean reportFixture(Fixture fixture) {
+            fixtureCount++;
+            Body fixtureBody = fixture.getBody();
+            if (fixtureBody.getType() != BodyDef.BodyType.StaticBody && fixtureBody.isAwake()) {
+                fixtureAwake = true;
+                return false;
+            }
+            return true;
+        }
+    };
+
     public PositionalLight(RayHandler rayHandler, int rays, Color color, float distance, float x, float y, float directionDegree) {
         super(rayHandler, rays, color, distance, directionDegree);
         start.x = x;
@@ -42,12 +66,49 @@ public abstract class PositionalLight extends Light {
     @Override
     void update() {
         updateBody();
-        if (cull()) return;
-        if (staticLight && !dirty) return;
+        if (cull()) {
+            invalidateCast();
+            return;
+        }
+        if (!needsUpdate()) return;
         dirty = false;
         updateMesh();
     }
 
+    /**
+     * Static lights update only when dirty or the global contact filter changed. Dynamic lights also update when they
+     * moved or changed color, or when a fixture in their range is awake, was added or removed: sleeping bodies don't
+     * move, so rays would hit the same points as last time.
+     */
+    protected boolean needsUpdate() {
+        if (lastGlobalFilterVersion != globalFilterVersion) {
+            lastGlobalFilterVersion = globalFilterVersion;
+            return true;
+        }
+        if (dirty) return true;
+        if (staticLight) return false;
+        if (start.x != lastX || start.y != lastY || colorF != lastColorF || xray != lastXray) return true;
+        if (rayHandler.world == null || xray || rayHandler.pseudo3d) return false;
+
+        fixtureCount = 0;
+        fixtureAwake = false;
+        rayHandler.world.QueryAABB(changeCallback,
+                start.x - distance, start.y - distance,
+                start.x + distance, start.y + distance);
+        // The query stops at the first awake fixture, only a complete count is kept
+        if (fixtureAwake) return true;
+        boolean changed = fixtureCount != lastFixtureCount;
+        lastFixtureCount = fixtureCount;
+        return changed;
+    }
+
+    /**
+     * Force dynamic lights to cast rays on next update, e.g. after static fixtures were moved.
+     */
+    public void invalidateCast() {
+        lastX = Float.NaN;
+    }
+
     @Override
     void draw(LightBatch batch) {
         if (rayHandler.culling && culled) return;
@@ -391,6 +452,12 @@ public abstract class PositionalLight extends Light {
         return culled;
     }
 
+    @Override
+    boolean getBounds(Rectangle bounds) {
+        bounds.set(start.x - distance, start.y - distance, distance * 2, distance * 2);
+        return true;
+    }
+
     protected void updateBody() {
         if (body == null || staticLight) return;
 
@@ -418,6 +485,11 @@ public abstract class PositionalLight extends Light {
             }
         }
         setMesh();
+
+        lastX = start.x;
+        lastY = start.y;
+        lastColorF = colorF;
+        lastXray = xray;
     }
 
     protected void prepareFixtureData() {
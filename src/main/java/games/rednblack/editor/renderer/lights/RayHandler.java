@@ -8,6 +8,7 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
@@ -53,6 +54,9 @@ public class RayHandler implements Disposable {
     /** This Array contain all the disabled lights. */
     final Array<Light> disabledLights = new Array<>(false, 16);
 
+    /** Spatial index of the enabled lights for point queries. */
+    final LightGrid lightIndex = new LightGrid();
+
     LightMap lightMap;
 
     LightBatch lightBatch;
@@ -183,6 +187,7 @@ public class RayHandler implements Disposable {
     public void update() {
         for (Light light : lightList) {
             light.update();
+            lightIndex.update(light);
         }
     }
 
@@ -254,17 +259,39 @@ public class RayHandler implements Disposable {
      * Checks whether the given point is inside of any light volume
      */
     public boolean pointAtLight(float x, float y) {
-        for (Light light : lightList) {
-            if (light.contains(x, y)) return true;
-        }
-        return false;
+        return lightIndex.contains(lightList, x, y);
     }
 
     public boolean pointAtShadow(float x, float y) {
+        return !lightIndex.contains(lightList, x, y);
+    }
+
+    /**
+     * Collects the enabled lights that may reach the given area, lights can be added more than once.
+     */
+    public void getLights(Rectangle area, Array<Light> out) {
+        lightIndex.query(lightList, area, out);
+    }
+
+    /**
+     * Cell size in world units of the spatial index used by {@link #pointAtLight(float, float)}, about the
+     * distance of common lights. Default: {@code 8}
+     */
+    public void setLightIndexCellSize(float cellSize) {
+        lightIndex.setCellSize(cellSize);
+    }
+
+    /**
+     * Force every dynamic light to cast rays on next update. Lights only cast again when awake bodies are in range or
+     * the number of fixtures in range changes, so changes of sleeping fixtures, like static bodies moved with
+     * {@link com.badlogic.gdx.physics.box2d.Body#setTransform(float, float, float)} or fixtures replaced by others,
+     * must be reported through this method. {@link games.rednblack.editor.renderer.systems.PhysicsSystem} does it
+     * for the bodies it creates, destroys or refreshes.
+     */
+    public void invalidateLights() {
         for (Light light : lightList) {
-            if (light.contains(x, y)) return false;
+            if (light instanceof PositionalLight) ((PositionalLight) light).invalidateCast();
         }
-        return true;
     }
 
     public void dispose() {
@@ -279,6 +306,7 @@ public class RayHandler implements Disposable {
             light.dispose();
         }
         lightList.clear();
+        lightIndex.clear();
 
         for (Light light : disabledLights) {
             light.dispose();
@@ -13,6 +13,8 @@ import com.badlogic.gdx.utils.*;
 import games.rednblack.editor.renderer.ExternalTypesConfiguration;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
 import games.rednblack.editor.renderer.data.*;
+import games.rednblack.editor.renderer.data.io.BinarySceneFormat;
+import games.rednblack.editor.renderer.data.io.BinarySceneReader;
 import games.rednblack.editor.renderer.utils.HyperJson;
 import games.rednblack.editor.renderer.utils.ShaderCompiler;
 import games.rednblack.editor.renderer.utils.StringUtils;
@@ -41,6 +43,12 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
     public String shadersPath = "shaders";
     public String bitmapFontsPath = "bitmapfonts";
 
+    /**
+     * Load scenes from their binary <code>.dtb</code> export when it's valid, see {@link #loadSceneVO(String)}.
+     * Off by default, the exports aren't kept in sync with the <code>.dt</code> files by the editor.
+     */
+    public boolean useBinaryScenes = false;
+
     protected float resMultiplier;
 
     protected ProjectInfoVO projectVO;
@@ -430,15 +438,34 @@ public class ResourceManager implements IResourceLoader, IResourceRetriever, Dis
 
     @Override
     public SceneVO loadSceneVO(String sceneName) {
+        SceneVO sceneVO;
         FileHandle file = Gdx.files.internal(scenesPath + File.separator + sceneName + ".dt");
-        Json json = HyperJson.getJson();
-        SceneVO sceneVO = json.fromJson(SceneVO.class, file.readString());
+        FileHandle binaryFile = Gdx.files.internal(scenesPath + File.separator + sceneName + BinarySceneFormat.EXTENSION);
+        if (useBinaryScenes && isBinarySceneValid(binaryFile, file)) {
+            sceneVO = new BinarySceneReader().read(binaryFile);
+        } else {
+            Json json = HyperJson.getJson();
+            sceneVO = json.fromJson(SceneVO.class, file.readString());
+        }
 
         loadedSceneVOs.put(sceneName, sceneVO);
 
         return sceneVO;
     }
 
+    /**
+     * The binary export is used when it has the current format version and isn't older than the JSON scene.
+     * Modification times are only compared when both are known, internal files on Android report 0.
+     */
+    protected boolean isBinarySceneValid(FileHandle binaryFile, FileHandle jsonFile) {
+        if (BinarySceneReader.readVersion(binaryFile) != BinarySceneFormat.VERSION) return false;
+        if (!jsonFile.exists()) return true;
+
+        long binaryModified = binaryFile.lastModified();
+        long jsonModified = jsonFile.lastModified();
+        return binaryModified == 0 || jsonModified == 0 || binaryModified >= jsonModified;
+    }
+
     public void unLoadSceneVO(String sceneName) {
         loadedSceneVOs.remove(sceneName);
     }
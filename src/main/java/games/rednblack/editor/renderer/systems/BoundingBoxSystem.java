@@ -1,13 +1,18 @@
 package games.rednblack.editor.renderer.systems;
 
 import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.PackedComponentMapper;
 import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
 import games.rednblack.editor.renderer.physics.PhysicsBodyLoader;
+import games.rednblack.editor.renderer.utils.SpatialHashGrid;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
 @All(BoundingBoxComponent.class)
@@ -20,6 +25,22 @@ public class BoundingBoxSystem extends IteratingSystem {
     protected ComponentMapper<TransformComponent> transformMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
+    protected final SpatialHashGrid spatialIndex = new SpatialHashGrid();
+    protected final IntArray newlyIndexed = new IntArray();
+    // Opt-in packed copy of the scene rectangles, see setPackedBounds
+    protected PackedComponentMapper<PackedBounds> packedBounds;
+
+    @Override
+    protected void begin() {
+        newlyIndexed.clear();
+
+        // Catch changes made by scripts and actions after the first pass
+        if (transformHierarchySystem != null)
+            transformHierarchySystem.update();
+    }
+
     @Override
     protected void process(int entity) {
         ParentNodeComponent parentNode = parentNodeMapper.get(entity);
@@ -50,7 +71,7 @@ public class BoundingBoxSystem extends IteratingSystem {
             t.y += rectangle.y;
         }
 
-        int checksum = calcCheckSum(entity, parentNode, t, d);
+        int checksum = transformHierarchySystem != null ? calcVersionCheckSum(entity, t, d) : calcCheckSum(entity, parentNode, t, d);
         if (checksum != b.checksum) {
             // Parent-local AABB using original dimensions (before polygon adjustment)
             computeParentLocalAABB(t, originalWidth, originalHeight, b);
@@ -60,7 +81,11 @@ public class BoundingBoxSystem extends IteratingSystem {
             b.points[2].set(d.width, d.height);
             b.points[3].set(0, d.height);
 
-            TransformMathUtils.localToSceneCoordinates(entity, b.points, transformMapper, parentNodeMapper);
+            if (transformHierarchySystem != null) {
+                toScene(entity, t, parentNode, b, d.polygon != null);
+            } else {
+                TransformMathUtils.localToSceneCoordinates(entity, b.points, transformMapper, parentNodeMapper);
+            }
 
             b.checksum = checksum;
 
@@ -70,6 +95,12 @@ public class BoundingBoxSystem extends IteratingSystem {
             } else {
                 b.createBoundingRect();
             }
+
+            if (!spatialIndex.contains(entity))
+                newlyIndexed.add(entity);
+            spatialIndex.update(entity, b.rectangle);
+            if (packedBounds != null)
+                packedBounds.create(entity).set(b.rectangle);
         }
 
         if (d.polygon != null) {
@@ -80,6 +111,75 @@ public class BoundingBoxSystem extends IteratingSystem {
         }
     }
 
+    @Override
+    protected void removed(int entity) {
+        spatialIndex.remove(entity);
+        if (packedBounds != null)
+            packedBounds.remove(entity);
+    }
+
+    /**
+     * Keep a copy of the scene rectangles packed by entity id, read by {@link CullingSystem} in ascending id order
+     * instead of going through {@link BoundingBoxComponent}. Pays off on large scenes, disabled by default.
+     */
+    public void setPackedBounds(boolean enabled) {
+        if (!enabled) {
+            packedBounds = null;
+            return;
+        }
+        if (packedBounds != null) return;
+
+        packedBounds = new PackedComponentMapper<>(new PackedBounds());
+        IntBag entities = getEntityIds();
+        int[] ids = entities.getData();
+        for (int i = 0, n = entities.size(); i < n; i++) {
+            int entity = ids[i];
+            if (spatialIndex.contains(entity))
+                packedBounds.create(entity).set(boundingBoxMapper.get(entity).rectangle);
+        }
+    }
+
+    /**
+     * Scene space index of the entities bounding rectangles, usable for point/rect picking.
+     */
+    public SpatialHashGrid getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Scene bounding rectangles of the indexed entities packed by entity id, null unless enabled with
+     * {@link #setPackedBounds(boolean)}.
+     */
+    public PackedComponentMapper<PackedBounds> getPackedBounds() {
+        return packedBounds;
+    }
+
+    /**
+     * Entities that entered the spatial index during the current frame.
+     */
+    public IntArray getNewlyIndexed() {
+        return newlyIndexed;
+    }
+
+    /**
+     * Map the bounding points to the scene with the cached scene transforms. Polygon adjusted bounds shift the entity
+     * in parent space, so they go through the parent's transform instead of the entity's.
+     */
+    private void toScene(int entity, TransformComponent t, ParentNodeComponent parentNode, BoundingBoxComponent b, boolean polygonAdjusted) {
+        if (!polygonAdjusted) {
+            for (Vector2 point : b.points) {
+                TransformMathUtils.localToSceneCoordinates(t, point);
+            }
+            return;
+        }
+
+        TransformComponent parent = parentNode != null && parentNode.parentEntity != -1 ? transformMapper.get(parentNode.parentEntity) : null;
+        for (Vector2 point : b.points) {
+            TransformMathUtils.localToParentCoordinates(entity, point, transformMapper);
+            if (parent != null) TransformMathUtils.localToSceneCoordinates(parent, point);
+        }
+    }
+
     /**
      * Computes the axis-aligned bounding box in parent-local space as offsets
      * from (t.x, t.y).  Uses original (non-polygon-adjusted) dimensions so
@@ -117,6 +217,22 @@ public class BoundingBoxSystem extends IteratingSystem {
         b.parentLocalAABB.set(minX, minY, maxX - minX, maxY - minY);
     }
 
+    /**
+     * World version already accounts for the whole parent chain, see {@link TransformHierarchySystem}.
+     */
+    private int calcVersionCheckSum(int entity, TransformComponent t, DimensionsComponent d) {
+        PhysicsBodyComponent p = physicsMapper.get(entity);
+        int checksum = t.worldVersion * 2 + (p != null && p.fineBoundBox ? 1 : 0);
+        if (d.polygon != null) {
+            // Polygon adjusted bounds are not tracked by the hierarchy
+            checksum += Float.floatToRawIntBits(t.x) * 11
+                    + Float.floatToRawIntBits(t.y) * 13
+                    + Float.floatToRawIntBits(d.width) * 23
+                    + Float.floatToRawIntBits(d.height) * 29;
+        }
+        return checksum;
+    }
+
     private int calcCheckSum(int entity, ParentNodeComponent parentNode, TransformComponent t, DimensionsComponent d) {
         PhysicsBodyComponent p = physicsMapper.get(entity);
 
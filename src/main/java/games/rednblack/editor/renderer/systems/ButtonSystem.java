@@ -9,13 +9,14 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector2;
 import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.additional.ButtonComponent;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
-import games.rednblack.editor.renderer.utils.ZSortComparator;
 
 @All(ButtonComponent.class)
 public class ButtonSystem extends BaseEntitySystem {
 
-    private final ZSortComparator zSortComparator = new ZSortComparator();
+    private final SnapshotIntArray sorted = new SnapshotIntArray(false, 16);
+    private long[] sortKeys = new long[16];
 
     protected ComponentMapper<ZIndexComponent> zIndexMapper;
     protected ComponentMapper<ButtonComponent> buttonComponentMapper;
@@ -27,6 +28,8 @@ public class ButtonSystem extends BaseEntitySystem {
     protected ComponentMapper<TransformComponent> transformMapper;
     protected ComponentMapper<ParentNodeComponent> parentMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
     private final Vector2 tmp = new Vector2();
 
     private int inputHoldEntity = -1;
@@ -42,10 +45,20 @@ public class ButtonSystem extends BaseEntitySystem {
     protected final void processSystem() {
         IntBag actives = subscription.getEntities();
         int[] ids = actives.getData();
-        zSortComparator.setzIndexMapper(zIndexMapper);
-        zSortComparator.quickSort(ids, actives.size());
-        for (int i = actives.size() - 1; i >= 0; i--) {
-            process(ids[i]);
+        int size = actives.size();
+        if (sortKeys.length < size) sortKeys = new long[Math.max(size, sortKeys.length * 2)];
+
+        sorted.clear();
+        sorted.addAll(ids, 0, size);
+        for (int i = 0; i < size; i++) {
+            ZIndexComponent zIndexComponent = zIndexMapper.get(ids[i]);
+            sortKeys[i] = ((long) zIndexComponent.layerIndex << 32) + zIndexComponent.getZIndex();
+        }
+        sorted.sortByKeys(sortKeys);
+
+        int[] items = sorted.items;
+        for (int i = size - 1; i >= 0; i--) {
+            process(items[i]);
         }
     }
 
@@ -57,7 +70,7 @@ public class ButtonSystem extends BaseEntitySystem {
         if (camera != null) {
             //Override visibility when editing the button
             for (int i = 0; i < nodeComponent.children.size; i++) {
-                Integer childEntity = nodeComponent.children.get(i);
+                int childEntity = nodeComponent.children.get(i);
                 MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
                 childMainItemComponent.visible = true;
             }
@@ -77,7 +90,7 @@ public class ButtonSystem extends BaseEntitySystem {
         boolean isTouched = isTouched(entity, buttonComponent);
         boolean isChecked = buttonComponent.isChecked;
         for (int i = 0; i < nodeComponent.children.size; i++) {
-            Integer childEntity = nodeComponent.children.get(i);
+            int childEntity = nodeComponent.children.get(i);
             MainItemComponent childMainItemComponent = mainItemComponentMapper.get(childEntity);
             ZIndexComponent childZComponent = zIndexComponentMapper.get(childEntity);
             if (isTouched) {
@@ -109,7 +122,7 @@ public class ButtonSystem extends BaseEntitySystem {
             DimensionsComponent dimensionsComponent = dimensionsComponentMapper.get(entity);
             tmp.set(Gdx.input.getX(), Gdx.input.getY());
 
-            TransformMathUtils.globalToLocalCoordinates(entity, tmp, transformMapper, parentMapper, viewPortComponentMapper);
+            globalToLocal(entity, tmp);
 
             if (dimensionsComponent.hit(tmp.x, tmp.y)) {
                 setTouchState(buttonComponent, true, entity);
@@ -121,6 +134,13 @@ public class ButtonSystem extends BaseEntitySystem {
         return false;
     }
 
+    private void globalToLocal(int entity, Vector2 coords) {
+        if (transformHierarchySystem != null)
+            TransformMathUtils.globalToLocalCoordinates(entity, coords, transformMapper.get(entity), transformMapper, parentMapper, viewPortComponentMapper);
+        else
+            TransformMathUtils.globalToLocalCoordinates(entity, coords, transformMapper, parentMapper, viewPortComponentMapper);
+    }
+
     public void setTouchState(ButtonComponent buttonComponent, boolean isTouched, int entity) {
         if (!buttonComponent.isTouched && isTouched) {
             for (int i = 0; i < buttonComponent.listeners.size; i++) {
@@ -130,7 +150,7 @@ public class ButtonSystem extends BaseEntitySystem {
         if (buttonComponent.isTouched && !isTouched) {
             DimensionsComponent dimensionsComponent = dimensionsComponentMapper.get(entity);
             tmp.set(Gdx.input.getX(), Gdx.input.getY());
-            TransformMathUtils.globalToLocalCoordinates(entity, tmp, transformMapper, parentMapper, viewPortComponentMapper);
+            globalToLocal(entity, tmp);
             boolean hitEntity = dimensionsComponent.hit(tmp.x, tmp.y);
 
             for (int i = 0; i < buttonComponent.listeners.size; i++) {
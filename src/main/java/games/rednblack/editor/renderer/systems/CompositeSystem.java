@@ -5,8 +5,8 @@ import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.math.Matrix3;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.SnapshotArray;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 import games.rednblack.editor.renderer.utils.TransformMathUtils;
 
 @All(CompositeTransformComponent.class)
@@ -18,6 +18,8 @@ public class CompositeSystem extends IteratingSystem {
     protected ComponentMapper<CompositeTransformComponent> compositeMapper;
     protected ComponentMapper<ViewPortComponent> viewPortComponentMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
     private DimensionsComponent dimensionsComponent;
     private NodeComponent nodeComponent;
 
@@ -48,10 +50,10 @@ public class CompositeSystem extends IteratingSystem {
         if (compositeTransformComponent != null) {
 
             if (compositeTransformComponent.automaticResize && viewPortComponent == null) {
-                int checksum = calcCheckSum(transformComponent);
+                int checksum = transformHierarchySystem != null ? calcVersionCheckSum(transformComponent) : calcCheckSum(transformComponent);
                 if (checksum != compositeTransformComponent.checksum) {
                     compositeTransformComponent.checksum = checksum;
-                    recalculateSize();
+                    recalculateSize(entity);
                 }
             }
 
@@ -59,6 +61,13 @@ public class CompositeSystem extends IteratingSystem {
         }
     }
 
+    /**
+     * Children changes are tracked by {@link TransformHierarchySystem}, no need to hash them.
+     */
+    private int calcVersionCheckSum(TransformComponent t) {
+        return t.localVersion * 31 + nodeComponent.childrenVersion;
+    }
+
     private int calcCheckSum(TransformComponent t) {
         DimensionsComponent d = dimensionsComponent;
 
@@ -74,9 +83,9 @@ public class CompositeSystem extends IteratingSystem {
                 + Float.floatToRawIntBits(t.originY) * 19
                 + Float.floatToRawIntBits(d.width) * 23
                 + Float.floatToRawIntBits(d.height) * 29;
-        Integer[] children = nodeComponent.children.begin();
+        int[] children = nodeComponent.children.begin();
         for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
-            Integer child = children[i];
+            int child = children[i];
             TransformComponent pt = transformMapper.get(child);
             DimensionsComponent dt = dimensionsMapper.get(child);
             if (pt == null || dt == null)
@@ -97,13 +106,15 @@ public class CompositeSystem extends IteratingSystem {
         return checksum;
     }
 
-    private void recalculateSize() {
+    private void recalculateSize(int compositeEntity) {
         float lowerX = Float.MAX_VALUE;
         float lowerY = Float.MAX_VALUE;
         float upperX = Float.MIN_VALUE;
         float upperY = Float.MIN_VALUE;
-        SnapshotArray<Integer> entities = nodeComponent.children;
-        for (Integer entity : entities) {
+        SnapshotIntArray entities = nodeComponent.children;
+        int[] items = entities.items;
+        for (int i = 0, n = entities.size; i < n; i++) {
+            int entity = items[i];
             TransformComponent transformComponent = transformMapper.get(entity);
             DimensionsComponent childDimCom = dimensionsMapper.get(entity);
             float x = transformComponent.x;
@@ -131,11 +142,13 @@ public class CompositeSystem extends IteratingSystem {
             upperY = getY(MinMaxOp.MAX, tmpVectorArray);
         }
 
-        for (Integer entity : entities) {
+        for (int i = 0, n = entities.size; i < n; i++) {
             if (lowerX == 0 && lowerY == 0) break;
+            int entity = items[i];
             TransformComponent transformComponent = transformMapper.get(entity);
             transformComponent.x -= lowerX;
             transformComponent.y -= lowerY;
+            if (transformHierarchySystem != null) transformHierarchySystem.invalidate(entity);
         }
 
         dimensionsComponent.width = Math.max((upperX - lowerX), 0);
@@ -143,6 +156,8 @@ public class CompositeSystem extends IteratingSystem {
         lowerX = 0;
         lowerY = 0;
         dimensionsComponent.boundBox.set(lowerX, lowerY, dimensionsComponent.width, dimensionsComponent.height);
+
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidate(compositeEntity);
     }
 
     private float getX(MinMaxOp op, Vector2[] points) {
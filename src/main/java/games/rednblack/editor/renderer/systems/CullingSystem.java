@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.systems;
 
 import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.PackedComponentMapper;
 import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Camera;
@@ -8,7 +9,10 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Frustum;
 import com.badlogic.gdx.math.Plane;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntArray;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
 
 @All(ViewPortComponent.class)
 public class CullingSystem extends IteratingSystem {
@@ -19,12 +23,28 @@ public class CullingSystem extends IteratingSystem {
     protected ComponentMapper<NodeComponent> nodeMapper;
     protected ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
     protected ComponentMapper<MainItemComponent> mainItemMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
+
+    protected BoundingBoxSystem boundingBoxSystem;
 
     private Camera camera;
 
-    private final ShapeRenderer shapeRenderer = new ShapeRenderer();
+    private final Rectangle frustumBounds = new Rectangle();
+    private final IntArray candidates = new IntArray();
+    private IntArray visibleEntities = new IntArray();
+    private IntArray lastVisibleEntities = new IntArray();
+    private final BitVector visible = new BitVector();
+
+    // Created on first debug draw, so the system works without a GL context
+    private ShapeRenderer shapeRenderer;
     private float ppwu = 1;
 
+    @Override
+    protected void begin() {
+        visible.clear();
+        visibleEntities.clear();
+    }
+
     @Override
     protected void process(int entity) {
         ViewPortComponent viewPort = viewPortMapper.get(entity);
@@ -35,23 +55,158 @@ public class CullingSystem extends IteratingSystem {
         m.culled = false;
 
         if (debug) {
+            if (shapeRenderer == null) shapeRenderer = new ShapeRenderer();
             shapeRenderer.setProjectionMatrix(camera.combined);
             shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
         }
 
-        NodeComponent node = nodeMapper.get(entity);
-        Integer[] children = node.children.begin();
-        for (int i = 0, n = node.children.size; i < n; i++) {
-            Integer child = children[i];
-            cull(child);
+        if (boundingBoxSystem != null) {
+            cullIndexed(entity);
+        } else {
+            NodeComponent node = nodeMapper.get(entity);
+            int[] children = node.children.begin();
+            for (int i = 0, n = node.children.size; i < n; i++) {
+                int child = children[i];
+                cull(child);
+            }
+            node.children.end();
         }
-        node.children.end();
 
         if (debug)
             shapeRenderer.end();
     }
 
-    void cull(Integer entity) {
+    @Override
+    protected void end() {
+        if (boundingBoxSystem == null) return;
+
+        //Entities that were visible in the previous frame, or just entered the index, and are not visible anymore
+        cullMissing(lastVisibleEntities);
+        cullMissing(boundingBoxSystem.getNewlyIndexed());
+
+        IntArray tmp = lastVisibleEntities;
+        lastVisibleEntities = visibleEntities;
+        visibleEntities = tmp;
+    }
+
+    /**
+     * Query the spatial index for the entities overlapping the camera frustum, the hierarchy is respected by the
+     * renderer that does not step into culled composites. The index is shared, with several viewports only the
+     * descendants of the current one are kept.
+     * <p>
+     * With packed bounds the candidates are sorted, so the frustum test streams through the packed array in ascending
+     * entity order and only visible entities touch their components.
+     */
+    private void cullIndexed(int viewPortEntity) {
+        Frustum frustum = camera.frustum;
+        computeFrustumBounds(frustum);
+
+        candidates.clear();
+        boundingBoxSystem.getSpatialIndex().query(frustumBounds, candidates);
+
+        boolean filterViewPort = getEntityIds().size() > 1;
+        PackedComponentMapper<PackedBounds> packedBounds = boundingBoxSystem.getPackedBounds();
+        if (packedBounds != null) {
+            cullPacked(viewPortEntity, frustum, packedBounds, filterViewPort);
+            return;
+        }
+
+        int[] items = candidates.items;
+        for (int i = 0, n = candidates.size; i < n; i++) {
+            int candidate = items[i];
+            if (viewPortMapper.has(candidate)) continue;
+            if (filterViewPort && !isDescendant(candidate, viewPortEntity)) continue;
+
+            BoundingBoxComponent b = boundingBoxMapper.get(candidate);
+            MainItemComponent m = mainItemMapper.get(candidate);
+            if (b == null || m == null || !boundsInFrustum(frustum, b.rectangle)) continue;
+
+            markVisible(candidate, m);
+
+            if (debug) {
+                drawDebug(b);
+            }
+        }
+    }
+
+    private void cullPacked(int viewPortEntity, Frustum frustum, PackedComponentMapper<PackedBounds> packedBounds, boolean filterViewPort) {
+        candidates.sort();
+
+        float[] bounds = packedBounds.getData();
+        int[] items = candidates.items;
+        for (int i = 0, n = candidates.size; i < n; i++) {
+            int candidate = items[i];
+            if (!packedBounds.has(candidate)) continue;
+
+            int offset = candidate * PackedBounds.STRIDE;
+            if (!boundsInFrustum(frustum, bounds[offset + PackedBounds.X], bounds[offset + PackedBounds.Y],
+                    bounds[offset + PackedBounds.WIDTH], bounds[offset + PackedBounds.HEIGHT])) continue;
+
+            if (viewPortMapper.has(candidate)) continue;
+            if (filterViewPort && !isDescendant(candidate, viewPortEntity)) continue;
+
+            MainItemComponent m = mainItemMapper.get(candidate);
+            if (m == null) continue;
+
+            markVisible(candidate, m);
+
+            if (debug) {
+                drawDebug(boundingBoxMapper.get(candidate));
+            }
+        }
+    }
+
+    private void markVisible(int entity, MainItemComponent m) {
+        m.culled = false;
+        if (!visible.get(entity)) {
+            visible.set(entity);
+            visibleEntities.add(entity);
+        }
+    }
+
+    private boolean isDescendant(int entity, int ancestor) {
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        while (parentNode != null && parentNode.parentEntity != -1) {
+            if (parentNode.parentEntity == ancestor) return true;
+            parentNode = parentNodeMapper.get(parentNode.parentEntity);
+        }
+        return false;
+    }
+
+    private void cullMissing(IntArray entities) {
+        int[] items = entities.items;
+        for (int i = 0, n = entities.size; i < n; i++) {
+            int entity = items[i];
+            if (visible.get(entity) || !boundingBoxSystem.getSpatialIndex().contains(entity) || viewPortMapper.has(entity))
+                continue;
+
+            MainItemComponent m = mainItemMapper.get(entity);
+            if (m != null) m.culled = true;
+        }
+    }
+
+    private void computeFrustumBounds(Frustum frustum) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (Vector3 point : frustum.planePoints) {
+            minX = Math.min(minX, point.x);
+            minY = Math.min(minY, point.y);
+            maxX = Math.max(maxX, point.x);
+            maxY = Math.max(maxY, point.y);
+        }
+        frustumBounds.set(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private void drawDebug(BoundingBoxComponent b) {
+        shapeRenderer.rect(b.rectangle.x, b.rectangle.y, b.rectangle.width, b.rectangle.height);
+
+        shapeRenderer.circle(b.points[0].x, b.points[0].y, 5 / ppwu, 10);
+        shapeRenderer.circle(b.points[1].x, b.points[1].y, 5 / ppwu, 10);
+        shapeRenderer.circle(b.points[2].x, b.points[2].y, 5 / ppwu, 10);
+        shapeRenderer.circle(b.points[3].x, b.points[3].y, 5 / ppwu, 10);
+    }
+
+    void cull(int entity) {
         BoundingBoxComponent b = boundingBoxMapper.get(entity);
         MainItemComponent m = mainItemMapper.get(entity);
         if (b == null) {
@@ -62,21 +217,16 @@ public class CullingSystem extends IteratingSystem {
         Frustum frustum = camera.frustum;
         m.culled = !boundsInFrustum(frustum, b.rectangle);
         if (debug) {
-            shapeRenderer.rect(b.rectangle.x, b.rectangle.y, b.rectangle.width, b.rectangle.height);
-
-            shapeRenderer.circle(b.points[0].x, b.points[0].y, 5 / ppwu, 10);
-            shapeRenderer.circle(b.points[1].x, b.points[1].y, 5 / ppwu, 10);
-            shapeRenderer.circle(b.points[2].x, b.points[2].y, 5 / ppwu, 10);
-            shapeRenderer.circle(b.points[3].x, b.points[3].y, 5 / ppwu, 10);
+            drawDebug(b);
         }
 
         if (!m.culled) {
             NodeComponent node = nodeMapper.get(entity);
 
             if (node != null) {
-                Integer[] children = node.children.begin();
+                int[] children = node.children.begin();
                 for (int i = 0, n = node.children.size; i < n; i++) {
-                    Integer child = children[i];
+                    int child = children[i];
                     cull(child);
                 }
                 node.children.end();
@@ -85,11 +235,15 @@ public class CullingSystem extends IteratingSystem {
     }
 
     public boolean boundsInFrustum(Frustum frustum, Rectangle b) {
+        return boundsInFrustum(frustum, b.x, b.y, b.width, b.height);
+    }
+
+    public boolean boundsInFrustum(Frustum frustum, float x, float y, float width, float height) {
         for (int i = 0, len2 = frustum.planes.length; i < len2; i++) {
-            if (frustum.planes[i].testPoint(b.x, b.y, 0) != Plane.PlaneSide.Back) continue;
-            if (frustum.planes[i].testPoint(b.x + b.width, b.y, 0) != Plane.PlaneSide.Back) continue;
-            if (frustum.planes[i].testPoint(b.x + b.width, b.y + b.height, 0) != Plane.PlaneSide.Back) continue;
-            if (frustum.planes[i].testPoint(b.x, b.y + b.height, 0) != Plane.PlaneSide.Back) continue;
+            if (frustum.planes[i].testPoint(x, y, 0) != Plane.PlaneSide.Back) continue;
+            if (frustum.planes[i].testPoint(x + width, y, 0) != Plane.PlaneSide.Back) continue;
+            if (frustum.planes[i].testPoint(x + width, y + height, 0) != Plane.PlaneSide.Back) continue;
+            if (frustum.planes[i].testPoint(x, y + height, 0) != Plane.PlaneSide.Back) continue;
             return false;
         }
 
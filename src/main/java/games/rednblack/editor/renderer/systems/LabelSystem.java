@@ -5,34 +5,75 @@ import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.utils.Align;
 import games.rednblack.editor.renderer.components.DimensionsComponent;
 import games.rednblack.editor.renderer.components.label.LabelComponent;
+import games.rednblack.editor.renderer.utils.GlyphLayoutCache;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentAccess;
 
+/**
+ * Lays out label text into the label's {@link com.badlogic.gdx.graphics.g2d.BitmapFontCache}.
+ * <p>
+ * Labels are laid out again only when text, dimensions, alignment, wrap, font scale or style change. Layouts of
+ * labels with stable text are shared through a {@link GlyphLayoutCache}, labels whose text changes reuse their own.
+ */
 @All(LabelComponent.class)
+@ConcurrentAccess(reads = DimensionsComponent.class, writes = LabelComponent.class)
 public class LabelSystem extends IteratingSystem {
 	protected ComponentMapper<LabelComponent> labelComponentMapper;
 	protected ComponentMapper<DimensionsComponent> dimensionComponentMapper;
 
+	protected final GlyphLayoutCache glyphLayoutCache = new GlyphLayoutCache();
+
 	@Override
 	protected void process(int entity) {
 		LabelComponent labelComponent = labelComponentMapper.get(entity);
-		if (labelComponent.typingEffect)
+		if (labelComponent.typingEffect) {
+			// Typing effect owns the layout, never hand it a shared one
+			if (labelComponent.sharedLayout) {
+				labelComponent.layout = labelComponent.ownLayout;
+				labelComponent.sharedLayout = false;
+			}
+			labelComponent.layoutChecksum = 0;
 			return;
+		}
 		DimensionsComponent dimensionsComponent = dimensionComponentMapper.get(entity);
 		
 		BitmapFont font = labelComponent.cache.getFont();
+
+		int checksum = calcCheckSum(labelComponent, dimensionsComponent, font);
+		if (checksum != 0 && checksum == labelComponent.layoutChecksum)
+			return;
+		boolean laidOut = labelComponent.layoutChecksum != 0;
+		labelComponent.layoutChecksum = checksum;
 		
 		float oldScaleX = font.getScaleX();
 		float oldScaleY = font.getScaleY();
 		float fontScaleX = labelComponent.fontScaleX;
 		float fontScaleY = labelComponent.fontScaleY;
 		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(fontScaleX, fontScaleY);
+
+		// Changing text, like scores or timers, would fill the cache with layouts used once
+		int textHash = labelComponent.text.hashCode();
+		if (laidOut && textHash != labelComponent.textHash) labelComponent.dynamicText = true;
+		labelComponent.textHash = textHash;
+
+		GlyphLayout layout;
+		if (labelComponent.dynamicText) {
+			layout = labelComponent.ownLayout;
+			layout.setText(font, labelComponent.text, 0, labelComponent.text.size, Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
+			labelComponent.sharedLayout = false;
+		} else {
+			layout = glyphLayoutCache.obtain(font, labelComponent.text, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap);
+			labelComponent.sharedLayout = true;
+		}
+		labelComponent.layout = layout;
 		
 		//horisontal Align
 		
-		float textWidth = labelComponent.layout.width;
-		float textHeight = labelComponent.layout.height;
+		float textWidth = layout.width;
+		float textHeight = layout.height;
 		float textX = 0;
 		
 		/*if (labelComponent.wrap || labelComponent.text.indexOf("\n") != -1) {
@@ -61,11 +102,25 @@ public class LabelSystem extends IteratingSystem {
 			textY += (dimensionsComponent.height - textHeight) / 2;
 		}
 		
-		labelComponent.layout.setText(font, labelComponent.text, 0, labelComponent.text.length(), Color.WHITE, dimensionsComponent.width, labelComponent.lineAlign, labelComponent.wrap, null);
-		labelComponent.cache.setText(labelComponent.layout, textX, textY);
+		labelComponent.cache.setText(layout, textX, textY);
 		
 		if (fontScaleX != 1 || fontScaleY != 1) font.getData().setScale(oldScaleX, oldScaleY);
 	}
+
+	private int calcCheckSum(LabelComponent labelComponent, DimensionsComponent dimensionsComponent, BitmapFont font) {
+		int checksum = labelComponent.text.hashCode();
+		checksum = 31 * checksum + Float.floatToRawIntBits(dimensionsComponent.width);
+		checksum = 31 * checksum + Float.floatToRawIntBits(dimensionsComponent.height);
+		checksum = 31 * checksum + labelComponent.labelAlign;
+		checksum = 31 * checksum + labelComponent.lineAlign;
+		checksum = 31 * checksum + (labelComponent.wrap ? 1 : 0);
+		checksum = 31 * checksum + Float.floatToRawIntBits(labelComponent.fontScaleX);
+		checksum = 31 * checksum + Float.floatToRawIntBits(labelComponent.fontScaleY);
+		// A new style comes with a new font cache
+		checksum = 31 * checksum + System.identityHashCode(labelComponent.cache);
+		checksum = 31 * checksum + System.identityHashCode(font);
+		return checksum;
+	}
 	
 //	private void scaleAndComputePrefSize () {
 //		BitmapFont font = labelComponent.cache.getFont();
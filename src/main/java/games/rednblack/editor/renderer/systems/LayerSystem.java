@@ -3,15 +3,21 @@ package games.rednblack.editor.renderer.systems;
 import games.rednblack.editor.renderer.ecs.ComponentMapper;
 import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
-import com.badlogic.gdx.utils.SnapshotArray;
 import games.rednblack.editor.renderer.components.*;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
-import java.util.Comparator;
-
+/**
+ * Keeps composite children ordered by layer and z-index.
+ * <p>
+ * Children are sorted only when their composite is marked with {@link NodeComponent#zOrderDirty}, that is when children
+ * are added or removed, when a {@link ZIndexComponent} changes z-index or layer, or when the {@link LayerMapComponent}
+ * layers change. Unchanged composites are skipped without visiting their children.
+ * Sorting is done on packed (layerIndex, zIndex) keys, with no component lookups while comparing.
+ */
 @All(CompositeTransformComponent.class)
 public class LayerSystem extends IteratingSystem {
 
-    private final Comparator<Integer> comparator = new ZComparator();
+    private long[] sortKeys = new long[16];
 
     protected ComponentMapper<ZIndexComponent> zIndexMapper;
     protected ComponentMapper<LayerMapComponent> layerMapper;
@@ -24,9 +30,10 @@ public class LayerSystem extends IteratingSystem {
         if (nodeComponent.children.size != nodeComponent.persistentChildren.size()) {
             for(int i = 0; i < nodeComponent.persistentChildren.size(); i ++) {
                 int entityID = nodeComponent.persistentChildren.get(i);
-                if(!nodeComponent.children.contains(entityID, false))
+                if(!nodeComponent.children.contains(entityID))
                     nodeComponent.children.add(entityID);
             }
+            nodeComponent.zOrderDirty = true;
         }
         MainItemComponent mainItemComponent = mainMapper.get(entityId);
         if (mainItemComponent.culled) {
@@ -34,19 +41,30 @@ public class LayerSystem extends IteratingSystem {
         }
 
         LayerMapComponent layerMapComponent = layerMapper.get(entityId);
-        updateLayers(nodeComponent.children, layerMapComponent);
+        int layersChecksum = calcLayersChecksum(layerMapComponent);
+        if (!nodeComponent.zOrderDirty && layersChecksum == nodeComponent.zOrderChecksum) {
+            return;
+        }
+
+        updateLayers(nodeComponent, layerMapComponent);
 
         sort(nodeComponent.children);
 
         if (layerMapComponent.autoIndexing) {
             updateZIndices(nodeComponent.children);
         }
+
+        // Z-indices set above mark the node again
+        nodeComponent.zOrderDirty = false;
+        nodeComponent.zOrderChecksum = layersChecksum;
     }
 
-    private void updateLayers(SnapshotArray<Integer> children, LayerMapComponent layerMapComponent) {
+    private void updateLayers(NodeComponent nodeComponent, LayerMapComponent layerMapComponent) {
+        SnapshotIntArray children = nodeComponent.children;
         for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+            int entity = children.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
+            zindexComponent.parentNode = nodeComponent;
             zindexComponent.layerIndex = getLayerIndexByName(zindexComponent.layerHash, layerMapComponent);
             if (zindexComponent.needReOrder && layerMapComponent.autoIndexing) {
                 if (zindexComponent.getZIndex() < 0) throw new IllegalArgumentException("ZIndex cannot be < 0.");
@@ -55,7 +73,7 @@ public class LayerSystem extends IteratingSystem {
                     zindexComponent.needReOrder = false;
                     return;
                 }
-                if (!children.removeValue(entity, true)) return;
+                if (!children.removeValue(entity)) return;
                 if (zindexComponent.getZIndex() >= children.size)
                     children.add(entity);
                 else
@@ -64,17 +82,31 @@ public class LayerSystem extends IteratingSystem {
         }
     }
 
-    private void updateZIndices(SnapshotArray<Integer> children) {
+    private void updateZIndices(SnapshotIntArray children) {
         for (int i = 0; i < children.size; i++) {
-            Integer entity = children.get(i);
+            int entity = children.get(i);
             ZIndexComponent zindexComponent = zIndexMapper.get(entity);
-            zindexComponent.setZIndex(i);
+            if (zindexComponent.getZIndex() != i)
+                zindexComponent.setZIndex(i);
             zindexComponent.needReOrder = false;
         }
     }
 
-    private void sort(SnapshotArray<Integer> children) {
-        children.sort(comparator);
+    private void sort(SnapshotIntArray children) {
+        if (sortKeys.length < children.size) sortKeys = new long[Math.max(children.size, sortKeys.length * 2)];
+
+        long[] keys = sortKeys;
+        int[] items = children.items;
+        for (int i = 0, n = children.size; i < n; i++) {
+            ZIndexComponent zIndexComponent = zIndexMapper.get(items[i]);
+            // Adding a signed z-index to the shifted layer index keeps (layer, z) lexicographic order
+            keys[i] = ((long) zIndexComponent.layerIndex << 32) + zIndexComponent.getZIndex();
+        }
+        children.sortByKeys(keys);
+    }
+
+    private int calcLayersChecksum(LayerMapComponent layerMapComponent) {
+        return layerMapComponent != null ? layerMapComponent.version * 2 + (layerMapComponent.autoIndexing ? 1 : 0) : 0;
     }
 
     private int getLayerIndexByName(int layerNameHashCode, LayerMapComponent layerMapComponent) {
@@ -84,13 +116,4 @@ public class LayerSystem extends IteratingSystem {
         return layerMapComponent.getIndexByName(layerNameHashCode);
     }
 
-    private class ZComparator implements Comparator<Integer> {
-        @Override
-        public int compare(Integer e1, Integer e2) {
-            ZIndexComponent zIndexComponent1 = zIndexMapper.get(e1);
-            ZIndexComponent zIndexComponent2 = zIndexMapper.get(e2);
-            return zIndexComponent1.layerIndex == zIndexComponent2.layerIndex ? Integer.signum(zIndexComponent1.getZIndex() - zIndexComponent2.getZIndex()) : Integer.signum(zIndexComponent1.layerIndex - zIndexComponent2.layerIndex);
-        }
-    }
-
 }
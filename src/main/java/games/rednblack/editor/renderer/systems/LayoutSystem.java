@@ -20,7 +20,9 @@ import games.rednblack.editor.renderer.ecs.utils.IntBag;
  * guaranteeing stable positioning without cross-frame oscillation.
  *
  * A per-entity checksum (similar to {@link BoundingBoxSystem}) skips
- * recalculation when none of the inputs have changed.
+ * recalculation when none of the inputs have changed. Transform and
+ * dimension changes of the entity and its siblings are read from the
+ * versions kept by {@link TransformHierarchySystem} when available.
  *
  * Constraints are resolved relative to parent-local axis-aligned
  * bounding boxes (AABB) from {@link BoundingBoxComponent#parentLocalAABB}
@@ -40,6 +42,8 @@ public class LayoutSystem extends BaseEntitySystem {
     protected ComponentMapper<MainItemComponent> mainItemMapper;
     protected ComponentMapper<BoundingBoxComponent> boundingBoxMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
     // Topological sort structures – reused to avoid allocations
     private final IntArray sortedEntities = new IntArray();
     private final IntArray queue = new IntArray();
@@ -286,6 +290,9 @@ public class LayoutSystem extends BaseEntitySystem {
         processHorizontal(layout, transform, dimensions, bb, parentDimensions, skipCycleDeps, visible);
         processVertical(layout, transform, dimensions, bb, parentDimensions, skipCycleDeps, visible);
 
+        // Let dependents processed later in this pass see the new position
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidate(entity);
+
         layout.checksum = calcChecksum(layout, transform, dimensions, parentDimensions, bb, skipCycleDeps, visible);
     }
 
@@ -440,22 +447,26 @@ public class LayoutSystem extends BaseEntitySystem {
     private int calcChecksum(LayoutComponent layout, TransformComponent transform,
                               DimensionsComponent dimensions, DimensionsComponent parentDimensions,
                               BoundingBoxComponent bb, boolean skipCycleDeps, boolean visible) {
-        float scaleX = transform.scaleX * (transform.flipX ? -1 : 1);
-        float scaleY = transform.scaleY * (transform.flipY ? -1 : 1);
         int cs = (visible ? 0 : 137)
                 + Float.floatToRawIntBits(layout.horizontalBias) * 3
                 + Float.floatToRawIntBits(layout.verticalBias) * 7
-                + Float.floatToRawIntBits(dimensions.width) * 11
-                + Float.floatToRawIntBits(dimensions.height) * 13
                 + Float.floatToRawIntBits(parentDimensions.width) * 17
-                + Float.floatToRawIntBits(parentDimensions.height) * 19
-                + Float.floatToRawIntBits(transform.x) * 71
-                + Float.floatToRawIntBits(transform.y) * 73
-                + Float.floatToRawIntBits(transform.rotation) * 83
-                + Float.floatToRawIntBits(scaleX) * 89
-                + Float.floatToRawIntBits(scaleY) * 97
-                + Float.floatToRawIntBits(transform.originX) * 101
-                + Float.floatToRawIntBits(transform.originY) * 103;
+                + Float.floatToRawIntBits(parentDimensions.height) * 19;
+        if (transformHierarchySystem != null) {
+            cs += transform.localVersion * 71;
+        } else {
+            float scaleX = transform.scaleX * (transform.flipX ? -1 : 1);
+            float scaleY = transform.scaleY * (transform.flipY ? -1 : 1);
+            cs += Float.floatToRawIntBits(dimensions.width) * 11
+                    + Float.floatToRawIntBits(dimensions.height) * 13
+                    + Float.floatToRawIntBits(transform.x) * 71
+                    + Float.floatToRawIntBits(transform.y) * 73
+                    + Float.floatToRawIntBits(transform.rotation) * 83
+                    + Float.floatToRawIntBits(scaleX) * 89
+                    + Float.floatToRawIntBits(scaleY) * 97
+                    + Float.floatToRawIntBits(transform.originX) * 101
+                    + Float.floatToRawIntBits(transform.originY) * 103;
+        }
         if (bb != null) cs += bb.checksum * 79;
 
         cs += constraintChecksum(layout.left, skipCycleDeps) * 23;
@@ -482,7 +493,9 @@ public class LayoutSystem extends BaseEntitySystem {
             if (sibMic != null && !sibMic.visible) cs += 139;
             TransformComponent st = transformMapper.get(data.targetEntity);
             DimensionsComponent sd = dimensionsMapper.get(data.targetEntity);
-            if (st != null && sd != null) {
+            if (st != null && transformHierarchySystem != null) {
+                cs += st.localVersion * 53;
+            } else if (st != null && sd != null) {
                 float stScaleX = st.scaleX * (st.flipX ? -1 : 1);
                 float stScaleY = st.scaleY * (st.flipY ? -1 : 1);
                 cs += Float.floatToRawIntBits(st.x) * 53
@@ -538,7 +551,8 @@ public class LayoutSystem extends BaseEntitySystem {
         NodeComponent nc = nodeMapper.get(parent);
         if (nc == null) return -1;
 
-        for (int child : nc.children) {
+        for (int i = 0, n = nc.children.size; i < n; i++) {
+            int child = nc.children.get(i);
             MainItemComponent mic = mainItemMapper.get(child);
             if (mic != null && uniqueId.equals(mic.uniqueId)) {
                 return child;
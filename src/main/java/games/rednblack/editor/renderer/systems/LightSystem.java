@@ -24,6 +24,8 @@ public class LightSystem extends IteratingSystem {
     protected ComponentMapper<PolygonShapeComponent> polygonComponentMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyComponentMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
     private RayHandler rayHandler;
 
     private final Vector2 localCoord = new Vector2();
@@ -50,23 +52,30 @@ public class LightSystem extends IteratingSystem {
         lightObjectComponent.executeRefresh(entity);
         light = lightObjectComponent.lightObject;
 
-        TransformMathUtils.localToSceneCoordinates(entity, localCoord.set(0, 0), transformComponentMapper, parentNodeComponentMapper);
-        ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entity);
-
         TransformComponent transform = transformComponentMapper.get(entity);
-        float relativeRotation = transform.rotation;
+        float relativeRotation;
 
-        int parentEntity = parentNodeComponent.parentEntity;
-        TransformComponent parentTransformComponent;
-
-        while (parentEntity != -1) {
-            parentTransformComponent = transformComponentMapper.get(parentEntity);
-            relativeRotation += parentTransformComponent.rotation;
-            parentNodeComponent = parentNodeComponentMapper.get(parentEntity);
-            if (parentNodeComponent == null) {
-                break;
+        if (transformHierarchySystem != null) {
+            TransformMathUtils.localToSceneCoordinates(transform, localCoord.set(0, 0));
+            relativeRotation = transform.sceneRotation;
+        } else {
+            TransformMathUtils.localToSceneCoordinates(entity, localCoord.set(0, 0), transformComponentMapper, parentNodeComponentMapper);
+            ParentNodeComponent parentNodeComponent = parentNodeComponentMapper.get(entity);
+
+            relativeRotation = transform.rotation;
+
+            int parentEntity = parentNodeComponent.parentEntity;
+            TransformComponent parentTransformComponent;
+
+            while (parentEntity != -1) {
+                parentTransformComponent = transformComponentMapper.get(parentEntity);
+                relativeRotation += parentTransformComponent.rotation;
+                parentNodeComponent = parentNodeComponentMapper.get(parentEntity);
+                if (parentNodeComponent == null) {
+                    break;
+                }
+                parentEntity = parentNodeComponent.parentEntity;
             }
-            parentEntity = parentNodeComponent.parentEntity;
         }
 
         light.setPosition(localCoord.x, localCoord.y);
@@ -5,8 +5,10 @@ import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import games.rednblack.editor.renderer.components.particle.ParticleComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentAccess;
 
 @All(ParticleComponent.class)
+@ConcurrentAccess(writes = ParticleComponent.class)
 public class ParticleSystem extends IteratingSystem {
 
 	protected ComponentMapper<ParticleComponent> particleComponentMapper;
@@ -12,6 +12,7 @@ import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.shape.CircleShapeComponent;
 import games.rednblack.editor.renderer.components.shape.PolygonShapeComponent;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
+import games.rednblack.editor.renderer.lights.RayHandler;
 import games.rednblack.editor.renderer.physics.PhysicsBodyLoader;
 import games.rednblack.editor.renderer.physics.PhysicsContact;
 import games.rednblack.editor.renderer.scripts.BasicScript;
@@ -38,14 +39,25 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
     protected ComponentMapper<ParentNodeComponent> parentNodeComponentMapper;
     protected ComponentMapper<DimensionsComponent> dimensionsComponentMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+
     private World world;
+    private RayHandler rayHandler;
     private boolean isPhysicsOn = true;
+    private boolean hierarchyRefreshed = false;
 
     public void setBox2DWorld(World world) {
         this.world = world;
         world.setContactListener(this);
     }
 
+    /**
+     * Lights are told to cast their rays again when bodies or their fixtures are created, destroyed or refreshed.
+     */
+    public void setRayHandler(RayHandler rayHandler) {
+        this.rayHandler = rayHandler;
+    }
+
     @Override
     protected final void processSystem() {
         IntBag actives = subscription.getEntities();
@@ -67,9 +79,11 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
     @Override
     public void interpolate(float alpha) {
         IntBag bag = subscription.getEntities();
+        hierarchyRefreshed = false;
         for (int i = 0, s = bag.size(); i < s; ++i) {
             interpolate(bag.get(i), alpha);
         }
+        hierarchyRefreshed = false;
     }
 
     /**
@@ -107,9 +121,20 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
         if (rootParentNode != null) {
             tempPos.set(worldInterpX, worldInterpY);
 
-            TransformMathUtils.sceneToLocalCoordinates(parentEntity, tempPos, transformComponentMapper, parentNodeComponentMapper);
-
-            float parentWorldRotation = TransformMathUtils.localToSceneRotation(parentEntity, transformComponentMapper, parentNodeComponentMapper);
+            float parentWorldRotation;
+            if (transformHierarchySystem != null && !physicsBodyComponentMapper.has(parentEntity)) {
+                // Parents may have moved since the last pass, refresh once before the first nested body
+                if (!hierarchyRefreshed) {
+                    transformHierarchySystem.refresh();
+                    hierarchyRefreshed = true;
+                }
+                TransformComponent parentTransform = transformComponentMapper.get(parentEntity);
+                TransformMathUtils.sceneToLocalCoordinates(parentTransform, tempPos);
+                parentWorldRotation = parentTransform.sceneRotation;
+            } else {
+                TransformMathUtils.sceneToLocalCoordinates(parentEntity, tempPos, transformComponentMapper, parentNodeComponentMapper);
+                parentWorldRotation = TransformMathUtils.localToSceneRotation(parentEntity, transformComponentMapper, parentNodeComponentMapper);
+            }
             float localRotation = worldInterpAngleDeg - parentWorldRotation;
             transformComponent.rotation = normalizeAngle(localRotation);
 
@@ -123,6 +148,7 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
 
             transformComponent.rotation = worldInterpAngleDeg;
         }
+        transformComponent.markDirty();
     }
 
     private void applyPolygonOffset(int entity, TransformComponent transformComponent) {
@@ -166,18 +192,24 @@ public class PhysicsSystem extends BaseEntitySystem implements ContactListener,
 
         TransformComponent transformComponent = transformComponentMapper.get(entity);
 
+        // Lights only count fixtures in range, a replaced fixture would leave their shadows stale
+        boolean fixturesChanged = physicsBodyComponent.isRefreshScheduled();
+
         if ((polygonShapeComponent == null || polygonShapeComponent.vertices == null) && circleShapeComponent == null && physicsBodyComponent.body != null) {
             world.destroyBody(physicsBodyComponent.body);
             physicsBodyComponent.body = null;
             physicsBodyComponent.clearFixturesMap();
+            fixturesChanged = true;
         }
 
         if (physicsBodyComponent.body == null && ((polygonShapeComponent != null && polygonShapeComponent.vertices != null) || circleShapeComponent != null)) {
             PhysicsBodyLoader.getInstance().createBody(world, entity, physicsBodyComponent, transformComponent, getEngine());
             physicsBodyComponent.body.setUserData(entity);
+            fixturesChanged = true;
         }
 
         physicsBodyComponent.executeRefresh(entity);
+        if (fixturesChanged && rayHandler != null) rayHandler.invalidateLights();
 
         if (physicsBodyComponent.body != null) {
             Vector2 position = physicsBodyComponent.body.getPosition();
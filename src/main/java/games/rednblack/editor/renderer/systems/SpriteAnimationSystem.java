@@ -6,8 +6,10 @@ import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import games.rednblack.editor.renderer.components.TextureRegionComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationComponent;
 import games.rednblack.editor.renderer.components.sprite.SpriteAnimationStateComponent;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentAccess;
 
 @All(SpriteAnimationComponent.class)
+@ConcurrentAccess(writes = {TextureRegionComponent.class, SpriteAnimationStateComponent.class})
 public class SpriteAnimationSystem extends IteratingSystem {
     protected ComponentMapper<TextureRegionComponent> tm;
     protected ComponentMapper<SpriteAnimationStateComponent> sm;
@@ -0,0 +1,250 @@
+package games.rednblack.editor.renderer.systems;
+
+import com.badlogic.gdx.math.Affine2;
+import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.NodeComponent;
+import games.rednblack.editor.renderer.components.ParentNodeComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
+import games.rednblack.editor.renderer.ecs.BaseEntitySystem;
+import games.rednblack.editor.renderer.ecs.ComponentMapper;
+import games.rednblack.editor.renderer.ecs.annotations.All;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
+
+import java.util.Arrays;
+
+/**
+ * Tracks transform changes across the {@link NodeComponent} hierarchy and caches scene transforms.
+ * <p>
+ * Entities are marked dirty by {@link TransformComponent#markDirty()}, the transform setters and {@link #invalidate(int)}.
+ * A pass only visits dirty entities and the subtrees below the ones that actually changed, clean subtrees aren't
+ * touched. It keeps three counters up to date:
+ * <ul>
+ *     <li>{@link TransformComponent#localVersion} changes when the entity's own transform or dimensions change</li>
+ *     <li>{@link TransformComponent#worldVersion} changes when the entity or any of its ancestors changed</li>
+ *     <li>{@link NodeComponent#childrenVersion} changes when a direct child changed, was added or removed</li>
+ * </ul>
+ * Consumers store the version they last saw and skip their work while it's unchanged, instead of hashing
+ * the whole ancestor chain of every entity.
+ * <p>
+ * The same pass composes {@link TransformComponent#sceneTransform} and {@link TransformComponent#sceneRotation}
+ * from the parent's cached values, only for entities whose world version changed. Renderer, bounding boxes,
+ * physics interpolation and hit-testing read them instead of walking the parent chain.
+ * <p>
+ * Fields written directly, e.g. by scripts, are found by a flat scan of local checksums that runs once per frame,
+ * from {@link #update()} when {@link BoundingBoxSystem} or the renderer call it, otherwise from the system itself.
+ * Disable it with {@link #setDetectDirectWrites(boolean)} when every change goes through the setters.
+ */
+@All(TransformComponent.class)
+public class TransformHierarchySystem extends BaseEntitySystem {
+
+    protected ComponentMapper<TransformComponent> transformMapper;
+    protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+    protected ComponentMapper<NodeComponent> nodeMapper;
+    protected ComponentMapper<ParentNodeComponent> parentNodeMapper;
+
+    private final BitVector dirty = new BitVector();
+    private final IntBag dirtyEntities = new IntBag();
+    private long[] order = new long[64];
+
+    private boolean detectDirectWrites = true;
+    private boolean scanned = false;
+
+    @Override
+    protected void inserted(int entity) {
+        transformMapper.get(entity).track(this, entity);
+        invalidate(entity);
+    }
+
+    @Override
+    protected void removed(int entity) {
+        TransformComponent t = transformMapper.get(entity);
+        if (t != null) t.track(null, -1);
+        dirty.clear(entity);
+
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        if (parentNode != null && parentNode.parentEntity != -1) invalidateContent(parentNode.parentEntity);
+    }
+
+    @Override
+    protected void processSystem() {
+        // Scan here only if no later consumer did it during the last frame
+        if (detectDirectWrites && !scanned) detectChanges();
+        scanned = false;
+        refresh();
+    }
+
+    /**
+     * Pick up direct field writes and refresh. Called once per frame by the last consumer before scene transforms
+     * are read, later consumers only need {@link #refresh()}.
+     */
+    public void update() {
+        if (detectDirectWrites) detectChanges();
+        scanned = true;
+        refresh();
+    }
+
+    /**
+     * Propagate pending changes down from the dirty entities, does nothing when none is dirty.
+     */
+    public void refresh() {
+        int size = dirtyEntities.size();
+        if (size == 0) return;
+
+        // Ancestors first, so a changed subtree is visited once
+        if (order.length < size) order = new long[Math.max(size, order.length * 2)];
+        int[] ids = dirtyEntities.getData();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (dirty.get(ids[i])) order[count++] = ((long) depth(ids[i]) << 32) | ids[i];
+        }
+        dirtyEntities.setSize(0);
+        Arrays.sort(order, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            int entity = (int) order[i];
+            if (!dirty.get(entity)) continue;
+
+            ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+            int parentEntity = parentNode != null ? parentNode.parentEntity : -1;
+            visit(entity, parentEntity != -1 ? transformMapper.get(parentEntity) : null, parentEntity, false);
+        }
+    }
+
+    /**
+     * Update the local version of an entity modified after the last pass and mark it dirty, world versions of
+     * its subtree are updated by the next pass.
+     */
+    public void invalidate(int entity) {
+        TransformComponent t = transformMapper.get(entity);
+        if (t == null) return;
+
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        updateLocalVersion(entity, t, parentNode != null ? parentNode.parentEntity : -1);
+        if (dirty.get(entity)) return;
+        dirty.set(entity);
+        dirtyEntities.add(entity);
+    }
+
+    /**
+     * Bump {@link NodeComponent#contentVersion} of the entity and its ancestors. Transform changes do it already and
+     * the renderer compares tint, visibility and texture regions itself, other changes to what's drawn inside a
+     * retained composite, like pixels written into a texture, must call it.
+     */
+    public void invalidateContent(int entity) {
+        while (entity != -1) {
+            NodeComponent node = nodeMapper.get(entity);
+            if (node != null) node.contentVersion++;
+            ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+            entity = parentNode != null ? parentNode.parentEntity : -1;
+        }
+    }
+
+    /**
+     * @param detectDirectWrites false if transforms are only changed through setters and {@link #invalidate(int)}
+     */
+    public void setDetectDirectWrites(boolean detectDirectWrites) {
+        this.detectDirectWrites = detectDirectWrites;
+    }
+
+    private void detectChanges() {
+        IntBag actives = subscription.getEntities();
+        int[] ids = actives.getData();
+        for (int i = 0, s = actives.size(); s > i; i++) {
+            int entity = ids[i];
+            if (dirty.get(entity)) continue;
+
+            TransformComponent t = transformMapper.get(entity);
+            ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+            int checksum = calcCheckSum(t, dimensionsMapper.get(entity), parentNode != null ? parentNode.parentEntity : -1);
+            if (checksum != t.localChecksum) invalidate(entity);
+        }
+    }
+
+    private int depth(int entity) {
+        int depth = 0;
+        ParentNodeComponent parentNode = parentNodeMapper.get(entity);
+        while (parentNode != null && parentNode.parentEntity != -1) {
+            depth++;
+            parentNode = parentNodeMapper.get(parentNode.parentEntity);
+        }
+        return depth;
+    }
+
+    private void visit(int entity, TransformComponent parent, int parentEntity, boolean parentChanged) {
+        TransformComponent t = transformMapper.get(entity);
+        if (t == null) return;
+
+        if (dirty.get(entity)) {
+            dirty.clear(entity);
+            updateLocalVersion(entity, t, parentEntity);
+        }
+        boolean changed = parentChanged || t.localVersion != t.propagatedVersion;
+        // An unchanged dirty entity leaves its subtree alone, dirty descendants are visited on their own
+        if (!changed) return;
+
+        t.propagatedVersion = t.localVersion;
+        t.worldVersion++;
+        updateSceneTransform(t, parent);
+
+        NodeComponent node = nodeMapper.get(entity);
+        if (node != null) {
+            int[] children = node.children.begin();
+            for (int i = 0, n = node.children.size; i < n; i++) {
+                visit(children[i], t, entity, true);
+            }
+            node.children.end();
+        }
+    }
+
+    private void updateSceneTransform(TransformComponent t, TransformComponent parent) {
+        float originX = Float.isNaN(t.originX) ? 0 : t.originX;
+        float originY = Float.isNaN(t.originY) ? 0 : t.originY;
+        float scaleX = t.scaleX * (t.flipX ? -1 : 1);
+        float scaleY = t.scaleY * (t.flipY ? -1 : 1);
+
+        Affine2 sceneTransform = t.sceneTransform;
+        sceneTransform.setToTrnRotScl(t.x + originX, t.y + originY, t.rotation, scaleX, scaleY);
+        if (originX != 0 || originY != 0) sceneTransform.translate(-originX, -originY);
+
+        if (parent != null) {
+            sceneTransform.preMul(parent.sceneTransform);
+            t.sceneRotation = parent.sceneRotation + t.rotation;
+        } else {
+            t.sceneRotation = t.rotation;
+        }
+    }
+
+    private void updateLocalVersion(int entity, TransformComponent t, int parentEntity) {
+        int checksum = calcCheckSum(t, dimensionsMapper.get(entity), parentEntity);
+        if (t.localVersion != 0 && checksum == t.localChecksum) return;
+
+        t.localChecksum = checksum;
+        t.localVersion++;
+
+        if (parentEntity != -1) {
+            NodeComponent parentNodeComponent = nodeMapper.get(parentEntity);
+            if (parentNodeComponent != null) parentNodeComponent.childrenVersion++;
+            invalidateContent(parentEntity);
+        }
+    }
+
+    private int calcCheckSum(TransformComponent t, DimensionsComponent d, int parentEntity) {
+        float scaleX = t.scaleX * (t.flipX ? -1 : 1);
+        float scaleY = t.scaleY * (t.flipY ? -1 : 1);
+
+        int checksum = Float.floatToRawIntBits(t.rotation) * 3
+                + Float.floatToRawIntBits(scaleX) * 5
+                + Float.floatToRawIntBits(scaleY) * 7
+                + Float.floatToRawIntBits(t.x) * 11
+                + Float.floatToRawIntBits(t.y) * 13
+                + Float.floatToRawIntBits(t.originX) * 17
+                + Float.floatToRawIntBits(t.originY) * 19;
+        if (d != null) {
+            checksum += Float.floatToRawIntBits(d.width) * 23
+                    + Float.floatToRawIntBits(d.height) * 29;
+        }
+        // Parent is part of the checksum so reparenting is seen as a local change
+        return checksum + parentEntity * 31;
+    }
+}
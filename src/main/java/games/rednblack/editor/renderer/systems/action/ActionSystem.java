@@ -6,7 +6,6 @@ import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
 import com.badlogic.gdx.utils.Array;
 import games.rednblack.editor.renderer.components.ActionComponent;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
-import games.rednblack.editor.renderer.systems.action.logic.ActionLogic;
 
 /**
  * Created by ZeppLondon on 10/13/2015.
@@ -20,16 +19,35 @@ public class ActionSystem extends IteratingSystem {
         super.initialize();
     }
 
+    @Override
+    protected void begin() {
+        Actions.injectEngine(engine);
+    }
+
+    @Override
+    protected void end() {
+        Actions.flushBatches();
+    }
+
     @Override
     protected void process(int entity) {
         ActionComponent actionComponent = actionMapper.get(entity);
         Array<ActionData> dataArray = actionComponent.dataArray;
-        for (int i = 0; i < dataArray.size; i++) {
+        float delta = Math.min(engine.getDelta(), 0.25f);
+        int i = 0;
+        while (i < dataArray.size) {
             ActionData data = dataArray.get(i);
-            ActionLogic actionLogic = Actions.actionLogicMap.get(data.logicClassName);
-            actionLogic.setEngine(getEngine());
-            if (actionLogic.act(Math.min(engine.getDelta(), 0.25f), entity, data)) {
-                dataArray.removeValue(data, true);
+            if (!Actions.act(delta, entity, data)) {
+                i++;
+                continue;
+            }
+
+            // Actions may add or remove actions while running, look the data up if it moved
+            int index = i < dataArray.size && dataArray.get(i) == data ? i : dataArray.indexOf(data, true);
+            if (index != -1) {
+                // Order is kept, the actions after this one haven't run yet and now start at its index
+                dataArray.removeIndex(index);
+                i = index;
                 if (data.getPool() != null)
                     data.getPool().free(data);
             }
@@ -3,12 +3,14 @@ package games.rednblack.editor.renderer.systems.action;
 import games.rednblack.editor.renderer.ecs.Engine;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Interpolation;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.DefaultPool;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.PoolManager;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import games.rednblack.editor.renderer.components.ActionComponent;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
 import games.rednblack.editor.renderer.systems.action.data.*;
 import games.rednblack.editor.renderer.systems.action.logic.*;
 
@@ -22,12 +24,24 @@ public class Actions {
 
     public static HashMap<String, ActionLogic> actionLogicMap = new HashMap<>();
     public static HashMap<String, String> actionDataLogicMap = new HashMap<>();
+    private static final Array<BatchTemporalAction> batchLogics = new Array<>();
+    // Entities with tween writes queued by batch logics, and how many writes are queued
+    private static final BitVector pendingEntities = new BitVector();
+    private static int pendingCount;
     private static boolean initialized;
+    // Logics are shared, they belong to the engine whose ActionSystem injected them last
+    private static Engine injectedEngine;
+    private static int logicsWithEngine;
 
     public static void dispose() {
         initialized = false;
+        injectedEngine = null;
+        logicsWithEngine = 0;
         actionLogicMap.clear();
         actionDataLogicMap.clear();
+        batchLogics.clear();
+        pendingEntities.clear();
+        pendingCount = 0;
     }
 
     private static void initialize() throws ReflectionException {
@@ -56,7 +70,10 @@ public class Actions {
 
     public static <T extends ActionLogic, U extends ActionData> void registerActionClass(Class<U> typeData, DefaultPool.PoolSupplier<U> supplierData, Class<T> type) throws ReflectionException {
         if (!actionLogicMap.containsKey(type.getName())) {
-            actionLogicMap.put(type.getName(), ClassReflection.newInstance(type));
+            T logic = ClassReflection.newInstance(type);
+            actionLogicMap.put(type.getName(), logic);
+            if (logic instanceof BatchTemporalAction)
+                batchLogics.add((BatchTemporalAction) logic);
             actionDataLogicMap.put(typeData.getName(), type.getName());
             ACTION_POOLS.addPool(typeData, supplierData);
         }
@@ -73,9 +90,94 @@ public class Actions {
         if (autoPoolable)
             action.setPool(pool);
         action.logicClassName = actionDataLogicMap.get(type.getName());
+        action.logic = actionLogicMap.get(action.logicClassName);
         return action;
     }
 
+    /**
+     * Logic running an action, looked up by {@link ActionData#logicClassName} the first time and then kept in
+     * {@link ActionData#logic}.
+     */
+    public static ActionLogic logicOf(ActionData data) {
+        ActionLogic logic = data.logic;
+        if (logic == null) {
+            logic = actionLogicMap.get(data.logicClassName);
+            data.logic = logic;
+        }
+        return logic;
+    }
+
+    /**
+     * Run an action, first applying the pending batched tween writes it could read or overwrite, see
+     * {@link ActionLogic#getBatchAccess()}. Logics running nested actions go through here too.
+     *
+     * @return true if the action completed
+     */
+    public static boolean act(float delta, int entity, ActionData data) {
+        ActionLogic logic = logicOf(data);
+        if (pendingCount > 0) {
+            switch (logic.getBatchAccess()) {
+                case ENTITY:
+                    if (pendingEntities.get(entity)) flushBatches();
+                    break;
+                case ANY:
+                    flushBatches();
+                    break;
+            }
+        }
+        return logic.act(delta, entity, data);
+    }
+
+    /**
+     * Apply the tween writes queued by {@link BatchTemporalAction} logics. Called by {@link ActionSystem} once all
+     * actions ran, so systems and scripts never read stale values, and by {@link #act(float, int, ActionData)} when
+     * an action may depend on them.
+     */
+    public static void flushBatches() {
+        if (pendingCount == 0) return;
+
+        for (int i = 0; i < batchLogics.size; i++) {
+            batchLogics.get(i).flush();
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * @return true if a batch logic queued writes for the entity since the last flush
+     */
+    public static boolean hasPendingWrites(int entity) {
+        return pendingCount > 0 && pendingEntities.get(entity);
+    }
+
+    /**
+     * Called by {@link BatchTemporalAction} when it queues a write for the entity.
+     */
+    public static void addPendingWrite(int entity) {
+        pendingEntities.set(entity);
+        pendingCount++;
+    }
+
+    /**
+     * Called by {@link BatchTemporalAction} when it applies the writes queued for the entity.
+     */
+    public static void clearPendingWrite(int entity) {
+        pendingEntities.clear(entity);
+    }
+
+    /**
+     * Give the engine to the logics, called by {@link ActionSystem} before processing. Logics are injected again
+     * when another engine processes its actions, or when logics were registered since the last call.
+     */
+    static void injectEngine(Engine engine) {
+        if (engine == injectedEngine && logicsWithEngine == actionLogicMap.size()) return;
+
+        for (ActionLogic logic : actionLogicMap.values()) {
+            logic.setEngine(engine);
+        }
+        injectedEngine = engine;
+        logicsWithEngine = actionLogicMap.size();
+    }
+
     private static void checkInit() {
         if (!initialized) try {
             initialize();
@@ -2,12 +2,15 @@ package games.rednblack.editor.renderer.systems.action.data;
 
 import com.badlogic.gdx.utils.Null;
 import com.badlogic.gdx.utils.Pool;
+import games.rednblack.editor.renderer.systems.action.logic.ActionLogic;
 
 /**
  * Created by ZeppLondon on 10/15/2015.
  */
 public class ActionData implements Pool.Poolable {
     public String logicClassName;
+    /** Logic resolved from {@link #logicClassName}, see {@link games.rednblack.editor.renderer.systems.action.Actions#logicOf(ActionData)} */
+    public transient ActionLogic logic;
     public boolean detached;
 
     private @Null Pool pool;
@@ -15,6 +18,7 @@ public class ActionData implements Pool.Poolable {
     @Override
     public void reset() {
         logicClassName = null;
+        logic = null;
         detached = false;
         pool = null;
     }
@@ -17,8 +17,8 @@ public class ParallelData extends ActionData {
     public void restart() {
         super.restart();
 
-        for (ActionData data : new Array.ArrayIterator<>(actionsData)) {
-            data.restart();
+        for (int i = 0; i < actionsData.size; i++) {
+            actionsData.get(i).restart();
         }
         complete = false;
     }
@@ -27,7 +27,8 @@ public class ParallelData extends ActionData {
     public void reset() {
         super.reset();
 
-        for (ActionData data : new Array.ArrayIterator<>(actionsData)) {
+        for (int i = 0; i < actionsData.size; i++) {
+            ActionData data = actionsData.get(i);
             if (data.getPool() != null)
                 data.getPool().free(data);
         }
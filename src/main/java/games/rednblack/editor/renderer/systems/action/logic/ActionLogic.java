@@ -6,28 +6,51 @@ import games.rednblack.editor.renderer.components.TintComponent;
 import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.components.physics.PhysicsBodyComponent;
 import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.systems.TransformHierarchySystem;
 import games.rednblack.editor.renderer.systems.action.data.ActionData;
 
 /**
  * Created by ZeppLondon on 10/14/2015.
  */
 abstract public class ActionLogic<T extends ActionData> {
+    /**
+     * Components a logic touches while acting, tells which pending {@link BatchTemporalAction} writes must be applied
+     * before it runs.
+     */
+    public enum BatchAccess {
+        /** Only runs other actions */
+        NONE,
+        /** Reads or writes components of the acting entity only */
+        ENTITY,
+        /** May read or write any component, e.g. running user code */
+        ANY
+    }
+
     protected Engine engine;
 
     protected ComponentMapper<TransformComponent> transformMapper;
     protected ComponentMapper<TintComponent> tintMapper;
     protected ComponentMapper<PhysicsBodyComponent> physicsBodyMapper;
     protected ComponentMapper<DimensionsComponent> dimensionsMapper;
+    protected TransformHierarchySystem transformHierarchySystem;
 
     abstract public boolean act(float delta, int entity, T actionData);
 
+    public BatchAccess getBatchAccess() {
+        return BatchAccess.ANY;
+    }
+
+    /**
+     * Bind the logic to the engine running it, mappers are looked up again when the engine changes.
+     */
     public void setEngine(Engine engine) {
-        if (this.engine == null) {
+        if (this.engine != engine) {
             this.engine = engine;
             transformMapper = engine.getMapper(TransformComponent.class);
             tintMapper = engine.getMapper(TintComponent.class);
             physicsBodyMapper = engine.getMapper(PhysicsBodyComponent.class);
             dimensionsMapper = engine.getMapper(DimensionsComponent.class);
+            transformHierarchySystem = engine.getSystem(TransformHierarchySystem.class);
         }
     }
 }
@@ -6,13 +6,19 @@ import games.rednblack.editor.renderer.systems.action.data.AlphaData;
 /**
  * Created by ZeppLondon on 10/29/15.
  */
-public class AlphaAction<T extends AlphaData> extends TemporalAction<T> {
+public class AlphaAction<T extends AlphaData> extends BatchTemporalAction<T> {
+
+    public AlphaAction() {
+        super(1);
+    }
+
     @Override
     protected void update(float percent, int entity, T actionData) {
         TintComponent tintComponent = tintMapper.get(entity);
         if (tintComponent == null) return;
 
         tintComponent.color.a = actionData.start + (actionData.end - actionData.start) * percent;
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidateContent(entity);
     }
 
     @Override
@@ -22,4 +28,19 @@ public class AlphaAction<T extends AlphaData> extends TemporalAction<T> {
 
         actionData.start = tintComponent.color.a;
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.start;
+        end[offset] = actionData.end;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        TintComponent tintComponent = tintMapper.get(entity);
+        if (tintComponent == null) return;
+
+        tintComponent.color.a = values[offset];
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidateContent(entity);
+    }
 }
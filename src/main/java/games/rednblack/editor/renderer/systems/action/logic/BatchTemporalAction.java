@@ -0,0 +1,153 @@
+package games.rednblack.editor.renderer.systems.action.logic;
+
+import com.badlogic.gdx.math.Interpolation;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+import games.rednblack.editor.renderer.systems.action.Actions;
+import games.rednblack.editor.renderer.systems.action.data.TemporalData;
+
+/**
+ * Temporal action interpolating from start to end values, written to the entities in bulk.
+ * <p>
+ * While a tween is running {@link #act(float, int, TemporalData)} only advances its time and queues entity, progress,
+ * interpolation and start/end values in parallel arrays. {@link #flush()} interpolates every queued tween of this type
+ * in one loop and then writes the results back, in queue order.
+ * <p>
+ * Queued writes are applied by {@link Actions#flushBatches()} before anything could read or overwrite them:
+ * <ul>
+ *     <li>when {@link games.rednblack.editor.renderer.systems.action.ActionSystem} ends, before any other system runs</li>
+ *     <li>before an action that may read them acts, see {@link ActionLogic#getBatchAccess()}</li>
+ *     <li>before a tween of the same entity begins, reading its start values, or applies its final step</li>
+ *     <li>before another batch logic queues a write for the same entity</li>
+ * </ul>
+ * The final step of a tween is applied immediately, so actions following it in a sequence see the final values.
+ */
+public abstract class BatchTemporalAction<T extends TemporalData> extends TemporalAction<T> {
+    private final int stride;
+
+    private int size;
+    private int[] entities = new int[16];
+    private float[] progress = new float[16];
+    private Interpolation[] interpolations = new Interpolation[16];
+    private float[] start;
+    private float[] end;
+    private final BitVector queued = new BitVector();
+
+    protected BatchTemporalAction(int stride) {
+        this.stride = stride;
+        start = new float[16 * stride];
+        end = new float[16 * stride];
+    }
+
+    @Override
+    public BatchAccess getBatchAccess() {
+        // Flushes on its own, only when it has to
+        return BatchAccess.NONE;
+    }
+
+    @Override
+    public boolean act(float delta, int entity, T actionData) {
+        if (actionData.complete) return true;
+
+        if (!actionData.began) {
+            if (Actions.hasPendingWrites(entity)) Actions.flushBatches();
+            begin(entity, actionData);
+            actionData.began = true;
+        }
+
+        actionData.passedTime += delta;
+        actionData.complete = actionData.passedTime >= actionData.duration;
+        if (actionData.complete) {
+            if (Actions.hasPendingWrites(entity)) Actions.flushBatches();
+            update(1, entity, actionData);
+            end(entity, actionData);
+            actionData.began = false;
+        } else {
+            queue(entity, actionData);
+        }
+        return actionData.complete;
+    }
+
+    private void queue(int entity, T actionData) {
+        // Writes of different types to the same entity must keep their order
+        if (!queued.get(entity) && Actions.hasPendingWrites(entity)) Actions.flushBatches();
+        if (size == entities.length) grow();
+
+        entities[size] = entity;
+        progress[size] = actionData.passedTime / actionData.duration;
+        interpolations[size] = actionData.interpolation;
+        getValues(actionData, start, end, size * stride);
+        size++;
+
+        queued.set(entity);
+        Actions.addPendingWrite(entity);
+    }
+
+    /**
+     * Interpolate and write back every tween queued since the last flush, use {@link Actions#flushBatches()} to flush
+     * all types in order.
+     */
+    public void flush() {
+        if (size == 0) return;
+
+        for (int i = 0; i < size; i++) {
+            Interpolation interpolation = interpolations[i];
+            if (interpolation != null) progress[i] = interpolation.apply(progress[i]);
+            interpolations[i] = null;
+        }
+
+        // Interpolated values replace the start ones
+        for (int i = 0, offset = 0; i < size; i++) {
+            float percent = progress[i];
+            for (int last = offset + stride; offset < last; offset++) {
+                start[offset] += (end[offset] - start[offset]) * percent;
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            int entity = entities[i];
+            apply(entity, start, i * stride);
+            queued.clear(entity);
+            Actions.clearPendingWrite(entity);
+        }
+        size = 0;
+    }
+
+    /** @return number of tweens waiting for {@link #flush()} */
+    public int getQueuedCount() {
+        return size;
+    }
+
+    /**
+     * Copy start and end values of a running tween, <code>stride</code> values each at <code>offset</code>.
+     */
+    protected abstract void getValues(T actionData, float[] start, float[] end, int offset);
+
+    /**
+     * Write interpolated values to the entity.
+     */
+    protected abstract void apply(int entity, float[] values, int offset);
+
+    private void grow() {
+        int capacity = entities.length * 2;
+
+        int[] newEntities = new int[capacity];
+        System.arraycopy(entities, 0, newEntities, 0, size);
+        entities = newEntities;
+
+        float[] newProgress = new float[capacity];
+        System.arraycopy(progress, 0, newProgress, 0, size);
+        progress = newProgress;
+
+        Interpolation[] newInterpolations = new Interpolation[capacity];
+        System.arraycopy(interpolations, 0, newInterpolations, 0, size);
+        interpolations = newInterpolations;
+
+        float[] newStart = new float[capacity * stride];
+        System.arraycopy(start, 0, newStart, 0, size * stride);
+        start = newStart;
+
+        float[] newEnd = new float[capacity * stride];
+        System.arraycopy(end, 0, newEnd, 0, size * stride);
+        end = newEnd;
+    }
+}
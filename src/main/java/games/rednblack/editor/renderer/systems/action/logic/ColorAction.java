@@ -6,7 +6,11 @@ import games.rednblack.editor.renderer.systems.action.data.ColorData;
 /**
  * Created by ZeppLondon on 10/28/15.
  */
-public class ColorAction<T extends ColorData> extends TemporalAction<T> {
+public class ColorAction<T extends ColorData> extends BatchTemporalAction<T> {
+
+    public ColorAction() {
+        super(4);
+    }
 
     @Override
     protected void update(float percent, int entity, T actionData) {
@@ -18,6 +22,7 @@ public class ColorAction<T extends ColorData> extends TemporalAction<T> {
         float b = actionData.startB + (actionData.endColor.b - actionData.startB) * percent;
         float a = actionData.startA + (actionData.endColor.a - actionData.startA) * percent;
         tintComponent.color.set(r, g, b, a);
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidateContent(entity);
     }
 
     @Override
@@ -30,4 +35,25 @@ public class ColorAction<T extends ColorData> extends TemporalAction<T> {
         actionData.startB = tintComponent.color.b;
         actionData.startA = tintComponent.color.a;
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.startR;
+        start[offset + 1] = actionData.startG;
+        start[offset + 2] = actionData.startB;
+        start[offset + 3] = actionData.startA;
+        end[offset] = actionData.endColor.r;
+        end[offset + 1] = actionData.endColor.g;
+        end[offset + 2] = actionData.endColor.b;
+        end[offset + 3] = actionData.endColor.a;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        TintComponent tintComponent = tintMapper.get(entity);
+        if (tintComponent == null) return;
+
+        tintComponent.color.set(values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+        if (transformHierarchySystem != null) transformHierarchySystem.invalidateContent(entity);
+    }
 }
@@ -8,6 +8,11 @@ import games.rednblack.editor.renderer.systems.action.data.DelayData;
  */
 public class DelayAction<T extends DelayData> extends DelegateAction<T> {
 
+    @Override
+    public BatchAccess getBatchAccess() {
+        return BatchAccess.NONE;
+    }
+
     @Override
     protected boolean delegate(float delta, int entity, T actionData) {
         if (actionData.passedTime < actionData.duration) {
@@ -16,9 +21,7 @@ public class DelayAction<T extends DelayData> extends DelegateAction<T> {
         }
 
         if (actionData.delegatedData != null) {
-            ActionLogic logic = Actions.actionLogicMap.get(actionData.delegatedData.logicClassName);
-            logic.setEngine(engine);
-            return logic.act(delta, entity, actionData.delegatedData);
+            return Actions.act(delta, entity, actionData.delegatedData);
         }
         return true;
     }
@@ -18,5 +18,6 @@ public class MoveByAction<T extends MoveByData> extends RelativeTemporalAction<T
 
         transformComponent.x += amountX;
         transformComponent.y += amountY;
+        transformComponent.markDirty();
     }
 }
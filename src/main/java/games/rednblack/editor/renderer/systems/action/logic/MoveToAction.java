@@ -6,7 +6,11 @@ import games.rednblack.editor.renderer.systems.action.data.MoveToData;
 /**
  * Created by ZeppLondon on 10/13/2015.
  */
-public class MoveToAction<T extends MoveToData> extends TemporalAction<T> {
+public class MoveToAction<T extends MoveToData> extends BatchTemporalAction<T> {
+
+    public MoveToAction() {
+        super(2);
+    }
 
     @Override
     public void update(float percent, int entity, T actionData) {
@@ -18,6 +22,7 @@ public class MoveToAction<T extends MoveToData> extends TemporalAction<T> {
 
         transformComponent.x = x;
         transformComponent.y = y;
+        transformComponent.markDirty();
     }
 
     @Override
@@ -33,4 +38,22 @@ public class MoveToAction<T extends MoveToData> extends TemporalAction<T> {
     public void end(int entity, MoveToData actionData) {
 
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.startX;
+        start[offset + 1] = actionData.startY;
+        end[offset] = actionData.endX;
+        end[offset + 1] = actionData.endY;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent == null) return;
+
+        transformComponent.x = values[offset];
+        transformComponent.y = values[offset + 1];
+        transformComponent.markDirty();
+    }
 }
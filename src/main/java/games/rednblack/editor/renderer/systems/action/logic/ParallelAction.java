@@ -8,16 +8,19 @@ import games.rednblack.editor.renderer.systems.action.data.ParallelData;
  * Created by ZeppLondon on 10/23/15.
  */
 public class ParallelAction<T extends ParallelData> extends ActionLogic<T> {
+    @Override
+    public BatchAccess getBatchAccess() {
+        return BatchAccess.NONE;
+    }
+
     @Override
     public boolean act(float delta, int entity, T actionData) {
         actionData.complete = true;
-        for (int i = 0; i < actionData.actionsData.size; i++) {
+        for (int i = 0, n = actionData.actionsData.size; i < n; i++) {
             ActionData data = actionData.actionsData.get(i);
-            ActionLogic logic = Actions.actionLogicMap.get(actionData.actionsData.get(i).logicClassName);
-            logic.setEngine(engine);
             if (!data.detached) {
                 actionData.complete = false;
-                if (logic.act(delta, entity, data)) {
+                if (Actions.act(delta, entity, data)) {
                     data.detached = true;
                 }
             }
@@ -6,6 +6,11 @@ import games.rednblack.editor.renderer.systems.action.data.RelativeTemporalData;
  * Created by ZeppLondon on 10/15/2015.
  */
 public abstract class RelativeTemporalAction<T extends RelativeTemporalData> extends TemporalAction<T> {
+    @Override
+    public BatchAccess getBatchAccess() {
+        return BatchAccess.ENTITY;
+    }
+
     @Override
     protected void update(float percent, int entity, T actionData) {
         updateRelative(percent - actionData.lastPercent, entity, actionData);
@@ -6,7 +6,11 @@ import games.rednblack.editor.renderer.systems.action.data.RotateToData;
 /**
  * Created by ZeppLondon on 10/16/2015.
  */
-public class RotateToAction<T extends RotateToData> extends TemporalAction<T> {
+public class RotateToAction<T extends RotateToData> extends BatchTemporalAction<T> {
+
+    public RotateToAction() {
+        super(1);
+    }
 
     @Override
     protected void update(float percent, int entity, T actionData) {
@@ -14,6 +18,7 @@ public class RotateToAction<T extends RotateToData> extends TemporalAction<T> {
         if (transformComponent == null) return;
 
         transformComponent.rotation = (actionData.start + (actionData.end - actionData.start) * percent);
+        transformComponent.markDirty();
     }
 
     @Override
@@ -23,4 +28,19 @@ public class RotateToAction<T extends RotateToData> extends TemporalAction<T> {
 
         actionData.start = transformComponent.rotation;
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.start;
+        end[offset] = actionData.end;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent == null) return;
+
+        transformComponent.rotation = values[offset];
+        transformComponent.markDirty();
+    }
 }
@@ -6,7 +6,11 @@ import games.rednblack.editor.renderer.systems.action.data.ScaleToData;
 /**
  * Created by ZeppLondon on 10/28/15.
  */
-public class ScaleToAction<T extends ScaleToData> extends TemporalAction<T> {
+public class ScaleToAction<T extends ScaleToData> extends BatchTemporalAction<T> {
+
+    public ScaleToAction() {
+        super(2);
+    }
 
     @Override
     protected void update(float percent, int entity, T actionData) {
@@ -15,6 +19,7 @@ public class ScaleToAction<T extends ScaleToData> extends TemporalAction<T> {
 
         transformComponent.scaleX = actionData.startX + (actionData.endX - actionData.startX) * percent;
         transformComponent.scaleY = actionData.startY + (actionData.endY - actionData.startY) * percent;
+        transformComponent.markDirty();
     }
 
     @Override
@@ -25,4 +30,22 @@ public class ScaleToAction<T extends ScaleToData> extends TemporalAction<T> {
         actionData.startX = transformComponent.scaleX;
         actionData.startY = transformComponent.scaleY;
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.startX;
+        start[offset + 1] = actionData.startY;
+        end[offset] = actionData.endX;
+        end[offset + 1] = actionData.endY;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent == null) return;
+
+        transformComponent.scaleX = values[offset];
+        transformComponent.scaleY = values[offset + 1];
+        transformComponent.markDirty();
+    }
 }
@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.systems.action.logic;
 
 import games.rednblack.editor.renderer.systems.action.Actions;
+import games.rednblack.editor.renderer.systems.action.data.ActionData;
 import games.rednblack.editor.renderer.systems.action.data.SequenceData;
 
 /**
@@ -10,9 +11,8 @@ public class SequenceAction<T extends SequenceData> extends ParallelAction<T> {
     @Override
     public boolean act(float delta, int entity, T actionData) {
         if (actionData.index >= actionData.actionsData.size) return true;
-        ActionLogic logic = Actions.actionLogicMap.get(actionData.actionsData.get(actionData.index).logicClassName);
-        logic.setEngine(engine);
-        if (logic.act(delta, entity, actionData.actionsData.get(actionData.index))) {
+        ActionData data = actionData.actionsData.get(actionData.index);
+        if (Actions.act(delta, entity, data)) {
             actionData.index++;
             if (actionData.index >= actionData.actionsData.size) return true;
         }
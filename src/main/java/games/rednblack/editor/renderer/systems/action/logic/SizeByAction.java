@@ -1,6 +1,7 @@
 package games.rednblack.editor.renderer.systems.action.logic;
 
 import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.systems.action.data.SizeByData;
 
 /**
@@ -15,5 +16,8 @@ public class SizeByAction<T extends SizeByData> extends RelativeTemporalAction<T
 
         dimensionsComponent.width += actionData.amountWidth * percentDelta;
         dimensionsComponent.height += actionData.amountHeight * percentDelta;
+
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent != null) transformComponent.markDirty();
     }
 }
@@ -1,12 +1,17 @@
 package games.rednblack.editor.renderer.systems.action.logic;
 
 import games.rednblack.editor.renderer.components.DimensionsComponent;
+import games.rednblack.editor.renderer.components.TransformComponent;
 import games.rednblack.editor.renderer.systems.action.data.SizeToData;
 
 /**
  * Created by ZeppLondon on 10/28/15.
  */
-public class SizeToAction <T extends SizeToData> extends TemporalAction<T>  {
+public class SizeToAction <T extends SizeToData> extends BatchTemporalAction<T> {
+
+    public SizeToAction() {
+        super(2);
+    }
 
     @Override
     protected void update(float percent, int entity, T actionData) {
@@ -15,6 +20,9 @@ public class SizeToAction <T extends SizeToData> extends TemporalAction<T>  {
 
         dimensionsComponent.width = actionData.startWidth + (actionData.endWidth - actionData.startWidth) * percent;
         dimensionsComponent.height = actionData.startHeight + (actionData.endHeight - actionData.startHeight) * percent;
+
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent != null) transformComponent.markDirty();
     }
 
     @Override
@@ -25,4 +33,24 @@ public class SizeToAction <T extends SizeToData> extends TemporalAction<T>  {
         actionData.startWidth = dimensionsComponent.width;
         actionData.startHeight = dimensionsComponent.height;
     }
+
+    @Override
+    protected void getValues(T actionData, float[] start, float[] end, int offset) {
+        start[offset] = actionData.startWidth;
+        start[offset + 1] = actionData.startHeight;
+        end[offset] = actionData.endWidth;
+        end[offset + 1] = actionData.endHeight;
+    }
+
+    @Override
+    protected void apply(int entity, float[] values, int offset) {
+        DimensionsComponent dimensionsComponent = dimensionsMapper.get(entity);
+        if (dimensionsComponent == null) return;
+
+        dimensionsComponent.width = values[offset];
+        dimensionsComponent.height = values[offset + 1];
+
+        TransformComponent transformComponent = transformMapper.get(entity);
+        if (transformComponent != null) transformComponent.markDirty();
+    }
 }
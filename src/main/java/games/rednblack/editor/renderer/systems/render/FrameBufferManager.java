@@ -7,6 +7,8 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.GLFrameBuffer.FrameBufferBuilder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.BufferUtils;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.ObjectMap;
@@ -15,11 +17,26 @@ import java.nio.IntBuffer;
 import java.util.HashMap;
 import java.util.Stack;
 
+/**
+ * Frame buffers addressed by tag.
+ * <p>
+ * Buffers created with {@link #createFBO(String, int, int)} are dedicated to their tag and keep their contents until
+ * disposed. Buffers bound with {@link #obtain(String, int, int, boolean)} come from a pool of power of two size
+ * buckets and only hold their contents until {@link #free(String)}: the same buffer is then reused by the next
+ * tag of the same bucket, in the same frame too. Pooled buffers unused for {@link #setEvictFrames(int)} frames are
+ * disposed by {@link #update()}.
+ */
 public class FrameBufferManager implements Disposable {
+    private static final int MIN_BUCKET_SIZE = 64;
+
     private final ObjectMap<String, FBOContainer> frameBuffers;
     private final Stack<FBOContainer> stack;
+    private final Array<FBOContainer> pool = new Array<>(false, 16);
     private final int samples;
 
+    private int frame = 0;
+    private int evictFrames = 60;
+
     public static int GL_MAX_TEXTURE_SIZE = 4096;
 
     public FrameBufferManager(int samples) {
@@ -51,6 +68,113 @@ public class FrameBufferManager implements Disposable {
                 throw new IllegalArgumentException("FBO '" + tag + "' already exists.");
         }
 
+        int[] size = clampSize(width, height);
+        FBOContainer container = new FBOContainer(format, size[0], size[1], hasDepth, hasStencil, samples);
+        frameBuffers.put(tag, container);
+    }
+
+    /**
+     * Bind a pooled frame buffer to a tag until {@link #free(String)}. Only the bottom left
+     * <code>width</code> x <code>height</code> region is rendered to, see {@link #getRegionWidth(String)}.
+     * A dedicated frame buffer with the same tag is disposed.
+     */
+    public void obtain(String tag, int width, int height, boolean hasStencil) {
+        FBOContainer container = frameBuffers.get(tag);
+        if (container != null) {
+            if (container.pooled) throw new IllegalArgumentException("FBO '" + tag + "' is already obtained.");
+            dispose(tag);
+        }
+
+        int[] size = clampSize(width, height);
+        int bucketWidth = bucketSize(size[0]);
+        int bucketHeight = bucketSize(size[1]);
+
+        for (int i = 0; i < pool.size; i++) {
+            FBOContainer candidate = pool.get(i);
+            if (candidate.getWidth() == bucketWidth && candidate.getHeight() == bucketHeight && candidate.hasStencil == hasStencil) {
+                container = pool.removeIndex(i);
+                break;
+            }
+        }
+        if (container == null) {
+            container = new FBOContainer(Pixmap.Format.RGBA8888, bucketWidth, bucketHeight, false, hasStencil, samples);
+            container.pooled = true;
+        }
+
+        container.setRegion(size[0], size[1]);
+        container.lastUsedFrame = frame;
+        frameBuffers.put(tag, container);
+    }
+
+    /**
+     * Return the pooled frame buffer bound to a tag, its contents can be overwritten from now on.
+     */
+    public void free(String tag) {
+        FBOContainer container = frameBuffers.get(tag);
+        if (container == null || !container.pooled)
+            return;
+
+        frameBuffers.remove(tag);
+        pool.add(container);
+    }
+
+    /**
+     * Advance the frame counter and dispose pooled frame buffers nobody obtained for a while.
+     */
+    public void update() {
+        frame++;
+        for (int i = pool.size - 1; i >= 0; i--) {
+            FBOContainer container = pool.get(i);
+            if (frame - container.lastUsedFrame > evictFrames) {
+                pool.removeIndex(i).dispose();
+            }
+        }
+    }
+
+    /**
+     * @param evictFrames frames a pooled frame buffer can stay unused before being disposed
+     */
+    public void setEvictFrames(int evictFrames) {
+        this.evictFrames = evictFrames;
+    }
+
+    /**
+     * @return estimated bytes of GPU memory held by every frame buffer, pooled ones included
+     */
+    public long getMemoryUsage() {
+        long bytes = getPoolMemoryUsage();
+        for (FBOContainer container : frameBuffers.values())
+            if (!container.pooled) bytes += container.getMemoryUsage();
+        return bytes;
+    }
+
+    /**
+     * @return estimated bytes of GPU memory held by pooled frame buffers, either free or obtained
+     */
+    public long getPoolMemoryUsage() {
+        long bytes = 0;
+        for (int i = 0; i < pool.size; i++)
+            bytes += pool.get(i).getMemoryUsage();
+        for (FBOContainer container : frameBuffers.values())
+            if (container.pooled) bytes += container.getMemoryUsage();
+        return bytes;
+    }
+
+    /** @return width of the region rendered to, smaller than the texture for pooled frame buffers */
+    public int getRegionWidth(String tag) {
+        return getContainer(tag).regionWidth;
+    }
+
+    /** @return height of the region rendered to, smaller than the texture for pooled frame buffers */
+    public int getRegionHeight(String tag) {
+        return getContainer(tag).regionHeight;
+    }
+
+    private static int bucketSize(int size) {
+        return Math.min(GL_MAX_TEXTURE_SIZE, MathUtils.nextPowerOfTwo(Math.max(MIN_BUCKET_SIZE, size)));
+    }
+
+    private static int[] clampSize(int width, int height) {
         // Check if either width or height exceeds max_size
         if (width > GL_MAX_TEXTURE_SIZE || height > GL_MAX_TEXTURE_SIZE) {
             // Calculate the aspect ratio
@@ -65,13 +189,15 @@ public class FrameBufferManager implements Disposable {
                 width = (int) (GL_MAX_TEXTURE_SIZE * aspectRatio);
             }
         }
-
-        FBOContainer container = new FBOContainer(format, width, height, hasDepth, hasStencil, samples);
-        frameBuffers.put(tag, container);
+        return new int[]{width, height};
     }
 
     public void createIfNotExists(String tag, int width, int height, boolean hasDepth, boolean hasStencil) {
         FBOContainer container = frameBuffers.get(tag);
+        if (container != null && container.pooled) {
+            free(tag);
+            container = null;
+        }
         if (container == null) {
             createFBO(tag, width, height);
         } else if (container.getWidth() != width || container.getHeight() != height) {
@@ -101,6 +227,10 @@ public class FrameBufferManager implements Disposable {
         }
     }
 
+    public boolean exists(String tag) {
+        return frameBuffers.containsKey(tag);
+    }
+
     public boolean isActive(String tag) {
         FBOContainer container = frameBuffers.get(tag);
         if (container == null)
@@ -114,6 +244,11 @@ public class FrameBufferManager implements Disposable {
         if (container == null)
             return;
 
+        if (container.pooled) {
+            free(tag);
+            return;
+        }
+
         container.dispose();
         frameBuffers.remove(tag);
     }
@@ -123,14 +258,21 @@ public class FrameBufferManager implements Disposable {
         for (FBOContainer container : frameBuffers.values())
             container.dispose();
         frameBuffers.clear();
+        for (FBOContainer container : pool)
+            container.dispose();
+        pool.clear();
     }
 
     public Texture getColorBufferTexture(String tag) {
+        return getContainer(tag).getTexture();
+    }
+
+    private FBOContainer getContainer(String tag) {
         FBOContainer container = frameBuffers.get(tag);
         if (container == null)
             throw new IllegalArgumentException("FBO '" + tag + "' does not exists.");
 
-        return container.getTexture();
+        return container;
     }
 
     private static class FBOContainer implements Disposable {
@@ -140,11 +282,25 @@ public class FrameBufferManager implements Disposable {
 
         private final int width;
         private final int height;
+        private final boolean hasStencil;
+        private final long memoryUsage;
+
+        private int regionWidth;
+        private int regionHeight;
+        private boolean pooled;
+        private int lastUsedFrame;
 
         public FBOContainer(Pixmap.Format format, int width, int height, boolean hasDepth, boolean hasStencil, int samples) {
             this.width = width;
             this.height = height;
+            this.hasStencil = hasStencil;
             this.isMsaa = samples > 0;
+            regionWidth = width;
+            regionHeight = height;
+
+            // Color attachment, plus depth and stencil render buffers, multiplied by the samples of the MSAA buffer
+            int pixelBytes = getBytesPerPixel(format) + (hasDepth ? 2 : 0) + (hasStencil ? 1 : 0);
+            memoryUsage = (long) width * height * (pixelBytes + (isMsaa ? pixelBytes * samples : 0));
 
             FrameBufferBuilder standardBuilder = new FrameBufferBuilder(width, height);
             standardBuilder.addBasicColorTextureAttachment(format);
@@ -163,6 +319,20 @@ public class FrameBufferManager implements Disposable {
             }
         }
 
+        private static int getBytesPerPixel(Pixmap.Format format) {
+            switch (format) {
+                case RGB565:
+                case RGBA4444:
+                case LuminanceAlpha:
+                    return 2;
+                case Alpha:
+                case Intensity:
+                    return 1;
+                default:
+                    return 4;
+            }
+        }
+
         private static int getGlInternalFormat(Pixmap.Format format) {
             switch (format) {
                 case RGBA8888:
@@ -180,12 +350,19 @@ public class FrameBufferManager implements Disposable {
             }
         }
 
+        void setRegion(int regionWidth, int regionHeight) {
+            this.regionWidth = regionWidth;
+            this.regionHeight = regionHeight;
+        }
+
         public void begin() {
             if (isMsaa) {
                 msaaFbo.begin();
             } else {
                 standardFbo.begin();
             }
+            if (regionWidth != width || regionHeight != height)
+                Gdx.gl.glViewport(0, 0, regionWidth, regionHeight);
         }
 
         public void end() {
@@ -203,6 +380,7 @@ public class FrameBufferManager implements Disposable {
 
         public int getWidth() { return width; }
         public int getHeight() { return height; }
+        public long getMemoryUsage() { return memoryUsage; }
 
         @Override
         public void dispose() {
@@ -1,9 +1,12 @@
 package games.rednblack.editor.renderer.systems.render;
 
+import games.rednblack.editor.renderer.ecs.Aspect;
 import games.rednblack.editor.renderer.ecs.ComponentMapper;
 import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.EntitySubscription;
 import games.rednblack.editor.renderer.ecs.annotations.All;
 import games.rednblack.editor.renderer.ecs.systems.IteratingSystem;
+import games.rednblack.editor.renderer.ecs.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.*;
 import com.badlogic.gdx.graphics.g2d.Batch;
@@ -11,10 +14,12 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Affine2;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Pool;
-import com.badlogic.gdx.utils.SnapshotArray;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import games.rednblack.editor.renderer.lights.RayHandler;
 import games.rednblack.editor.renderer.commons.IExternalItemType;
@@ -22,9 +27,13 @@ import games.rednblack.editor.renderer.components.*;
 import games.rednblack.editor.renderer.components.normal.NormalMapRendering;
 import games.rednblack.editor.renderer.data.MainItemVO;
 import games.rednblack.editor.renderer.data.ShaderUniformVO;
+import games.rednblack.editor.renderer.factory.EntityFactory;
+import games.rednblack.editor.renderer.systems.BoundingBoxSystem;
+import games.rednblack.editor.renderer.systems.TransformHierarchySystem;
 import games.rednblack.editor.renderer.systems.render.logic.DrawableLogic;
 import games.rednblack.editor.renderer.systems.render.logic.DrawableLogicMapper;
 import games.rednblack.editor.renderer.utils.ShaderUniformProvider;
+import games.rednblack.editor.renderer.utils.SnapshotIntArray;
 
 import java.util.Stack;
 
@@ -44,17 +53,23 @@ public class HyperLap2dRenderer extends IteratingSystem {
     protected ComponentMapper<LayerMapComponent> layerMapComponentMapper;
     protected ComponentMapper<ZIndexComponent> zIndexComponentMapper;
     protected ComponentMapper<TextureRegionComponent> textureRegionComponentMapper;
+    protected ComponentMapper<NinePatchComponent> ninePatchComponentMapper;
     protected ComponentMapper<ChainedEntitiesComponent> chainedEntitiesMapper;
 
+    protected TransformHierarchySystem transformHierarchySystem;
+    protected BoundingBoxSystem boundingBoxSystem;
+
     protected DrawableLogicMapper drawableLogicMapper;
     protected RayHandler rayHandler;
     protected Camera camera;
     protected Viewport viewport;
+    protected int viewPortEntity = -1;
 
     public static final Color clearColor = new Color(Color.CLEAR);
 
     protected final Batch batch;
     protected float timeRunning = 0;
+    protected int frameId = 0;
 
     protected final FrameBufferManager frameBufferManager;
     protected final Camera screenCamera, tmpFboCamera;
@@ -79,12 +94,40 @@ public class HyperLap2dRenderer extends IteratingSystem {
         }
     };
 
-    protected final SnapshotArray<Integer> screenReadingEntities = new SnapshotArray<>(true, 1, Integer.class);
+    protected final SnapshotIntArray screenReadingEntities = new SnapshotIntArray(true, 1);
 
     protected ShaderUniformProvider shaderUniformProvider;
+    protected final ShaderUniformCache uniformCache = new ShaderUniformCache();
+    //Shader of the last drawn entity is kept until an entity draws without one
+    private boolean pendingShaderReset = false;
 
     protected boolean enableCull = true;
 
+    protected boolean sortRenderCommands = false;
+    protected int autoRetainFrames = 0;
+    protected boolean poolFrameBuffers = false;
+    //Pooled buffers are bound per entity, composites sharing an identifier can be nested
+    private final IntMap<String> pooledTags = new IntMap<>();
+    //Retained buffers outlive the frame, they are bound per entity and disposed with it
+    private final IntMap<String> retainedTags = new IntMap<>();
+    protected int bakingRetained = 0;
+    private boolean retainable;
+    private boolean contentFits;
+    protected final RenderCommandList renderCommands = new RenderCommandList();
+    private DrawableLogic.RenderingType submitRenderingType;
+    private final RenderCommandList.Submitter commandSubmitter = new RenderCommandList.Submitter() {
+        @Override
+        public void submit(int entity, float parentAlpha, float offsetX, float offsetY) {
+            TransformComponent transformComponent = transformMapper.get(entity);
+            float x = transformComponent.x, y = transformComponent.y;
+            transformComponent.x = x + offsetX;
+            transformComponent.y = y + offsetY;
+            drawEntity(batch, entity, parentAlpha, submitRenderingType);
+            transformComponent.x = x;
+            transformComponent.y = y;
+        }
+    };
+
     public HyperLap2dRenderer(Batch batch, boolean hasStencilBuffer, int samples) {
         this.batch = batch;
         this.hasStencilBuffer = hasStencilBuffer;
@@ -106,9 +149,41 @@ public class HyperLap2dRenderer extends IteratingSystem {
         drawableLogicMapper.addDrawableToMap(itemType.getTypeId(), itemType.getDrawable());
     }
 
+    @Override
+    protected void initialize() {
+        engine.getAspectSubscriptionManager()
+                .get(Aspect.all(CompositeTransformComponent.class))
+                .addSubscriptionListener(new EntitySubscription.SubscriptionListener() {
+                    @Override
+                    public void inserted(IntBag entities) {
+                    }
+
+                    @Override
+                    public void removed(IntBag entities) {
+                        for (int i = 0, n = entities.size(); i < n; i++) {
+                            int entity = entities.get(i);
+                            String tag = retainedTags.remove(entity);
+                            if (tag != null) frameBufferManager.dispose(tag);
+                            pooledTags.remove(entity);
+                        }
+                    }
+                });
+    }
+
+    @Override
+    protected void begin() {
+        // BoundingBoxSystem refreshes the hierarchy after scripts and actions, do it here when culling is disabled
+        if (transformHierarchySystem != null && boundingBoxSystem == null)
+            transformHierarchySystem.update();
+        frameBufferManager.update();
+        uniformCache.update(frameId);
+    }
+
     @Override
     public void process(int entity) {
         timeRunning += engine.getDelta();
+        frameId++;
+        viewPortEntity = entity;
         batch.setColor(Color.WHITE);
 
         ViewPortComponent ViewPortComponent = viewPortMapper.get(entity);
@@ -171,7 +246,7 @@ public class HyperLap2dRenderer extends IteratingSystem {
             if (screenTextureRegion.getTexture() == null) screenTextureRegion.setRegion(screenTexture);
 
             batch.setProjectionMatrix(camera.combined);
-            Integer[] children = screenReadingEntities.begin();
+            int[] children = screenReadingEntities.begin();
             for (int i = 0, n = screenReadingEntities.size; i < n; i++) {
                 int child = children[i];
                 if (mainItemComponentMapper.has(child))
@@ -180,6 +255,7 @@ public class HyperLap2dRenderer extends IteratingSystem {
                     screenReadingEntities.removeIndex(i);
             }
             screenReadingEntities.end();
+            resolveShaderReset(batch);
         }
         batch.end();
 
@@ -216,27 +292,45 @@ public class HyperLap2dRenderer extends IteratingSystem {
         DimensionsComponent dimensions = dimensionsMapper.get(rootEntity);
         MainItemComponent mainItemComponent = mainItemComponentMapper.get(rootEntity);
 
-        String fboTag = mainItemComponent.itemIdentifier;
-
         boolean scissors = false;
+        resolveShaderReset(batch);
+
+        boolean hasSize = dimensions.width > 0 && dimensions.height > 0;
+        boolean retained = hasSize && renderingType == DrawableLogic.RenderingType.TEXTURE
+                && isRetained(rootEntity, curCompositeTransformComponent, dimensions, parentAlpha);
+        boolean fbo = hasSize && (curCompositeTransformComponent.renderToFBO || retained);
+        //Contents only needed while drawing this frame, borrow a buffer from the pool
+        boolean pooled = fbo && !retained && poolFrameBuffers;
+
+        String fboTag = pooled ? getPooledTag(rootEntity)
+                : retained && !curCompositeTransformComponent.renderToFBO ? getRetainedTag(rootEntity)
+                : mainItemComponent.itemIdentifier;
+        //Content didn't change since it was last drawn to the frame buffer
+        boolean replay = retained && curCompositeTransformComponent.retainedValid && frameBufferManager.exists(fboTag);
+
+        if (fbo) {
+            if (!replay) {
+                //Active composite frame buffer
+                batch.end();
+
+                int fboWidth = (int) (dimensions.width * pixelsPerWU), fboHeight = (int) (dimensions.height * pixelsPerWU);
+                if (pooled)
+                    frameBufferManager.obtain(fboTag, fboWidth, fboHeight, hasStencilBuffer);
+                else
+                    frameBufferManager.createIfNotExists(fboTag, fboWidth, fboHeight, false, hasStencilBuffer);
 
-        if (curCompositeTransformComponent.renderToFBO && dimensions.width > 0 && dimensions.height > 0) {
-            //Active composite frame buffer
-            batch.end();
-
-            frameBufferManager.createIfNotExists(fboTag, (int) (dimensions.width * pixelsPerWU), (int) (dimensions.height * pixelsPerWU), false, hasStencilBuffer);
-
-            tmpFboCamera.viewportWidth = dimensions.width;
-            tmpFboCamera.viewportHeight = dimensions.height;
-            tmpFboCamera.position.set(tmpFboCamera.viewportWidth * 0.5f, tmpFboCamera.viewportHeight * 0.5f, 0f);
-            tmpFboCamera.update();
-            batch.setProjectionMatrix(tmpFboCamera.combined);
-            fboM4Stack.push(fboM4Pool.obtain().set(tmpFboCamera.combined));
+                tmpFboCamera.viewportWidth = dimensions.width;
+                tmpFboCamera.viewportHeight = dimensions.height;
+                tmpFboCamera.position.set(tmpFboCamera.viewportWidth * 0.5f, tmpFboCamera.viewportHeight * 0.5f, 0f);
+                tmpFboCamera.update();
+                batch.setProjectionMatrix(tmpFboCamera.combined);
+                fboM4Stack.push(fboM4Pool.obtain().set(tmpFboCamera.combined));
 
-            frameBufferManager.begin(fboTag);
+                frameBufferManager.begin(fboTag);
 
-            batch.begin();
-            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+                batch.begin();
+                Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+            }
         } else {
             if (transform.shouldTransform()) {
                 computeTransform(rootEntity);
@@ -257,22 +351,33 @@ public class HyperLap2dRenderer extends IteratingSystem {
         TintComponent tintComponent = tintComponentMapper.get(rootEntity);
         parentAlpha *= tintComponent.color.a;
 
-        drawChildren(rootEntity, batch, curCompositeTransformComponent, parentAlpha, renderingType);
+        if (!replay) {
+            if (retained) bakingRetained++;
+            drawChildren(rootEntity, batch, curCompositeTransformComponent, fbo, parentAlpha, renderingType);
+            if (retained) {
+                bakingRetained--;
+                curCompositeTransformComponent.retainedValid = true;
+            }
+        }
 
-        if (curCompositeTransformComponent.renderToFBO && dimensions.width > 0 && dimensions.height > 0) {
-            //Close FBO and render the result
-            batch.end();
-            frameBufferManager.endCurrent();
+        if (fbo) {
+            if (!replay) {
+                //Close FBO and render the result
+                batch.end();
+                frameBufferManager.endCurrent();
 
-            Matrix4 fboM4 = fboM4Stack.pop();
-            fboM4Pool.free(fboM4);
+                Matrix4 fboM4 = fboM4Stack.pop();
+                fboM4Pool.free(fboM4);
 
-            Matrix4 renderingMatrix = fboM4Stack.size() == 0 ? camera.combined : fboM4Stack.peek();
+                Matrix4 renderingMatrix = fboM4Stack.size() == 0 ? camera.combined : fboM4Stack.peek();
 
-            batch.setProjectionMatrix(renderingMatrix);
-            batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+                batch.setProjectionMatrix(renderingMatrix);
+                batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
 
-            batch.begin();
+                batch.begin();
+            } else {
+                batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            }
 
             applyShader(rootEntity, batch);
 
@@ -286,10 +391,12 @@ public class HyperLap2dRenderer extends IteratingSystem {
                     scaleX, scaleY,
                     transform.rotation,
                     0, 0,
-                    bufferTexture.getWidth(), bufferTexture.getHeight(),
+                    frameBufferManager.getRegionWidth(fboTag), frameBufferManager.getRegionHeight(fboTag),
                     false, true);
 
             resetShader(rootEntity, batch);
+            //The buffer is only rendered to again after the batch ends, flushing this draw
+            if (pooled) frameBufferManager.free(fboTag);
 
             batch.setBlendFunctionSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA,
                     GL20.GL_ONE_MINUS_DST_ALPHA, GL20.GL_ONE);
@@ -306,16 +413,171 @@ public class HyperLap2dRenderer extends IteratingSystem {
         }
     }
 
-    private void drawChildren(int rootEntity, Batch batch, CompositeTransformComponent curCompositeTransformComponent, float parentAlpha,
-                              DrawableLogic.RenderingType renderingType) {
+    /**
+     * Check whether a composite is drawn from its retained frame buffer, either marked with
+     * {@link CompositeTransformComponent#retained} or unchanged for {@link #setAutoRetainFrames(int)} frames.
+     * Only subtrees of images, nine patches and color primitives without shaders can be retained, anything
+     * animated on its own is redrawn every frame. Composites are only retained automatically when they're drawn
+     * without scale or rotation and their content fits their dimensions, so the result looks the same.
+     * <p>
+     * Moves and structure changes are detected through {@link NodeComponent#contentVersion}, the subtree is only
+     * inspected again when it changes. Visibility, layer visibility, tint and texture regions can be written directly,
+     * they are compared every frame by {@link #drawStateChecksum(int)}.
+     */
+    protected boolean isRetained(int entity, CompositeTransformComponent composite, DimensionsComponent dimensions, float parentAlpha) {
+        if (!composite.retained && (autoRetainFrames == 0 || composite.renderToFBO))
+            return false;
+        // Child changes are detected through the versions kept by TransformHierarchySystem
+        if (viewPortMapper.has(entity) || transformHierarchySystem == null)
+            return false;
+
+        NodeComponent nodeComponent = nodeMapper.get(entity);
+        if (composite.inspectedVersion != nodeComponent.contentVersion) {
+            composite.inspectedVersion = nodeComponent.contentVersion;
+            retainable = true;
+            contentFits = true;
+            inspectContent(entity, 0, 0, dimensions.width, dimensions.height);
+            composite.retainable = retainable;
+            composite.contentFits = contentFits;
+        }
+
+        boolean canRetain = composite.retainable
+                && (composite.retained || composite.contentFits && isUnscaled(transformMapper.get(entity).sceneTransform));
+
+        int checksum = nodeComponent.contentVersion;
+        if (canRetain) checksum = 31 * checksum + drawStateChecksum(entity);
+        checksum = 31 * checksum + layerMapComponentMapper.get(entity).version;
+        checksum = 31 * checksum + Float.floatToRawIntBits(dimensions.width);
+        checksum = 31 * checksum + Float.floatToRawIntBits(dimensions.height);
+        checksum = 31 * checksum + Float.floatToRawIntBits(parentAlpha);
+        checksum = 31 * checksum + tintComponentMapper.get(entity).color.toIntBits();
+
+        boolean wasRetained = composite.retained || composite.staticFrames >= autoRetainFrames;
+        if (!canRetain || checksum != composite.retainedChecksum) {
+            composite.retainedChecksum = checksum;
+            composite.retainedValid = false;
+            composite.staticFrames = 0;
+        } else if (composite.staticFrames < autoRetainFrames) {
+            composite.staticFrames++;
+        }
+
+        boolean isRetained = canRetain && (composite.retained || composite.staticFrames >= autoRetainFrames);
+        if (wasRetained && !isRetained && !composite.retained)
+            frameBufferManager.dispose(getRetainedTag(entity));
+        return isRetained;
+    }
+
+    private String getRetainedTag(int entity) {
+        String tag = retainedTags.get(entity);
+        if (tag == null) {
+            tag = "retained#" + entity;
+            retainedTags.put(entity, tag);
+        }
+        return tag;
+    }
+
+    private String getPooledTag(int entity) {
+        String tag = pooledTags.get(entity);
+        if (tag == null) {
+            tag = "pooled#" + entity;
+            pooledTags.put(entity, tag);
+        }
+        return tag;
+    }
+
+    /**
+     * Checksum of what changes how a subtree is drawn without a version: visibility, layer visibility, tint and
+     * texture regions of every child.
+     */
+    private int drawStateChecksum(int entity) {
+        NodeComponent nodeComponent = nodeMapper.get(entity);
+        LayerMapComponent layers = layerMapComponentMapper.get(entity);
+        int checksum = 1;
+
+        int[] children = nodeComponent.children.begin();
+        for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+            int child = children[i];
+            checksum = 31 * checksum + (mainItemComponentMapper.get(child).visible ? 1 : 0);
+            checksum = 31 * checksum + (layers.isVisible(zIndexComponentMapper.get(child).layerHash) ? 1 : 0);
+            checksum = 31 * checksum + tintComponentMapper.get(child).color.toIntBits();
+
+            TextureRegionComponent textureRegionComponent = textureRegionComponentMapper.get(child);
+            if (textureRegionComponent != null)
+                checksum = 31 * checksum + System.identityHashCode(textureRegionComponent.region);
+            NinePatchComponent ninePatchComponent = ninePatchComponentMapper.get(child);
+            if (ninePatchComponent != null)
+                checksum = 31 * checksum + System.identityHashCode(ninePatchComponent.ninePatch);
+
+            if (nodeMapper.has(child))
+                checksum = 31 * checksum + drawStateChecksum(child);
+        }
+        nodeComponent.children.end();
+
+        return checksum;
+    }
+
+    private static boolean isUnscaled(Affine2 sceneTransform) {
+        return sceneTransform.m00 == 1 && sceneTransform.m11 == 1 && sceneTransform.m01 == 0 && sceneTransform.m10 == 0;
+    }
+
+    /**
+     * Check the children of a composite can be retained and whether they fit inside the given bounds, offsets are the
+     * position of the composite relative to the retained one.
+     */
+    private void inspectContent(int entity, float offsetX, float offsetY, float width, float height) {
+        NodeComponent nodeComponent = nodeMapper.get(entity);
+        int[] children = nodeComponent.children.begin();
+        for (int i = 0, n = nodeComponent.children.size; i < n && retainable; i++) {
+            int child = children[i];
+            MainItemComponent mainItemComponent = mainItemComponentMapper.get(child);
+            TransformComponent transformComponent = transformMapper.get(child);
+            DimensionsComponent dimensionsComponent = dimensionsMapper.get(child);
+
+            ShaderComponent shaderComponent = shaderComponentMapper.get(child);
+            if (shaderComponent != null && shaderComponent.getShader() != null) {
+                retainable = false;
+                break;
+            }
+
+            float x = offsetX + transformComponent.x;
+            float y = offsetY + transformComponent.y;
+            if (contentFits && (transformComponent.shouldTransform() || dimensionsComponent == null || x < 0 || y < 0
+                    || x + dimensionsComponent.width > width || y + dimensionsComponent.height > height))
+                contentFits = false;
+
+            NodeComponent childNodeComponent = nodeMapper.get(child);
+            if (childNodeComponent != null) {
+                inspectContent(child, x, y, width, height);
+                continue;
+            }
+
+            switch (mainItemComponent.entityType) {
+                case EntityFactory.IMAGE_TYPE:
+                case EntityFactory.NINE_PATCH:
+                case EntityFactory.COLOR_PRIMITIVE:
+                    break;
+                default:
+                    retainable = false;
+                    continue;
+            }
+
+            ChainedEntitiesComponent chainedEntitiesComponent = chainedEntitiesMapper.get(child);
+            if (chainedEntitiesComponent != null && chainedEntitiesComponent.chainedEntities.size != 0)
+                retainable = false;
+        }
+        nodeComponent.children.end();
+    }
+
+    private void drawChildren(int rootEntity, Batch batch, CompositeTransformComponent curCompositeTransformComponent, boolean fbo,
+                              float parentAlpha, DrawableLogic.RenderingType renderingType) {
         NodeComponent nodeComponent = nodeMapper.get(rootEntity);
-        Integer[] children = nodeComponent.children.begin();
+        int[] children = nodeComponent.children.begin();
         TransformComponent transform = transformMapper.get(rootEntity);
         LayerMapComponent rootLayers = layerMapComponentMapper.get(rootEntity);
 
         float offsetX = transform.x, offsetY = transform.y;
 
-        if (viewPortMapper.has(rootEntity) || curCompositeTransformComponent.renderToFBO) {
+        if (viewPortMapper.has(rootEntity) || fbo) {
             //Don't offset children in root composite or in FBOs
             offsetX = 0;
             offsetY = 0;
@@ -332,7 +594,8 @@ public class HyperLap2dRenderer extends IteratingSystem {
             }
 
             MainItemComponent childMainItemComponent = mainItemComponentMapper.get(child);
-            if (!childMainItemComponent.visible || childMainItemComponent.culled) {
+            //Culling doesn't apply while drawing retained content, it must be complete once the camera moves
+            if (!childMainItemComponent.visible || childMainItemComponent.culled && bakingRetained == 0) {
                 //Skip if entity is culled or not visible
                 if (enableCull) {
                     continue;
@@ -343,27 +606,76 @@ public class HyperLap2dRenderer extends IteratingSystem {
             float cx = childTransformComponent.x, cy = childTransformComponent.y;
             NodeComponent childNodeComponent = nodeMapper.get(child);
 
-            if (!transform.shouldTransform() || curCompositeTransformComponent.renderToFBO) {
+            if (!transform.shouldTransform() || fbo) {
                 // The group doesn't need matrix transformation. Just offset child in screen coordinates.
                 childTransformComponent.x = cx + offsetX;
                 childTransformComponent.y = cy + offsetY;
             }
 
             if (childNodeComponent == null) {
-                if (checkRenderingLayer(child))
-                    drawEntity(batch, child, parentAlpha, renderingType);
+                if (checkRenderingLayer(child)) {
+                    if (sortRenderCommands) {
+                        //Record now, draw grouped by state once the composite ends
+                        renderCommands.add(child, parentAlpha, childTransformComponent.x - cx, childTransformComponent.y - cy,
+                                stateKeyOf(child), commandBoundsOf(child));
+                    } else {
+                        drawEntity(batch, child, parentAlpha, renderingType);
+                    }
+                }
             } else {
                 //Step into Composite
+                submitRenderCommands(renderingType);
                 drawRecursively(child, parentAlpha, renderingType);
             }
 
-            if (!transform.shouldTransform() || curCompositeTransformComponent.renderToFBO) {
+            if (!transform.shouldTransform() || fbo) {
                 //Restore composite relative position.
                 childTransformComponent.x = cx;
                 childTransformComponent.y = cy;
             }
         }
         nodeComponent.children.end();
+        submitRenderCommands(renderingType);
+        resolveShaderReset(batch);
+    }
+
+    private void submitRenderCommands(DrawableLogic.RenderingType renderingType) {
+        if (renderCommands.size() == 0) return;
+
+        submitRenderingType = renderingType;
+        renderCommands.submit(commandSubmitter);
+    }
+
+    /**
+     * Render state an entity draws with, commands sharing it are submitted together.
+     */
+    protected int stateKeyOf(int entity) {
+        int key = mainItemComponentMapper.get(entity).entityType;
+
+        ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
+        if (shaderComponent != null && shaderComponent.getShader() != null)
+            key = 31 * key + System.identityHashCode(shaderComponent.getShader());
+
+        TextureRegionComponent textureRegionComponent = textureRegionComponentMapper.get(entity);
+        if (textureRegionComponent != null && textureRegionComponent.region != null)
+            key = 31 * key + System.identityHashCode(textureRegionComponent.region.getTexture());
+
+        return key;
+    }
+
+    /**
+     * @return world bounds of everything the entity draws, null if unknown
+     */
+    protected Rectangle commandBoundsOf(int entity) {
+        ChainedEntitiesComponent chainedEntitiesComponent = chainedEntitiesMapper.get(entity);
+        if (chainedEntitiesComponent != null && chainedEntitiesComponent.chainedEntities.size != 0)
+            return null;
+
+        BoundingBoxComponent boundingBoxComponent = boundingBoxesMapper.get(entity);
+        if (boundingBoxSystem == null || boundingBoxComponent == null)
+            return null;
+
+        return boundingBoxComponent.rectangle;
     }
 
     private void drawEntity(Batch batch, int child, float parentAlpha, DrawableLogic.RenderingType renderingType) {
@@ -373,10 +685,12 @@ public class HyperLap2dRenderer extends IteratingSystem {
             hasNormals = true;
         int entityType = mainItemComponentMapper.get(child).entityType;
 
+        if (pendingShaderReset && !hasShader(child)) resolveShaderReset(batch);
         applyShader(child, batch);
         //Find the logic from mapper and draw it
         drawableLogicMapper.getDrawable(entityType).draw(batch, child, parentAlpha, renderingType);
-        resetShader(child, batch);
+        //Following entities with the same shader keep batching
+        if (shaderComponentMapper.has(child)) pendingShaderReset = true;
 
         ChainedEntitiesComponent chainedEntitiesComponent = chainedEntitiesMapper.get(child);
         if (chainedEntitiesComponent != null && chainedEntitiesComponent.chainedEntities.size != 0) {
@@ -397,6 +711,19 @@ public class HyperLap2dRenderer extends IteratingSystem {
         TransformComponent curTransform = transformMapper.get(rootEntity);
         Affine2 worldTransform = curTransform.worldTransform;
 
+        if (transformHierarchySystem != null && curTransform.worldVersion != 0 && fboM4Stack.size() == 0) {
+            // Scene transform is cached by TransformHierarchySystem, FBO composites draw in their own space instead
+            worldTransform.set(curTransform.sceneTransform);
+
+            // Root position is applied to children only when the root transforms
+            TransformComponent rootTransform = transformMapper.get(viewPortEntity);
+            if (rootTransform != null && !rootTransform.shouldTransform())
+                worldTransform.preTranslate(-rootTransform.x, -rootTransform.y);
+
+            curTransform.computedTransform.set(worldTransform);
+            return curTransform.computedTransform;
+        }
+
         float originX = curTransform.originX;
         float originY = curTransform.originY;
         float x = curTransform.x;
@@ -436,16 +763,22 @@ public class HyperLap2dRenderer extends IteratingSystem {
     protected void applyShader(int entity, Batch batch) {
         if (shaderComponentMapper.has(entity)) {
             ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
-            if (shaderComponent.getShader() != null && shaderComponent.getShader().isCompiled()) {
-                batch.setShader(shaderComponent.getShader());
-
-                batch.getShader().setUniformf("u_delta_time", engine.getDelta());
-                batch.getShader().setUniformf("u_time", timeRunning);
-                batch.getShader().setUniformf("u_viewportInverse", invScreenWidth, invScreenHeight);
+            ShaderProgram shader = shaderComponent.getShader();
+            if (shader != null && shader.isCompiled()) {
+                //Switching program flushes the batch, uniforms are only uploaded when their value changes
+                if (batch.getShader() != shader) batch.setShader(shader);
+                pendingShaderReset = false;
+                uniformCache.begin(shader, batch);
+
+                if (uniformCache.beginFrame(frameId)) {
+                    uniformCache.setUniformf("u_delta_time", engine.getDelta());
+                    uniformCache.setUniformf("u_time", timeRunning);
+                    uniformCache.setUniformf("u_viewportInverse", invScreenWidth, invScreenHeight);
+                }
 
                 TextureRegionComponent entityTextureRegionComponent = textureRegionComponentMapper.get(entity);
                 if (entityTextureRegionComponent != null && entityTextureRegionComponent.region != null) {
-                    batch.getShader().setUniformf("u_atlas_coords", entityTextureRegionComponent.region.getU(),
+                    uniformCache.setUniformf("u_atlas_coords", entityTextureRegionComponent.region.getU(),
                             entityTextureRegionComponent.region.getV(),
                             entityTextureRegionComponent.region.getU2(),
                             entityTextureRegionComponent.region.getV2());
@@ -473,32 +806,37 @@ public class HyperLap2dRenderer extends IteratingSystem {
                     u2 = u2 * invScreenWidth;
                     v2 = v2 * invScreenHeight;
 
-                    batch.getShader().setUniformf("u_screen_coords", u, v, u2, v2);
+                    uniformCache.setUniformf("u_screen_coords", u, v, u2, v2);
                 }
 
-                for (String key : shaderComponent.customUniforms.keys()) {
-                    ShaderUniformVO vo = shaderComponent.customUniforms.get(key);
+                for (ObjectMap.Entry<String, ShaderUniformVO> entry : shaderComponent.customUniforms) {
+                    String key = entry.key;
+                    ShaderUniformVO vo = entry.value;
 
-                    switch (vo.getType()) {
-                        case "int":
-                            batch.getShader().setUniformi(key, vo.intValue);
+                    switch (vo.getTypeId()) {
+                        case ShaderUniformVO.TYPE_INT:
+                            uniformCache.setUniformi(key, vo.intValue);
                             break;
-                        case "float":
-                            batch.getShader().setUniformf(key, vo.floatValue);
+                        case ShaderUniformVO.TYPE_FLOAT:
+                            uniformCache.setUniformf(key, vo.floatValue);
                             break;
-                        case "vec2":
-                            batch.getShader().setUniformf(key, vo.floatValue, vo.floatValue2);
+                        case ShaderUniformVO.TYPE_VEC2:
+                            uniformCache.setUniformf(key, vo.floatValue, vo.floatValue2);
                             break;
-                        case "vec3":
-                            batch.getShader().setUniformf(key, vo.floatValue, vo.floatValue2, vo.floatValue3);
+                        case ShaderUniformVO.TYPE_VEC3:
+                            uniformCache.setUniformf(key, vo.floatValue, vo.floatValue2, vo.floatValue3);
                             break;
-                        case "vec4":
-                            batch.getShader().setUniformf(key, vo.floatValue, vo.floatValue2, vo.floatValue3, vo.floatValue4);
+                        case ShaderUniformVO.TYPE_VEC4:
+                            uniformCache.setUniformf(key, vo.floatValue, vo.floatValue2, vo.floatValue3, vo.floatValue4);
                             break;
                     }
                 }
 
-                if (shaderUniformProvider != null) shaderUniformProvider.applyUniforms(shaderComponent.shaderName, batch.getShader());
+                if (shaderUniformProvider != null) {
+                    //Provider uniforms are set directly on the program, previous draws must not see them
+                    batch.flush();
+                    shaderUniformProvider.applyUniforms(shaderComponent.shaderName, shader);
+                }
             }
         }
     }
@@ -506,6 +844,22 @@ public class HyperLap2dRenderer extends IteratingSystem {
     protected void resetShader(int entity, Batch batch) {
         if (shaderComponentMapper.has(entity)) {
             batch.setShader(null);
+            pendingShaderReset = false;
+        }
+    }
+
+    private boolean hasShader(int entity) {
+        ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
+        return shaderComponent != null && shaderComponent.getShader() != null && shaderComponent.getShader().isCompiled();
+    }
+
+    /**
+     * Restore the default shader if the last drawn entity left its own bound.
+     */
+    protected void resolveShaderReset(Batch batch) {
+        if (pendingShaderReset) {
+            batch.setShader(null);
+            pendingShaderReset = false;
         }
     }
 
@@ -519,10 +873,10 @@ public class HyperLap2dRenderer extends IteratingSystem {
         if (shaderComponentMapper.has(entity)) {
             ShaderComponent shaderComponent = shaderComponentMapper.get(entity);
 
-            boolean contains = screenReadingEntities.contains(entity, false);
+            boolean contains = screenReadingEntities.contains(entity);
             if (shaderComponent.renderingLayer == MainItemVO.RenderingLayer.SCREEN) {
                 if (contains)
-                    screenReadingEntities.removeValue(entity, false);
+                    screenReadingEntities.removeValue(entity);
                 return true;
             } else if (shaderComponent.renderingLayer == MainItemVO.RenderingLayer.SCREEN_READING) {
                 if (!contains)
@@ -534,8 +888,13 @@ public class HyperLap2dRenderer extends IteratingSystem {
         return true;
     }
 
+    public void addSpecialEntity(int entity) {
+        if (!screenReadingEntities.contains(entity))
+            screenReadingEntities.add(entity);
+    }
+
     public void removeSpecialEntity(int entity) {
-        screenReadingEntities.removeValue(entity, false);
+        screenReadingEntities.removeValue(entity);
     }
 
     public void setRayHandler(RayHandler rayHandler) {
@@ -550,8 +909,13 @@ public class HyperLap2dRenderer extends IteratingSystem {
         return frameBufferManager;
     }
 
+    public ShaderUniformCache getShaderUniformCache() {
+        return uniformCache;
+    }
+
     public void dispose() {
         frameBufferManager.dispose();
+        uniformCache.clear();
         fboM4Pool.clear();
         fboM4Stack.clear();
     }
@@ -609,5 +973,40 @@ public class HyperLap2dRenderer extends IteratingSystem {
     public void setShaderUniformProvider(ShaderUniformProvider shaderUniformProvider) {
         this.shaderUniformProvider = shaderUniformProvider;
     }
+
+    /**
+     * Retain composites whose content didn't change for the given number of frames, drawing them from a frame buffer
+     * until they change again. 0, the default, disables detection, composites can still be marked with
+     * {@link CompositeTransformComponent#retained}.
+     * <p>
+     * Transform, tint, visibility, layer visibility and texture region changes are seen by themselves. Other changes
+     * to what an entity inside a retained composite draws, like pixels written into its texture, must call
+     * {@link TransformHierarchySystem#invalidateContent(int)}.
+     */
+    public void setAutoRetainFrames(int frames) {
+        autoRetainFrames = Math.max(0, frames);
+    }
+
+    /**
+     * Render non retained {@link CompositeTransformComponent#renderToFBO} composites to frame buffers shared through
+     * the {@link FrameBufferManager} pool, disabled by default. Pooled contents are only valid while the composite is
+     * drawn, so they are no longer available through {@link FrameBufferManager#getColorBufferTexture(String)} by the
+     * composite identifier.
+     */
+    public void setPoolFrameBuffers(boolean poolFrameBuffers) {
+        this.poolFrameBuffers = poolFrameBuffers;
+    }
+
+    /**
+     * Record the items of each composite and draw them grouped by shader, drawable type and texture, reordering only
+     * items whose bounds don't overlap. Needs {@link BoundingBoxSystem}, items without bounds keep their order.
+     */
+    public void setSortRenderCommands(boolean sortRenderCommands) {
+        this.sortRenderCommands = sortRenderCommands;
+    }
+
+    public RenderCommandList getRenderCommands() {
+        return renderCommands;
+    }
 }
 
@@ -0,0 +1,149 @@
+package games.rednblack.editor.renderer.systems.render;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Draws recorded in hierarchy order and submitted grouped by render state.
+ * <p>
+ * Each command carries a state key (shader, drawable type and texture) and its world bounds. On {@link #submit(Submitter)}
+ * commands sharing the state of the last submitted one are pulled ahead, as long as they don't overlap a command
+ * that was recorded before them and is still waiting: overlapping draws always keep their z-order. Commands without
+ * bounds overlap everything and are never reordered. Lookahead is limited to keep sorting linear.
+ */
+public class RenderCommandList {
+
+    public interface Submitter {
+        void submit(int entity, float parentAlpha, float offsetX, float offsetY);
+    }
+
+    private int size;
+    private int[] entities = new int[64];
+    private float[] parentAlphas = new float[64];
+    private float[] offsets = new float[64 * 2];
+    private int[] stateKeys = new int[64];
+    private float[] bounds = new float[64 * 4];
+    private boolean[] submitted = new boolean[64];
+
+    private int lookahead = 32;
+    private int stateChanges;
+
+    /**
+     * @param offsetX temporary offset of the entity position while drawing
+     * @param bounds world bounds, null if unknown
+     */
+    public void add(int entity, float parentAlpha, float offsetX, float offsetY, int stateKey, Rectangle bounds) {
+        if (size == entities.length) grow();
+
+        entities[size] = entity;
+        parentAlphas[size] = parentAlpha;
+        offsets[size * 2] = offsetX;
+        offsets[size * 2 + 1] = offsetY;
+        stateKeys[size] = stateKey;
+        int b = size * 4;
+        if (bounds != null) {
+            this.bounds[b] = bounds.x;
+            this.bounds[b + 1] = bounds.y;
+            this.bounds[b + 2] = bounds.x + bounds.width;
+            this.bounds[b + 3] = bounds.y + bounds.height;
+        } else {
+            this.bounds[b] = Float.NaN;
+        }
+        submitted[size] = false;
+        size++;
+    }
+
+    /**
+     * Submit every recorded command grouped by state and clear the list.
+     */
+    public void submit(Submitter submitter) {
+        int first = 0;
+        int lastKey = 0;
+        while (first < size) {
+            int state = stateKeys[first];
+            if (first == 0 || state != lastKey) stateChanges++;
+            submit(submitter, first);
+
+            for (int j = first + 1, end = Math.min(size, first + lookahead); j < end; j++) {
+                if (!submitted[j] && stateKeys[j] == state && !isBlocked(first, j))
+                    submit(submitter, j);
+            }
+            lastKey = state;
+
+            while (first < size && submitted[first]) first++;
+        }
+        size = 0;
+    }
+
+    private void submit(Submitter submitter, int index) {
+        submitted[index] = true;
+        submitter.submit(entities[index], parentAlphas[index], offsets[index * 2], offsets[index * 2 + 1]);
+    }
+
+    /**
+     * @return true if a waiting command recorded before <code>index</code> overlaps it
+     */
+    private boolean isBlocked(int from, int index) {
+        int b = index * 4;
+        if (Float.isNaN(bounds[b])) return true;
+
+        for (int i = from; i < index; i++) {
+            if (submitted[i]) continue;
+
+            int o = i * 4;
+            if (Float.isNaN(bounds[o])) return true;
+            if (bounds[o] < bounds[b + 2] && bounds[o + 2] > bounds[b] && bounds[o + 1] < bounds[b + 3] && bounds[o + 3] > bounds[b + 1])
+                return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param lookahead number of commands following a submitted one that can be pulled ahead of the others
+     */
+    public void setLookahead(int lookahead) {
+        this.lookahead = Math.max(1, lookahead);
+    }
+
+    /** @return state switches between submitted commands since the last reset */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    public void resetStateChanges() {
+        stateChanges = 0;
+    }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+
+        int[] newEntities = new int[capacity];
+        System.arraycopy(entities, 0, newEntities, 0, size);
+        entities = newEntities;
+
+        float[] newParentAlphas = new float[capacity];
+        System.arraycopy(parentAlphas, 0, newParentAlphas, 0, size);
+        parentAlphas = newParentAlphas;
+
+        float[] newOffsets = new float[capacity * 2];
+        System.arraycopy(offsets, 0, newOffsets, 0, size * 2);
+        offsets = newOffsets;
+
+        int[] newStateKeys = new int[capacity];
+        System.arraycopy(stateKeys, 0, newStateKeys, 0, size);
+        stateKeys = newStateKeys;
+
+        float[] newBounds = new float[capacity * 4];
+        System.arraycopy(bounds, 0, newBounds, 0, size * 4);
+        bounds = newBounds;
+
+        submitted = new boolean[capacity];
+    }
+}
@@ -0,0 +1,207 @@
+package games.rednblack.editor.renderer.systems.render;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Uniform locations and last uploaded values of entity shaders.
+ * <p>
+ * Locations are resolved once per program and name, values are only uploaded when they differ from what the program
+ * already holds. The batch is flushed before the first upload that changes a program in use, so entities sharing a
+ * shader and uniform values keep batching together.
+ * <p>
+ * Uniforms set directly on the program, e.g. by a {@link games.rednblack.editor.renderer.utils.ShaderUniformProvider},
+ * bypass the cache: call {@link #invalidate(ShaderProgram)} if they overlap the ones set through it.
+ * <p>
+ * Entries are keyed on the program handle and checked against the program instance, so programs recompiled after a
+ * context loss or handles reused by new programs start from a clean state. Only programs drawn by the renderer are
+ * tracked, entries unused for {@link #setEvictFrames(int)} frames are dropped by {@link #update(int)}, disposed
+ * programs can be dropped right away with {@link #evict(ShaderProgram)}.
+ */
+public class ShaderUniformCache {
+    private static final int NOT_FETCHED = -2;
+
+    private final IntMap<ProgramUniforms> programs = new IntMap<>();
+    private int evictFrames = 60;
+
+    private ProgramUniforms current;
+    private Batch batch;
+    private boolean flushed;
+
+    /**
+     * Start setting uniforms of the program bound to the batch.
+     */
+    public void begin(ShaderProgram program, Batch batch) {
+        int handle = program.getHandle();
+        current = programs.get(handle);
+        if (current == null || current.program != program) {
+            current = new ProgramUniforms(program);
+            programs.put(handle, current);
+        }
+        this.batch = batch;
+        flushed = false;
+    }
+
+    /**
+     * @return true the first time it's called for the current program with this frame id, globals can then be set
+     */
+    public boolean beginFrame(int frameId) {
+        current.lastUsedFrame = frameId;
+        if (current.frameId == frameId) return false;
+        current.frameId = frameId;
+        return true;
+    }
+
+    public int location(String name) {
+        int location = current.locations.get(name, NOT_FETCHED);
+        if (location == NOT_FETCHED) {
+            location = current.program.fetchUniformLocation(name, false);
+            current.locations.put(name, location);
+        }
+        return location;
+    }
+
+    public void setUniformi(String name, int value) {
+        int location = location(name);
+        if (location < 0 || !current.update(location, Float.intBitsToFloat(value), 0, 0, 0)) return;
+
+        flush();
+        current.program.setUniformi(location, value);
+    }
+
+    public void setUniformf(String name, float value) {
+        int location = location(name);
+        if (location < 0 || !current.update(location, value, 0, 0, 0)) return;
+
+        flush();
+        current.program.setUniformf(location, value);
+    }
+
+    public void setUniformf(String name, float value1, float value2) {
+        int location = location(name);
+        if (location < 0 || !current.update(location, value1, value2, 0, 0)) return;
+
+        flush();
+        current.program.setUniformf(location, value1, value2);
+    }
+
+    public void setUniformf(String name, float value1, float value2, float value3) {
+        int location = location(name);
+        if (location < 0 || !current.update(location, value1, value2, value3, 0)) return;
+
+        flush();
+        current.program.setUniformf(location, value1, value2, value3);
+    }
+
+    public void setUniformf(String name, float value1, float value2, float value3, float value4) {
+        int location = location(name);
+        if (location < 0 || !current.update(location, value1, value2, value3, value4)) return;
+
+        flush();
+        current.program.setUniformf(location, value1, value2, value3, value4);
+    }
+
+    /**
+     * Forget the values uploaded to a program, they'll be uploaded again on next use.
+     */
+    public void invalidate(ShaderProgram program) {
+        ProgramUniforms uniforms = programs.get(program.getHandle());
+        if (uniforms != null && uniforms.program == program) {
+            Arrays.fill(uniforms.known, false);
+            uniforms.frameId = -1;
+        }
+    }
+
+    /**
+     * Drop the entry of a program, e.g. before disposing it.
+     */
+    public void evict(ShaderProgram program) {
+        int handle = program.getHandle();
+        ProgramUniforms uniforms = programs.get(handle);
+        if (uniforms != null && uniforms.program == program) {
+            programs.remove(handle);
+            if (current == uniforms) current = null;
+        }
+    }
+
+    /**
+     * Drop entries of programs that weren't drawn for {@link #setEvictFrames(int)} frames, called once per frame.
+     */
+    public void update(int frameId) {
+        IntMap.Values<ProgramUniforms> values = programs.values();
+        while (values.hasNext()) {
+            ProgramUniforms uniforms = values.next();
+            if (frameId - uniforms.lastUsedFrame > evictFrames) {
+                values.remove();
+                if (current == uniforms) current = null;
+            }
+        }
+    }
+
+    /**
+     * @param evictFrames frames a program can stay unused before its entry is dropped
+     */
+    public void setEvictFrames(int evictFrames) {
+        this.evictFrames = evictFrames;
+    }
+
+    public int size() {
+        return programs.size;
+    }
+
+    public void clear() {
+        programs.clear();
+        current = null;
+        batch = null;
+    }
+
+    private void flush() {
+        if (!flushed) {
+            batch.flush();
+            flushed = true;
+        }
+    }
+
+    private static class ProgramUniforms {
+        final ShaderProgram program;
+        final ObjectIntMap<String> locations = new ObjectIntMap<>();
+        int frameId = -1;
+        int lastUsedFrame;
+
+        boolean[] known = new boolean[8];
+        float[] values = new float[8 * 4];
+
+        ProgramUniforms(ShaderProgram program) {
+            this.program = program;
+        }
+
+        /**
+         * Integer values are stored by their bits.
+         *
+         * @return true if the value differs from the last uploaded one
+         */
+        boolean update(int location, float v1, float v2, float v3, float v4) {
+            if (location >= known.length) {
+                int capacity = Math.max(location + 1, known.length * 2);
+                known = Arrays.copyOf(known, capacity);
+                values = Arrays.copyOf(values, capacity * 4);
+            }
+
+            int offset = location * 4;
+            if (known[location] && values[offset] == v1 && values[offset + 1] == v2
+                    && values[offset + 2] == v3 && values[offset + 3] == v4)
+                return false;
+
+            known[location] = true;
+            values[offset] = v1;
+            values[offset + 1] = v2;
+            values[offset + 2] = v3;
+            values[offset + 3] = v4;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import games.rednblack.editor.renderer.ecs.Component;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares the components a system accesses, making it eligible to run concurrently with non-conflicting systems
+ * under {@link games.rednblack.editor.renderer.systems.strategy.parallel.ParallelInvocationStrategy}.
+ * <p>
+ * Components of the system's aspect are always considered read, components the system modifies must be listed in
+ * {@link #writes()}, including aspect ones. Annotated systems must not create or delete entities, nor add or remove
+ * components, while processing.
+ * <p>
+ * Systems without this annotation always run alone on the calling thread. The annotation is not inherited, subclasses
+ * touching other components must declare their own access.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ConcurrentAccess {
+    /** Components read besides the aspect ones. */
+    Class<? extends Component>[] reads() default {};
+
+    /** Components modified by the system. */
+    Class<? extends Component>[] writes() default {};
+}
@@ -0,0 +1,112 @@
+package games.rednblack.editor.renderer.systems.strategy;
+
+import games.rednblack.editor.renderer.ecs.Component;
+import games.rednblack.editor.renderer.ecs.Engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free multiple producers, single consumer queue of engine operations.
+ * <p>
+ * Any thread may {@link #submit(Command)} commands, they are executed in submission order per producer by
+ * {@link #playback()} on the engine thread. {@link HyperLap2dInvocationStrategy} plays back its buffer at the
+ * beginning of every frame, before any system runs, so producers never block the frame loop.
+ * <p>
+ * Commands are linked intrusively and must not be submitted twice.
+ */
+public class EntityCommandBuffer {
+
+    public static abstract class Command {
+        private volatile Command next;
+
+        /**
+         * Called on the engine thread during playback.
+         */
+        public abstract void execute();
+    }
+
+    /**
+     * Command creating an entity, can be the target of other commands recorded before it's executed.
+     */
+    public static abstract class EntityCommand extends Command {
+        protected int entity = -1;
+
+        /**
+         * @return created entity, -1 until the command is played back
+         */
+        public int getEntity() {
+            return entity;
+        }
+    }
+
+    public interface ComponentSetup<T extends Component> {
+        void setup(int entity, T component);
+    }
+
+    private final Engine engine;
+
+    /** Last submitted command, swapped by producers */
+    private final AtomicReference<Command> tail;
+    /** Last executed command, only touched by the consumer */
+    private Command head;
+
+    public EntityCommandBuffer(Engine engine) {
+        this.engine = engine;
+        Command stub = new Command() {
+            @Override
+            public void execute() {
+            }
+        };
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Queue a command, safe to call from any thread.
+     */
+    public void submit(Command command) {
+        command.next = null;
+        Command previous = tail.getAndSet(command);
+        // Until this write the consumer sees the end of the queue at previous, the command runs on the next playback
+        previous.next = command;
+    }
+
+    /**
+     * Queue the creation of a component on an entity created by an earlier command.
+     */
+    public <T extends Component> void addComponent(final EntityCommand target, final Class<T> type, final ComponentSetup<T> setup) {
+        submit(new Command() {
+            @Override
+            public void execute() {
+                int entity = target.getEntity();
+                if (entity == -1) return;
+                T component = engine.edit(entity).create(type);
+                if (setup != null) setup.setup(entity, component);
+            }
+        });
+    }
+
+    /**
+     * Execute every command published so far, must be called from the engine thread. Commands submitted while
+     * playing back are executed in the same call.
+     *
+     * @return number of executed commands
+     */
+    public int playback() {
+        int count = 0;
+        Command next;
+        while ((next = head.next) != null) {
+            head = next;
+            count++;
+            next.execute();
+        }
+        return count;
+    }
+
+    /**
+     * @return true if no published command is waiting, commands being submitted concurrently may not be visible
+     */
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+}
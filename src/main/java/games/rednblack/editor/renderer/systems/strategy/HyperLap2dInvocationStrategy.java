@@ -4,16 +4,18 @@ import games.rednblack.editor.renderer.ecs.BaseSystem;
 import games.rednblack.editor.renderer.ecs.SystemInvocationStrategy;
 import games.rednblack.editor.renderer.ecs.utils.Bag;
 import games.rednblack.editor.renderer.ecs.utils.BitVector;
+import games.rednblack.editor.renderer.systems.strategy.profiler.FrameProfiler;
+import games.rednblack.editor.renderer.systems.strategy.profiler.SystemProfiler;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.TimeUtils;
 
 public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
 
-    private final Bag<BaseSystem> renderSystems = new Bag<>(BaseSystem.class);
+    protected final Bag<BaseSystem> renderSystems = new Bag<>(BaseSystem.class);
     private final Bag<BaseSystem> logicSystems = new Bag<>(BaseSystem.class);
     private final Bag<InterpolationSystem> interpolationSystems = new Bag<>(InterpolationSystem.class);
 
-    private final BitVector disabledRenderSystems = new BitVector();
+    protected final BitVector disabledRenderSystems = new BitVector();
     private final BitVector disabledLogicSystems = new BitVector();
     private final BitVector disabledInterpolationSystems = new BitVector();
 
@@ -35,8 +37,17 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
     private long currentTime;
     private long accumulator = 0;
 
+    /**
+     * @deprecated nothing takes this lock anymore and it protects nothing, record off-thread changes in
+     * {@link #getCommandBuffer()}
+     */
+    @Deprecated
     public static final Object updateEntities = new Object();
 
+    protected EntityCommandBuffer commandBuffer;
+
+    protected FrameProfiler profiler;
+
     @Override
     protected void initialize() {
         for (int i = 0; i < systems.size(); i++) {
@@ -52,11 +63,25 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
             }
         }
 
+        commandBuffer = new EntityCommandBuffer(engine);
         currentTime = TimeUtils.nanoTime();
+
+        if (profiler != null)
+            profiler.initialize(engine, systems);
     }
 
     @Override
     protected void process() {
+        FrameProfiler profiler = isProfiling() ? this.profiler : null;
+        if (profiler != null)
+            profiler.beginFrame();
+
+        // Sync point of off-thread changes
+        commandBuffer.playback();
+
+        if (profiler != null)
+            profiler.getLogicProfiler().start();
+
         long newTime = TimeUtils.nanoTime();
         long frameTime = Math.min(newTime - currentTime, 250000000);
         currentTime = newTime;
@@ -72,12 +97,17 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
                     continue;
 
                 updateEntitySateSync();
-                logicSystems.get(i).process();
+                processSystem(logicSystems.get(i));
             }
 
             accumulator -= TIME_STEP_NANO;
         }
 
+        if (profiler != null) {
+            profiler.getLogicProfiler().stop();
+            profiler.getInterpolationProfiler().start();
+        }
+
         //interpolate accumulator data
         for (int i = 0, s = interpolationSystems.size(); s > i; i++) {
             if (disabledInterpolationSystems.get(i))
@@ -87,24 +117,74 @@ public class HyperLap2dInvocationStrategy extends SystemInvocationStrategy {
             interpolationSystems.get(i).interpolate(alpha);
         }
 
+        if (profiler != null)
+            profiler.getInterpolationProfiler().stop();
+
         engine.setDelta(Gdx.graphics.getDeltaTime() * TIME_SCALE);
 
-        //process rendering systems
+        processRenderSystems();
+
+        updateEntitySateSync();
+
+        if (profiler != null)
+            profiler.endFrame();
+    }
+
+    /**
+     * Process rendering systems once per frame, after logic systems and interpolation.
+     */
+    protected void processRenderSystems() {
         for (int i = 0, s = renderSystems.size(); s > i; i++) {
             if (disabledRenderSystems.get(i))
                 continue;
 
             updateEntitySateSync();
-            renderSystems.get(i).process();
+            processSystem(renderSystems.get(i));
         }
+    }
 
-        updateEntitySateSync();
+    /**
+     * Process a single system, recording it when profiling. Safe to call from any thread as long as each
+     * system is processed by one thread at a time.
+     */
+    protected void processSystem(BaseSystem system) {
+        SystemProfiler systemProfiler = isProfiling() ? profiler.getProfiler(system) : null;
+        if (systemProfiler == null) {
+            system.process();
+            return;
+        }
+
+        systemProfiler.start();
+        system.process();
+        systemProfiler.stop();
+    }
+
+    protected boolean isProfiling() {
+        return profiler != null && profiler.isEnabled();
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Record per-system timings, entity counts and allocations of every frame, null to stop profiling.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+        if (profiler != null && systems != null)
+            profiler.initialize(engine, systems);
     }
 
     public void updateEntitySateSync() {
-        synchronized (updateEntities) {
-            updateEntityStates();
-        }
+        updateEntityStates();
+    }
+
+    /**
+     * Buffer of changes recorded by other threads, played back at the beginning of every frame.
+     */
+    public EntityCommandBuffer getCommandBuffer() {
+        return commandBuffer;
     }
 
     @Override
@@ -0,0 +1,164 @@
+package games.rednblack.editor.renderer.systems.strategy.parallel;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import games.rednblack.editor.renderer.ecs.Aspect;
+import games.rednblack.editor.renderer.ecs.BaseEntitySystem;
+import games.rednblack.editor.renderer.ecs.BaseSystem;
+import games.rednblack.editor.renderer.ecs.Component;
+import games.rednblack.editor.renderer.ecs.ComponentTypeFactory;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+import games.rednblack.editor.renderer.systems.strategy.ConcurrentAccess;
+import games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Opt-in {@link HyperLap2dInvocationStrategy} that runs non-conflicting rendering systems on a {@link ForkJoinPool}.
+ * <p>
+ * Systems annotated with {@link ConcurrentAccess} are grouped in stages: a system goes in the stage after the last
+ * earlier system it conflicts with, two systems conflicting when one writes a component the other reads or writes.
+ * Systems of the same stage run concurrently, stages run in order and entity state is synchronized between them.
+ * Systems without the annotation, like the renderer and every system touching GL, run alone on the calling thread.
+ * <p>
+ * Logic systems and interpolation still run sequentially. Not available on GWT.
+ * <pre>
+ * sceneConfiguration.setInvocationStrategy(new ParallelInvocationStrategy());
+ * </pre>
+ */
+public class ParallelInvocationStrategy extends HyperLap2dInvocationStrategy {
+
+    private final ForkJoinPool pool;
+
+    private final Array<IntArray> stages = new Array<>();
+    private SystemTask[] tasks;
+    private final IntArray forked = new IntArray();
+
+    public ParallelInvocationStrategy() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelInvocationStrategy(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+
+        int count = renderSystems.size();
+        tasks = new SystemTask[count];
+        SystemAccess[] access = new SystemAccess[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new SystemTask(renderSystems.get(i));
+            access[i] = new SystemAccess(renderSystems.get(i));
+        }
+
+        int[] stageOf = new int[count];
+        int stageCount = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < i; j++) {
+                if (access[i].conflicts(access[j]))
+                    stageOf[i] = Math.max(stageOf[i], stageOf[j] + 1);
+            }
+            stageCount = Math.max(stageCount, stageOf[i] + 1);
+        }
+
+        stages.clear();
+        for (int i = 0; i < stageCount; i++) {
+            stages.add(new IntArray());
+        }
+        for (int i = 0; i < count; i++) {
+            stages.get(stageOf[i]).add(i);
+        }
+    }
+
+    @Override
+    protected void processRenderSystems() {
+        for (int s = 0; s < stages.size; s++) {
+            IntArray stage = stages.get(s);
+            updateEntitySateSync();
+
+            // Fork everything but the first system, which runs on this thread
+            forked.clear();
+            try {
+                for (int i = 1; i < stage.size; i++) {
+                    int index = stage.get(i);
+                    if (disabledRenderSystems.get(index)) continue;
+
+                    SystemTask task = tasks[index];
+                    task.reinitialize();
+                    pool.execute(task);
+                    forked.add(index);
+                }
+
+                int first = stage.get(0);
+                if (!disabledRenderSystems.get(first))
+                    processSystem(renderSystems.get(first));
+            } finally {
+                // Never leave a system running into the next stage or frame, even if this thread failed
+                for (int i = 0; i < forked.size; i++) {
+                    tasks[forked.get(i)].quietlyJoin();
+                }
+            }
+
+            // Rethrow the failure of a forked system, if any
+            for (int i = 0; i < forked.size; i++) {
+                tasks[forked.get(i)].join();
+            }
+        }
+    }
+
+    /**
+     * Number of stages rendering systems are grouped in, equal to the number of systems when nothing runs concurrently.
+     */
+    public int getStageCount() {
+        return stages.size;
+    }
+
+    private class SystemAccess {
+        final boolean exclusive;
+        final BitVector reads = new BitVector();
+        final BitVector writes = new BitVector();
+
+        SystemAccess(BaseSystem system) {
+            ConcurrentAccess concurrentAccess = system.getClass().getAnnotation(ConcurrentAccess.class);
+            exclusive = concurrentAccess == null;
+            if (exclusive) return;
+
+            if (system instanceof BaseEntitySystem) {
+                Aspect aspect = ((BaseEntitySystem) system).getSubscription().getAspect();
+                reads.or(aspect.getAllSet());
+                reads.or(aspect.getOneSet());
+            }
+
+            ComponentTypeFactory typeFactory = engine.getComponentManager().getTypeFactory();
+            for (Class<? extends Component> type : concurrentAccess.reads()) {
+                reads.set(typeFactory.getIndexFor(type));
+            }
+            for (Class<? extends Component> type : concurrentAccess.writes()) {
+                writes.set(typeFactory.getIndexFor(type));
+            }
+        }
+
+        boolean conflicts(SystemAccess other) {
+            return exclusive || other.exclusive
+                    || writes.intersects(other.reads) || writes.intersects(other.writes)
+                    || other.writes.intersects(reads);
+        }
+    }
+
+    private class SystemTask extends RecursiveAction {
+        private final BaseSystem system;
+
+        SystemTask(BaseSystem system) {
+            this.system = system;
+        }
+
+        @Override
+        protected void compute() {
+            processSystem(system);
+        }
+    }
+}
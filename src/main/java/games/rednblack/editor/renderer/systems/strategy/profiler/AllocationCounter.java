@@ -0,0 +1,36 @@
+package games.rednblack.editor.renderer.systems.strategy.profiler;
+
+/**
+ * Source of the number of bytes allocated so far by the current thread.
+ */
+public interface AllocationCounter {
+    /** Counter for platforms that can't measure allocations, samples record 0 bytes */
+    AllocationCounter NONE = new AllocationCounter() {
+        @Override
+        public long allocatedBytes() {
+            return 0;
+        }
+
+        @Override
+        public long callOverhead() {
+            return 0;
+        }
+
+        @Override
+        public boolean isSupported() {
+            return false;
+        }
+    };
+
+    /**
+     * @return bytes allocated by the calling thread since it started, only differences between calls are meaningful
+     */
+    long allocatedBytes();
+
+    /**
+     * @return bytes allocated by one {@link #allocatedBytes()} call itself, to subtract from the difference of two calls
+     */
+    long callOverhead();
+
+    boolean isSupported();
+}
@@ -0,0 +1,216 @@
+package games.rednblack.editor.renderer.systems.strategy.profiler;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import games.rednblack.editor.renderer.ecs.BaseSystem;
+import games.rednblack.editor.renderer.ecs.Engine;
+
+/**
+ * Per-system frame time and allocation profiler driven by
+ * {@link games.rednblack.editor.renderer.systems.strategy.HyperLap2dInvocationStrategy}.
+ * <p>
+ * Every frame records the whole frame, the fixed step logic loop, interpolation and each system in a
+ * {@link SystemProfiler}. Allocated bytes are recorded when the {@link AllocationCounter} supports it, see
+ * {@link ThreadAllocationCounter#create()} on desktop.
+ * <pre>
+ * FrameProfiler profiler = new FrameProfiler(ThreadAllocationCounter.create());
+ * ((HyperLap2dInvocationStrategy) engine.getInvocationStrategy()).setProfiler(profiler);
+ * ...
+ * profiler.getProfiler(renderer).getPercentileNanos(99);
+ * Gdx.files.local("profile.csv").writeString(profiler.toCsv(), false);
+ * </pre>
+ */
+public class FrameProfiler {
+    public static final int DEFAULT_CAPACITY = 600;
+
+    private final int capacity;
+    private AllocationCounter allocationCounter;
+
+    private final SystemProfiler frameProfiler;
+    private final SystemProfiler logicProfiler;
+    private final SystemProfiler interpolationProfiler;
+    private final IdentityMap<BaseSystem, SystemProfiler> systemProfilers = new IdentityMap<>();
+    private final Array<SystemProfiler> profilers = new Array<>();
+
+    private long frame;
+    private boolean enabled = true;
+
+    public FrameProfiler() {
+        this(AllocationCounter.NONE);
+    }
+
+    public FrameProfiler(AllocationCounter allocationCounter) {
+        this(allocationCounter, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of samples kept for each system
+     */
+    public FrameProfiler(AllocationCounter allocationCounter, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be > 0.");
+        this.capacity = capacity;
+        setAllocationCounter(allocationCounter);
+
+        frameProfiler = addProfiler("Frame");
+        logicProfiler = addProfiler("Logic");
+        interpolationProfiler = addProfiler("Interpolation");
+    }
+
+    private SystemProfiler addProfiler(String name) {
+        SystemProfiler profiler = new SystemProfiler(this, name, capacity);
+        profilers.add(profiler);
+        return profiler;
+    }
+
+    /**
+     * Create the profilers of all systems, called by the invocation strategy once systems are initialized.
+     */
+    public void initialize(Engine engine, Iterable<BaseSystem> systems) {
+        for (BaseSystem system : systems) {
+            if (systemProfilers.containsKey(system)) continue;
+
+            SystemProfiler profiler = addProfiler(null);
+            profiler.initialize(system, engine);
+            systemProfilers.put(system, profiler);
+        }
+    }
+
+    /**
+     * Called by the invocation strategy at the beginning of a frame.
+     */
+    public void beginFrame() {
+        frame++;
+        frameProfiler.start();
+    }
+
+    /**
+     * Called by the invocation strategy at the end of a frame.
+     */
+    public void endFrame() {
+        frameProfiler.stop();
+    }
+
+    /**
+     * @return profiler of the system, null if the system wasn't registered
+     */
+    public SystemProfiler getProfiler(BaseSystem system) {
+        return systemProfilers.get(system);
+    }
+
+    /**
+     * @return whole frame duration
+     */
+    public SystemProfiler getFrameProfiler() {
+        return frameProfiler;
+    }
+
+    /**
+     * @return duration of all fixed step iterations of a frame, logic systems are also recorded separately
+     */
+    public SystemProfiler getLogicProfiler() {
+        return logicProfiler;
+    }
+
+    public SystemProfiler getInterpolationProfiler() {
+        return interpolationProfiler;
+    }
+
+    /**
+     * @return frame, logic and interpolation profilers followed by system profilers in invocation order
+     */
+    public Array<SystemProfiler> getProfilers() {
+        return profilers;
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public AllocationCounter getAllocationCounter() {
+        return allocationCounter;
+    }
+
+    public void setAllocationCounter(AllocationCounter allocationCounter) {
+        this.allocationCounter = allocationCounter != null ? allocationCounter : AllocationCounter.NONE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pause or resume recording, buffered samples are kept.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void clear() {
+        for (SystemProfiler profiler : profilers) {
+            profiler.clear();
+        }
+    }
+
+    /**
+     * Every buffered sample, one per line, oldest first for each profiler:
+     * <code>name,frame,nanos,entities,allocatedBytes</code>
+     */
+    public String toCsv() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("name,frame,nanos,entities,allocatedBytes\n");
+        for (SystemProfiler profiler : profilers) {
+            for (int age = profiler.getSampleCount() - 1; age >= 0; age--) {
+                builder.append(profiler.getName()).append(',')
+                        .append(profiler.getFrame(age)).append(',')
+                        .append(profiler.getNanos(age)).append(',')
+                        .append(profiler.getEntityCount(age)).append(',')
+                        .append(profiler.getAllocatedBytes(age)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Summary statistics and buffered durations of every profiler, oldest sample first.
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"frame\":").append(frame)
+                .append(",\"allocationsSupported\":").append(allocationCounter.isSupported())
+                .append(",\"profilers\":[");
+        for (int i = 0; i < profilers.size; i++) {
+            SystemProfiler profiler = profilers.get(i);
+            if (i > 0) builder.append(',');
+            builder.append("{\"name\":\"").append(profiler.getName()).append('"')
+                    .append(",\"samples\":").append(profiler.getSampleCount())
+                    .append(",\"averageNanos\":").append(profiler.getAverageNanos())
+                    .append(",\"p50Nanos\":").append(profiler.getPercentileNanos(50))
+                    .append(",\"p90Nanos\":").append(profiler.getPercentileNanos(90))
+                    .append(",\"p99Nanos\":").append(profiler.getPercentileNanos(99))
+                    .append(",\"maxNanos\":").append(profiler.getMaxNanos())
+                    .append(",\"averageEntities\":").append(profiler.getAverageEntityCount())
+                    .append(",\"averageAllocatedBytes\":").append(profiler.getAverageAllocatedBytes())
+                    .append(",\"nanos\":[");
+            for (int age = profiler.getSampleCount() - 1; age >= 0; age--) {
+                builder.append(profiler.getNanos(age));
+                if (age > 0) builder.append(',');
+            }
+            builder.append("]}");
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    public void writeCsv(FileHandle file) {
+        file.writeString(toCsv(), false);
+    }
+
+    public void writeJson(FileHandle file) {
+        file.writeString(toJson(), false);
+    }
+}
@@ -0,0 +1,176 @@
+package games.rednblack.editor.renderer.systems.strategy.profiler;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import games.rednblack.editor.renderer.ecs.BaseEntitySystem;
+import games.rednblack.editor.renderer.ecs.BaseSystem;
+import games.rednblack.editor.renderer.ecs.Engine;
+import games.rednblack.editor.renderer.ecs.utils.ArtemisProfiler;
+
+import java.util.Arrays;
+
+/**
+ * Records duration, processed entities and allocated bytes of the last {@link FrameProfiler#getCapacity()} runs of a
+ * system or frame phase in ring buffers.
+ * <p>
+ * {@link #start()} and {@link #stop()} must be called on the same thread, they don't allocate. Statistics are computed
+ * on request from the samples currently in the buffer.
+ */
+public class SystemProfiler implements ArtemisProfiler {
+
+    private final FrameProfiler frameProfiler;
+    private String name;
+    private BaseEntitySystem entitySystem;
+
+    private final long[] nanos;
+    private final int[] entities;
+    private final long[] allocated;
+    private final long[] frames;
+    private int head;
+    private int count;
+
+    private long startNanos;
+    private long startAllocated;
+
+    private long[] sorted;
+
+    SystemProfiler(FrameProfiler frameProfiler, String name, int capacity) {
+        this.frameProfiler = frameProfiler;
+        this.name = name;
+        nanos = new long[capacity];
+        entities = new int[capacity];
+        allocated = new long[capacity];
+        frames = new long[capacity];
+    }
+
+    @Override
+    public void initialize(BaseSystem owner, Engine engine) {
+        if (name == null) {
+            name = owner.getClass().getSimpleName();
+            if (name.isEmpty()) name = owner.getClass().getName();
+        }
+        if (owner instanceof BaseEntitySystem) entitySystem = (BaseEntitySystem) owner;
+    }
+
+    @Override
+    public void start() {
+        startAllocated = frameProfiler.getAllocationCounter().allocatedBytes();
+        startNanos = TimeUtils.nanoTime();
+    }
+
+    @Override
+    public void stop() {
+        long elapsed = TimeUtils.nanoTime() - startNanos;
+        AllocationCounter counter = frameProfiler.getAllocationCounter();
+        long bytes = Math.max(0, counter.allocatedBytes() - startAllocated - counter.callOverhead());
+        int entityCount = entitySystem != null ? entitySystem.getSubscription().getEntities().size() : 0;
+        record(elapsed, entityCount, bytes);
+    }
+
+    /**
+     * Add a sample measured elsewhere.
+     */
+    public void record(long elapsedNanos, int entityCount, long allocatedBytes) {
+        nanos[head] = elapsedNanos;
+        entities[head] = entityCount;
+        allocated[head] = allocatedBytes;
+        frames[head] = frameProfiler.getFrame();
+        head = (head + 1) % nanos.length;
+        if (count < nanos.length) count++;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of samples in the buffer
+     */
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * @param age 0 for the most recent sample
+     */
+    private int indexOf(int age) {
+        if (age < 0 || age >= count) throw new IndexOutOfBoundsException("Sample " + age + ", count: " + count);
+        return (head - 1 - age + nanos.length) % nanos.length;
+    }
+
+    public long getNanos(int age) {
+        return nanos[indexOf(age)];
+    }
+
+    public int getEntityCount(int age) {
+        return entities[indexOf(age)];
+    }
+
+    public long getAllocatedBytes(int age) {
+        return allocated[indexOf(age)];
+    }
+
+    public long getFrame(int age) {
+        return frames[indexOf(age)];
+    }
+
+    /**
+     * @return duration of the most recent sample, 0 if there is none
+     */
+    public long getLastNanos() {
+        return count == 0 ? 0 : getNanos(0);
+    }
+
+    public long getAverageNanos() {
+        return count == 0 ? 0 : sum(nanos) / count;
+    }
+
+    public long getMaxNanos() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, nanos[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Nearest-rank percentile of the buffered durations.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long getPercentileNanos(float percentile) {
+        if (count == 0) return 0;
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be in [0, 100].");
+
+        if (sorted == null) sorted = new long[nanos.length];
+        System.arraycopy(nanos, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int rank = (int) Math.ceil(percentile / 100f * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public long getAverageAllocatedBytes() {
+        return count == 0 ? 0 : sum(allocated) / count;
+    }
+
+    public int getAverageEntityCount() {
+        if (count == 0) return 0;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += entities[i];
+        }
+        return (int) (total / count);
+    }
+
+    private long sum(long[] values) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,67 @@
+package games.rednblack.editor.renderer.systems.strategy.profiler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * {@link AllocationCounter} backed by the HotSpot thread allocation counters. Not available on GWT.
+ * <p>
+ * On JDK 8 reading the counter allocates a few bytes itself, so every difference is biased by that amount. The
+ * smallest difference between back to back reads is measured at creation and reported by {@link #callOverhead()}.
+ */
+public class ThreadAllocationCounter implements AllocationCounter {
+
+    private static final int CALIBRATION_ROUNDS = 32;
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final long callOverhead;
+
+    private ThreadAllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+        callOverhead = calibrate();
+    }
+
+    private long calibrate() {
+        // The smallest difference is the one no other allocation got into
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+        return Math.max(0, overhead);
+    }
+
+    /**
+     * @return a counter for the running JVM, or {@link AllocationCounter#NONE} when it doesn't expose allocations
+     */
+    public static AllocationCounter create() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                    sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+                    return new ThreadAllocationCounter(sunThreadMXBean);
+                }
+            }
+        } catch (Throwable ignored) {
+            // Android and other runtimes without com.sun.management
+        }
+        return NONE;
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public long callOverhead() {
+        return callOverhead;
+    }
+
+    @Override
+    public boolean isSupported() {
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shares {@link GlyphLayout}s between labels with the same text and style.
+ * <p>
+ * Layouts are keyed on font, font scale, text, target width, line alignment and wrap. Returned layouts are shared and
+ * must be treated as read only. When the cache is full it's cleared, layouts already handed out stay valid since they
+ * are never reused for other keys. Every miss allocates a layout and a key, so only text that doesn't change should go
+ * through it, {@link games.rednblack.editor.renderer.systems.LabelSystem} lays out changing text in the label's own layout.
+ */
+public class GlyphLayoutCache {
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final ObjectMap<Key, GlyphLayout> layouts;
+    private final int capacity;
+    private final Key lookup = new Key();
+
+    public GlyphLayoutCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GlyphLayoutCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be > 0.");
+        this.capacity = capacity;
+        layouts = new ObjectMap<>(capacity);
+    }
+
+    /**
+     * Returns the layout of the text with the current scale of the font, computing it if not cached.
+     */
+    public GlyphLayout obtain(BitmapFont font, CharArray text, float targetWidth, int lineAlign, boolean wrap) {
+        lookup.set(font, text.items, text.size, targetWidth, lineAlign, wrap);
+        GlyphLayout layout = layouts.get(lookup);
+        if (layout != null) return layout;
+
+        if (layouts.size >= capacity) layouts.clear();
+
+        layout = new GlyphLayout();
+        layout.setText(font, text, 0, text.size, Color.WHITE, targetWidth, lineAlign, wrap, null);
+
+        Key key = new Key();
+        char[] chars = new char[text.size];
+        System.arraycopy(text.items, 0, chars, 0, text.size);
+        key.set(font, chars, text.size, targetWidth, lineAlign, wrap);
+        layouts.put(key, layout);
+        return layout;
+    }
+
+    public int size() {
+        return layouts.size;
+    }
+
+    public void clear() {
+        layouts.clear();
+    }
+
+    private static class Key {
+        BitmapFont font;
+        float scaleX, scaleY;
+        char[] chars;
+        int length;
+        float targetWidth;
+        int lineAlign;
+        boolean wrap;
+        int hash;
+
+        void set(BitmapFont font, char[] chars, int length, float targetWidth, int lineAlign, boolean wrap) {
+            this.font = font;
+            this.scaleX = font.getScaleX();
+            this.scaleY = font.getScaleY();
+            this.chars = chars;
+            this.length = length;
+            this.targetWidth = targetWidth;
+            this.lineAlign = lineAlign;
+            this.wrap = wrap;
+
+            int h = System.identityHashCode(font);
+            h = 31 * h + Float.floatToIntBits(scaleX);
+            h = 31 * h + Float.floatToIntBits(scaleY);
+            h = 31 * h + Float.floatToIntBits(targetWidth);
+            h = 31 * h + lineAlign;
+            h = 31 * h + (wrap ? 1 : 0);
+            for (int i = 0; i < length; i++)
+                h = 31 * h + chars[i];
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            if (hash != other.hash || font != other.font || length != other.length || lineAlign != other.lineAlign
+                    || wrap != other.wrap || scaleX != other.scaleX || scaleY != other.scaleY
+                    || targetWidth != other.targetWidth) return false;
+            for (int i = 0; i < length; i++)
+                if (chars[i] != other.chars[i]) return false;
+            return true;
+        }
+    }
+}
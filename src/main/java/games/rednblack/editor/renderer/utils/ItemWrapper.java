@@ -54,8 +54,8 @@ public class ItemWrapper {
         this.engine = engine;
         nodeComponent = ComponentRetriever.get(entity, NodeComponent.class, engine);
         if (nodeComponent != null) {
-            for (int child : nodeComponent.children) {
-                mapEntity(child);
+            for (int i = 0, n = nodeComponent.children.size; i < n; i++) {
+                mapEntity(nodeComponent.children.get(i));
             }
         }
     }
@@ -0,0 +1,294 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * An {@link IntArray} that guarantees the backing array won't be modified while iterating, primitive counterpart of
+ * libGDX {@link com.badlogic.gdx.utils.SnapshotArray}. Use it to walk entity ids without boxing them to {@link Integer}.
+ * <p>
+ * Usage is the same as SnapshotArray:
+ * <pre>
+ * int[] items = array.begin();
+ * for (int i = 0, n = array.size; i &lt; n; i++) {
+ *     int item = items[i];
+ *     // ...
+ * }
+ * array.end();
+ * </pre>
+ * If any code inside the loop modifies the array, the backing array is copied and the snapshot stays untouched.
+ */
+public class SnapshotIntArray extends IntArray {
+    private int[] snapshot, recycled;
+    private int snapshots;
+
+    private int[] sortBuffer;
+    private long[] keyBuffer;
+
+    public SnapshotIntArray() {
+        super();
+    }
+
+    public SnapshotIntArray(int capacity) {
+        super(capacity);
+    }
+
+    public SnapshotIntArray(boolean ordered, int capacity) {
+        super(ordered, capacity);
+    }
+
+    /**
+     * Returns the backing array, which is guaranteed to not be modified before {@link #end()}.
+     */
+    public int[] begin() {
+        modified();
+        snapshot = items;
+        snapshots++;
+        return items;
+    }
+
+    /**
+     * Releases the guarantee that the array returned by {@link #begin()} won't be modified.
+     */
+    public void end() {
+        snapshots = Math.max(0, snapshots - 1);
+        if (snapshot == null) return;
+        if (snapshot != items && snapshots == 0) {
+            // The backing array was copied, keep around the old array.
+            recycled = snapshot;
+        }
+        snapshot = null;
+    }
+
+    private void modified() {
+        if (snapshot == null || snapshot != items) return;
+        // Snapshot is in use, copy backing array to recycled array or create new backing array.
+        if (recycled != null && recycled.length >= size) {
+            System.arraycopy(items, 0, recycled, 0, size);
+            items = recycled;
+            recycled = null;
+        } else
+            resize(items.length);
+    }
+
+    /**
+     * Stable sort of the array using a primitive comparator, no boxing and no allocation once the internal
+     * buffer is big enough. Arrays that are already sorted are detected in a single linear pass.
+     */
+    public void sort(IntComparator comparator) {
+        if (size < 2 || isSorted(comparator)) return;
+        modified();
+        if (size < 32) {
+            insertionSort(items, 0, size, comparator);
+            return;
+        }
+        if (sortBuffer == null || sortBuffer.length < size) sortBuffer = new int[items.length];
+        mergeSort(items, sortBuffer, 0, size, comparator);
+    }
+
+    /**
+     * Stable sort of the array by precomputed primitive keys, {@code keys[i]} being the key of {@code items[i]}.
+     * Keys are reordered along with the items. Arrays that are already sorted are detected in a single linear pass.
+     */
+    public void sortByKeys(long[] keys) {
+        if (keys.length < size) throw new IllegalArgumentException("keys length must be >= size: " + keys.length + " < " + size);
+        if (size < 2 || isSorted(keys, size)) return;
+        modified();
+        if (size < 32) {
+            insertionSort(items, keys, 0, size);
+            return;
+        }
+        if (sortBuffer == null || sortBuffer.length < size) sortBuffer = new int[items.length];
+        if (keyBuffer == null || keyBuffer.length < size) keyBuffer = new long[items.length];
+        mergeSort(items, keys, sortBuffer, keyBuffer, 0, size);
+    }
+
+    private static boolean isSorted(long[] keys, int size) {
+        for (int i = 1; i < size; i++) {
+            if (keys[i - 1] > keys[i]) return false;
+        }
+        return true;
+    }
+
+    private static void insertionSort(int[] a, long[] keys, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                a[j + 1] = a[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            a[j + 1] = value;
+            keys[j + 1] = key;
+        }
+    }
+
+    private static void mergeSort(int[] a, long[] keys, int[] buffer, long[] keyBuffer, int from, int to) {
+        if (to - from < 32) {
+            insertionSort(a, keys, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, keys, buffer, keyBuffer, from, mid);
+        mergeSort(a, keys, buffer, keyBuffer, mid, to);
+        if (keys[mid - 1] <= keys[mid]) return;
+
+        System.arraycopy(a, from, buffer, from, to - from);
+        System.arraycopy(keys, from, keyBuffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            if (keyBuffer[j] < keyBuffer[i]) {
+                a[k] = buffer[j];
+                keys[k++] = keyBuffer[j++];
+            } else {
+                a[k] = buffer[i];
+                keys[k++] = keyBuffer[i++];
+            }
+        }
+        while (i < mid) {
+            a[k] = buffer[i];
+            keys[k++] = keyBuffer[i++];
+        }
+        while (j < to) {
+            a[k] = buffer[j];
+            keys[k++] = keyBuffer[j++];
+        }
+    }
+
+    private boolean isSorted(IntComparator comparator) {
+        int[] items = this.items;
+        for (int i = 1, n = size; i < n; i++) {
+            if (comparator.compare(items[i - 1], items[i]) > 0) return false;
+        }
+        return true;
+    }
+
+    private static void insertionSort(int[] a, int from, int to, IntComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(a[j], value) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, IntComparator comparator) {
+        if (to - from < 32) {
+            insertionSort(a, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, comparator);
+        mergeSort(a, buffer, mid, to, comparator);
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = comparator.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid) a[k++] = buffer[i++];
+        while (j < to) a[k++] = buffer[j++];
+    }
+
+    @Override
+    public void set(int index, int value) {
+        modified();
+        super.set(index, value);
+    }
+
+    @Override
+    public void insert(int index, int value) {
+        modified();
+        super.insert(index, value);
+    }
+
+    @Override
+    public void insertRange(int index, int count) {
+        modified();
+        super.insertRange(index, count);
+    }
+
+    @Override
+    public void swap(int first, int second) {
+        modified();
+        super.swap(first, second);
+    }
+
+    @Override
+    public boolean removeValue(int value) {
+        modified();
+        return super.removeValue(value);
+    }
+
+    @Override
+    public int removeIndex(int index) {
+        modified();
+        return super.removeIndex(index);
+    }
+
+    @Override
+    public void removeRange(int start, int end) {
+        modified();
+        super.removeRange(start, end);
+    }
+
+    @Override
+    public boolean removeAll(IntArray array) {
+        modified();
+        return super.removeAll(array);
+    }
+
+    @Override
+    public int pop() {
+        modified();
+        return super.pop();
+    }
+
+    @Override
+    public void clear() {
+        modified();
+        super.clear();
+    }
+
+    @Override
+    public void sort() {
+        modified();
+        super.sort();
+    }
+
+    @Override
+    public void reverse() {
+        modified();
+        super.reverse();
+    }
+
+    @Override
+    public void shuffle() {
+        modified();
+        super.shuffle();
+    }
+
+    @Override
+    public void truncate(int newSize) {
+        modified();
+        super.truncate(newSize);
+    }
+
+    @Override
+    public int[] setSize(int newSize) {
+        modified();
+        return super.setSize(newSize);
+    }
+
+    /**
+     * Primitive comparator used by {@link #sort(IntComparator)}.
+     */
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+}
@@ -0,0 +1,303 @@
+package games.rednblack.editor.renderer.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
+import games.rednblack.editor.renderer.ecs.utils.BitVector;
+
+import java.util.Arrays;
+
+/**
+ * Sparse uniform grid of entity bounding rectangles in scene coordinates.
+ * <p>
+ * Entities are bucketed in every cell their rectangle overlaps, cells are allocated only when used. Rectangles that
+ * would span too many cells are kept in a separate list that is always tested, so huge backgrounds don't flood the grid.
+ * Updates that keep an entity inside the same cells only rewrite its bounds.
+ * <p>
+ * Used by {@link games.rednblack.editor.renderer.systems.CullingSystem} to find visible entities and available to game
+ * code for point/rectangle picking through {@link games.rednblack.editor.renderer.systems.BoundingBoxSystem#getSpatialIndex()}.
+ */
+public class SpatialHashGrid {
+    /** Default cell size in pixels, divide by pixels per world unit to get the size in world units. */
+    public static final float DEFAULT_CELL_SIZE = 256;
+
+    private static final int MAX_CELLS_PER_ENTITY = 16;
+
+    private float cellSize, invCellSize;
+
+    private final LongMap<IntArray> cells = new LongMap<>();
+    private final Pool<IntArray> cellPool = new Pool<IntArray>() {
+        @Override
+        protected IntArray newObject() {
+            return new IntArray(false, 8);
+        }
+    };
+    private final IntArray oversized = new IntArray(false, 16);
+
+    private final BitVector members = new BitVector();
+    private final BitVector oversizedMembers = new BitVector();
+
+    /** Per entity x, y, x2, y2 */
+    private float[] bounds = new float[0];
+    /** Per entity minCellX, minCellY, maxCellX, maxCellY */
+    private int[] cellRanges = new int[0];
+    private int[] queryStamps = new int[0];
+    private int queryStamp = 0;
+
+    private int size = 0;
+
+    public SpatialHashGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialHashGrid(float cellSize) {
+        setCellSizeInternal(cellSize);
+    }
+
+    /**
+     * Change the cell size, entities already in the grid are re-bucketed.
+     */
+    public void setCellSize(float cellSize) {
+        if (cellSize == this.cellSize) return;
+        setCellSizeInternal(cellSize);
+
+        for (LongMap.Entry<IntArray> cell : cells) {
+            cellPool.free(cell.value);
+        }
+        cells.clear();
+        oversized.clear();
+        oversizedMembers.clear();
+
+        for (int entity = members.nextSetBit(0); entity >= 0; entity = members.nextSetBit(entity + 1)) {
+            int b = entity * 4;
+            insertInCells(entity, bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]);
+        }
+    }
+
+    private void setCellSizeInternal(float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("Cell size must be > 0.");
+        this.cellSize = cellSize;
+        this.invCellSize = 1f / cellSize;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Insert the entity or move it to its new bounds.
+     */
+    public void update(int entity, Rectangle rectangle) {
+        update(entity, rectangle.x, rectangle.y, rectangle.x + rectangle.width, rectangle.y + rectangle.height);
+    }
+
+    /**
+     * Insert the entity or move it to its new bounds.
+     */
+    public void update(int entity, float x, float y, float x2, float y2) {
+        ensureCapacity(entity);
+        if (members.unsafeGet(entity)) {
+            int c = entity * 4;
+            if (!oversizedMembers.unsafeGet(entity)
+                    && cellRanges[c] == cell(x) && cellRanges[c + 1] == cell(y)
+                    && cellRanges[c + 2] == cell(x2) && cellRanges[c + 3] == cell(y2)) {
+                setBounds(entity, x, y, x2, y2);
+                return;
+            }
+            removeFromCells(entity);
+        } else {
+            members.unsafeSet(entity);
+            size++;
+        }
+
+        setBounds(entity, x, y, x2, y2);
+        insertInCells(entity, x, y, x2, y2);
+    }
+
+    public void remove(int entity) {
+        if (!contains(entity)) return;
+
+        removeFromCells(entity);
+        members.unsafeClear(entity);
+        size--;
+    }
+
+    public boolean contains(int entity) {
+        return entity >= 0 && members.get(entity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (LongMap.Entry<IntArray> cell : cells) {
+            cellPool.free(cell.value);
+        }
+        cells.clear();
+        oversized.clear();
+        oversizedMembers.clear();
+        members.clear();
+        size = 0;
+    }
+
+    /**
+     * Collect every entity whose bounds overlap the given rectangle.
+     *
+     * @param out entities are appended to this array, it's not cleared
+     * @return out
+     */
+    public IntArray query(Rectangle rectangle, IntArray out) {
+        return query(rectangle.x, rectangle.y, rectangle.x + rectangle.width, rectangle.y + rectangle.height, out);
+    }
+
+    /**
+     * Collect every entity whose bounds contain the given point.
+     *
+     * @param out entities are appended to this array, it's not cleared
+     * @return out
+     */
+    public IntArray query(float x, float y, IntArray out) {
+        return query(x, y, x, y, out);
+    }
+
+    /**
+     * Collect every entity whose bounds overlap the given area.
+     *
+     * @param out entities are appended to this array, it's not cleared
+     * @return out
+     */
+    public IntArray query(float x, float y, float x2, float y2, IntArray out) {
+        int stamp = nextQueryStamp();
+
+        int minCellX = cell(x), minCellY = cell(y);
+        int maxCellX = cell(x2), maxCellY = cell(y2);
+        long queryCells = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        if (queryCells > cells.size) {
+            //Query area is bigger than the populated grid, walk used cells only
+            for (LongMap.Entry<IntArray> cell : cells) {
+                int cellX = (int) (cell.key >> 32), cellY = (int) cell.key;
+                if (cellX < minCellX || cellX > maxCellX || cellY < minCellY || cellY > maxCellY) continue;
+                collect(cell.value, stamp, x, y, x2, y2, out);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                    IntArray cell = cells.get(key(cellX, cellY));
+                    if (cell != null) collect(cell, stamp, x, y, x2, y2, out);
+                }
+            }
+        }
+        collect(oversized, stamp, x, y, x2, y2, out);
+
+        return out;
+    }
+
+    private void collect(IntArray entities, int stamp, float x, float y, float x2, float y2, IntArray out) {
+        int[] items = entities.items;
+        for (int i = 0, n = entities.size; i < n; i++) {
+            int entity = items[i];
+            if (queryStamps[entity] == stamp) continue;
+            queryStamps[entity] = stamp;
+
+            int b = entity * 4;
+            if (bounds[b] <= x2 && bounds[b + 2] >= x && bounds[b + 1] <= y2 && bounds[b + 3] >= y)
+                out.add(entity);
+        }
+    }
+
+    private int nextQueryStamp() {
+        if (++queryStamp == Integer.MAX_VALUE) {
+            queryStamp = 1;
+            Arrays.fill(queryStamps, 0);
+        }
+        return queryStamp;
+    }
+
+    private void insertInCells(int entity, float x, float y, float x2, float y2) {
+        int minCellX = cell(x), minCellY = cell(y);
+        int maxCellX = cell(x2), maxCellY = cell(y2);
+
+        int c = entity * 4;
+        cellRanges[c] = minCellX;
+        cellRanges[c + 1] = minCellY;
+        cellRanges[c + 2] = maxCellX;
+        cellRanges[c + 3] = maxCellY;
+
+        if ((long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) > MAX_CELLS_PER_ENTITY) {
+            oversized.add(entity);
+            oversizedMembers.unsafeSet(entity);
+            return;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                long key = key(cellX, cellY);
+                IntArray cell = cells.get(key);
+                if (cell == null) {
+                    cell = cellPool.obtain();
+                    cells.put(key, cell);
+                }
+                cell.add(entity);
+            }
+        }
+    }
+
+    private void removeFromCells(int entity) {
+        if (oversizedMembers.unsafeGet(entity)) {
+            oversized.removeValue(entity);
+            oversizedMembers.unsafeClear(entity);
+            return;
+        }
+
+        int c = entity * 4;
+        for (int cellX = cellRanges[c]; cellX <= cellRanges[c + 2]; cellX++) {
+            for (int cellY = cellRanges[c + 1]; cellY <= cellRanges[c + 3]; cellY++) {
+                long key = key(cellX, cellY);
+                IntArray cell = cells.get(key);
+                if (cell == null) continue;
+                cell.removeValue(entity);
+                if (cell.size == 0) {
+                    cells.remove(key);
+                    cellPool.free(cell);
+                }
+            }
+        }
+    }
+
+    private void setBounds(int entity, float x, float y, float x2, float y2) {
+        int b = entity * 4;
+        bounds[b] = x;
+        bounds[b + 1] = y;
+        bounds[b + 2] = x2;
+        bounds[b + 3] = y2;
+    }
+
+    private void ensureCapacity(int entity) {
+        if (entity < queryStamps.length) return;
+
+        int capacity = Math.max(entity + 1, queryStamps.length * 2);
+        float[] newBounds = new float[capacity * 4];
+        System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+        bounds = newBounds;
+        int[] newCellRanges = new int[capacity * 4];
+        System.arraycopy(cellRanges, 0, newCellRanges, 0, cellRanges.length);
+        cellRanges = newCellRanges;
+        int[] newStamps = new int[capacity];
+        System.arraycopy(queryStamps, 0, newStamps, 0, queryStamps.length);
+        queryStamps = newStamps;
+
+        members.ensureCapacity(capacity);
+        oversizedMembers.ensureCapacity(capacity);
+    }
+
+    private int cell(float value) {
+        return (int) Math.floor(value * invCellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
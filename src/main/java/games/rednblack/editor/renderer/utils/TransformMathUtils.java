@@ -10,6 +10,7 @@ import games.rednblack.editor.renderer.components.ViewPortComponent;
 public class TransformMathUtils {
 
     private static final Matrix3 tmpMat = new Matrix3();
+    private static final Affine2 tmpAffine = new Affine2();
 
     public static float sceneToLocalRotation(int entity, float rotation, ComponentMapper<TransformComponent> transformMapper, ComponentMapper<ParentNodeComponent> parentMapper) {
         while (entity != -1) {
@@ -39,6 +40,40 @@ public class TransformMathUtils {
         return sceneCoords;
     }
 
+    /**
+     * Transforms the specified point in the scene's coordinates to the entity's local coordinate system, using
+     * {@link TransformComponent#sceneTransform} cached by {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem}.
+     */
+    public static Vector2 sceneToLocalCoordinates(TransformComponent transform, Vector2 sceneCoords) {
+        Affine2 inverse = tmpAffine.set(transform.sceneTransform);
+        if (inverse.det() == 0) {
+            // Scaled to zero, there is no local space to map to
+            return sceneCoords.set(Float.NaN, Float.NaN);
+        }
+        return sceneCoords.mul(inverse.inv());
+    }
+
+    /**
+     * Unprojects the screen point with the root viewport and transforms it to the entity's local coordinate system,
+     * using the cached {@link TransformComponent#sceneTransform}. Like the uncached overload, the unprojected point is
+     * taken in the space of the viewport's children, the viewport's own transform is not inverted.
+     */
+    public static Vector2 globalToLocalCoordinates(int entity, Vector2 screenCoords, TransformComponent transform, ComponentMapper<TransformComponent> transformMapper, ComponentMapper<ParentNodeComponent> parentMapper, ComponentMapper<ViewPortComponent> viewportMapper) {
+        ParentNodeComponent parentNodeComponent = parentMapper.get(entity);
+        while (parentNodeComponent != null && parentNodeComponent.parentEntity != -1) {
+            int parentEntity = parentNodeComponent.parentEntity;
+            ViewPortComponent viewPortComponent = viewportMapper.get(parentEntity);
+            if (viewPortComponent != null) {
+                viewPortComponent.viewPort.unproject(screenCoords);
+                // The scene transform includes the root, map the point to scene space so it cancels out
+                screenCoords.mul(transformMapper.get(parentEntity).sceneTransform);
+                break;
+            }
+            parentNodeComponent = parentMapper.get(parentEntity);
+        }
+        return sceneToLocalCoordinates(transform, screenCoords);
+    }
+
     public static Vector2 globalToLocalCoordinates(int entity, Vector2 sceneCoords, ComponentMapper<TransformComponent> transformMapper, ComponentMapper<ParentNodeComponent> parentMapper, ComponentMapper<ViewPortComponent> viewportMapper) {
         ParentNodeComponent parentNodeComponent = parentMapper.get(entity);
         int parentEntity = -1;
@@ -127,6 +162,14 @@ public class TransformMathUtils {
         return localToAscendantCoordinates(-1, entity, localCoords, transformMapper, parentMapper);
     }
 
+    /**
+     * Transforms the specified point in the entity's coordinates to be in the scene's coordinates, using
+     * {@link TransformComponent#sceneTransform} cached by {@link games.rednblack.editor.renderer.systems.TransformHierarchySystem}.
+     */
+    public static Vector2 localToSceneCoordinates(TransformComponent transform, Vector2 localCoords) {
+        return localCoords.mul(transform.sceneTransform);
+    }
+
     /**
      * Converts coordinates for this entity to those of a parent entity. The ascendant does not need to be a direct parent.
      */
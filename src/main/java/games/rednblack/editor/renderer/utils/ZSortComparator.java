@@ -3,13 +3,22 @@ package games.rednblack.editor.renderer.utils;
 import games.rednblack.editor.renderer.ecs.ComponentMapper;
 import games.rednblack.editor.renderer.components.ZIndexComponent;
 
-public class ZSortComparator {
+/**
+ * Orders entities by layer index, then z-index.
+ *
+ * @deprecated no longer used by the runtime, {@link games.rednblack.editor.renderer.systems.LayerSystem} and
+ * {@link games.rednblack.editor.renderer.systems.ButtonSystem} sort on packed layer and z-index keys with
+ * {@link SnapshotIntArray#sortByKeys(long[])}.
+ */
+@Deprecated
+public class ZSortComparator implements SnapshotIntArray.IntComparator {
     private ComponentMapper<ZIndexComponent> zIndexMapper;
 
     public void setzIndexMapper(ComponentMapper<ZIndexComponent> zIndexMapper) {
         this.zIndexMapper = zIndexMapper;
     }
 
+    @Override
     public int compare(int e1, int e2) {
         ZIndexComponent zIndexComponent1 = zIndexMapper.get(e1);
         ZIndexComponent zIndexComponent2 = zIndexMapper.get(e2);